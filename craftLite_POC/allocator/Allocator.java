@@ -2,6 +2,7 @@ package allocator;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -11,6 +12,7 @@ import org.openqa.selenium.Platform;
 import com.cognizant.framework.selenium.*;
 
 import com.cognizant.framework.ExcelDataAccess;
+import com.cognizant.framework.FrameworkException;
 import com.cognizant.framework.FrameworkParameters;
 import com.cognizant.framework.IterationOptions;
 import com.cognizant.framework.Settings;
@@ -87,47 +89,48 @@ public class Allocator
 		ExcelDataAccess runManagerAccess = new ExcelDataAccess(frameworkParameters.getRelativePath(), "Run Manager");
 		runManagerAccess.setDatasheetName(sheetName);
 
-		int nTestInstances = runManagerAccess.getLastRowNum();
+		// Read the whole run configuration in one pass, rather than cell by cell
+		List<Map<String, String>> testInstances = runManagerAccess.getAllRows();
 		List<SeleniumTestParameters> testInstancesToRun = new ArrayList<SeleniumTestParameters>();
 
-		for (int currentTestInstance = 1; currentTestInstance <= nTestInstances; currentTestInstance++) {
-			String executeFlag = runManagerAccess.getValue(currentTestInstance, "Execute");
+		for (Map<String, String> testInstance : testInstances) {
+			String executeFlag = getRunInfoValue(testInstance, "Execute", sheetName);
 
 			if (executeFlag.equalsIgnoreCase("Yes")) {
-				String currentScenario = runManagerAccess.getValue(currentTestInstance, "TestScenario");
-				String currentTestcase = runManagerAccess.getValue(currentTestInstance, "TestCase");
+				String currentScenario = getRunInfoValue(testInstance, "TestScenario", sheetName);
+				String currentTestcase = getRunInfoValue(testInstance, "TestCase", sheetName);
 				SeleniumTestParameters testParameters =
 						new SeleniumTestParameters(currentScenario, currentTestcase);
 
-				testParameters.setCurrentTestDescription(runManagerAccess.getValue(currentTestInstance, "Description"));
+				testParameters.setCurrentTestDescription(getRunInfoValue(testInstance, "Description", sheetName));
 
-				String iterationMode = runManagerAccess.getValue(currentTestInstance, "IterationMode");
+				String iterationMode = getRunInfoValue(testInstance, "IterationMode", sheetName);
 				if (!iterationMode.equals("")) {
 					testParameters.setIterationMode(IterationOptions.valueOf(iterationMode));
 				} else {
 					testParameters.setIterationMode(IterationOptions.RunAllIterations);
 				}
 
-				String startIteration = runManagerAccess.getValue(currentTestInstance, "StartIteration");
+				String startIteration = getRunInfoValue(testInstance, "StartIteration", sheetName);
 				if (!startIteration.equals("")) {
 					testParameters.setStartIteration(Integer.parseInt(startIteration));
 				}
-				String endIteration = runManagerAccess.getValue(currentTestInstance, "EndIteration");
+				String endIteration = getRunInfoValue(testInstance, "EndIteration", sheetName);
 				if (!endIteration.equals("")) {
 					testParameters.setEndIteration(Integer.parseInt(endIteration));
 				}
 
-				String browser = runManagerAccess.getValue(currentTestInstance, "Browser");
+				String browser = getRunInfoValue(testInstance, "Browser", sheetName);
 				if (!browser.equals("")) {
 					testParameters.setBrowser(Browser.valueOf(browser));
 				} else {
 					testParameters.setBrowser(Browser.valueOf(properties.getProperty("DefaultBrowser")));
 				}
-				String browserVersion = runManagerAccess.getValue(currentTestInstance, "BrowserVersion");
+				String browserVersion = getRunInfoValue(testInstance, "BrowserVersion", sheetName);
 				if (!browserVersion.equals("")) {
 					testParameters.setBrowserVersion(browserVersion);
 				}
-				String platform = runManagerAccess.getValue(currentTestInstance, "Platform");
+				String platform = getRunInfoValue(testInstance, "Platform", sheetName);
 				if (!platform.equals("")) {
 					testParameters.setPlatform(Platform.valueOf(platform));
 				} else {
@@ -140,4 +143,16 @@ public class Allocator
 
 		return testInstancesToRun;
 	}
+
+	private String getRunInfoValue(Map<String, String> testInstance,
+										String columnHeader, String sheetName)
+	{
+		String value = testInstance.get(columnHeader);
+		if (value == null) {
+			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
+										"is not found in the sheet \"" + sheetName + "\"!");
+		}
+
+		return value;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package allocator;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.cognizant.framework.JdbcDatatableBackend;
+
+
+/**
+ * Class to import the Excel datatables into the database used by the Database datatable format
+ * @author Cognizant
+ */
+public class DatatableImporter
+{
+	private DatatableImporter()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * The entry point of the datatable import <br>
+	 * Each datatable is imported within a transaction of its own, replacing any earlier import of it
+	 * @param args Command line arguments to control the import (details below):<br>
+	 * <b>Argument 1 :</b> The JDBC URL of the database into which the datatables are to be imported (Mandatory)<br>
+	 * <b>Argument 2 :</b> The path where the Excel datatables are stored (Mandatory)<br>
+	 * <b>Argument 3 onwards :</b> The names of the datatables to be imported (Optional - all the datatables are imported if not specified)
+	 */
+	public static void main(String[] args)
+	{
+		if(args.length < 2) {
+			System.out.println("\nError: Insufficient parameters!" +
+								"\nUsage: java allocator.DatatableImporter " +
+								"<database-url> <datatable-path> <datatable-name*>..." +
+								"\n\n * - Optional (all the datatables are imported if not specified)");
+			return;
+		}
+
+		String databaseUrl = args[0];
+		String datatablePath = args[1];
+
+		List<String> datatableNames;
+		if(args.length > 2) {
+			datatableNames = Arrays.asList(args).subList(2, args.length);
+		} else {
+			datatableNames = getDatatableNames(datatablePath);
+		}
+
+		try {
+			for(String datatableName : datatableNames) {
+				System.out.println("Importing the datatable \"" + datatableName + "\"...");
+				new JdbcDatatableBackend(databaseUrl, datatableName).importExcelDatatable(datatablePath);
+			}
+		} finally {
+			JdbcDatatableBackend.closeConnections();
+		}
+
+		System.out.println("Imported " + datatableNames.size() + " datatable(s) into " + databaseUrl);
+	}
+
+	private static List<String> getDatatableNames(String datatablePath)
+	{
+		File[] datatables = new File(datatablePath).listFiles(new FilenameFilter()
+		{
+			@Override
+			public boolean accept(File directory, String fileName)
+			{
+				return fileName.endsWith(".xls");
+			}
+		});
+
+		List<String> datatableNames = new ArrayList<String>();
+		if(datatables != null) {
+			for(File datatable : datatables) {
+				String fileName = datatable.getName();
+				datatableNames.add(fileName.substring(0, fileName.length() - ".xls".length()));
+			}
+		}
+
+		return datatableNames;
+	}
+}
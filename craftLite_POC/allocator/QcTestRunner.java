@@ -7,6 +7,7 @@ import org.openqa.selenium.Platform;
 
 import supportlibraries.*;
 
+import com.cognizant.framework.DatatableJournal;
 import com.cognizant.framework.FrameworkParameters;
 import com.cognizant.framework.IterationOptions;
 import com.cognizant.framework.Settings;
@@ -122,6 +123,9 @@ public class QcTestRunner
 		driverScript.setLinkScreenshotsToTestLog(false);
 		driverScript.driveTestExecution();
 		
+		// Each test executed from QC is a test batch of its own
+		DatatableJournal.materializeAll();
+		
 		return driverScript.getTestStatus();
     }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.cognizant.framework;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+
+/**
+ * Class which publishes the report events into a bounded queue, from which a background thread
+ * renders them to each of the underlying {@link ReportType}s in order.
+ * The calling thread only pays for enqueueing the event, and is blocked only when the queue is full.
+ * All pending events are rendered before the test log footer or the result summary footer is returned.
+ * @author Cognizant
+ */
+class AsyncReportType implements ReportType
+{
+	private final List<ReportType> reportTypes;
+	private final BlockingQueue<ReportEvent> eventQueue;
+	private final String consumerName;
+
+	private Thread consumerThread;
+	private volatile RuntimeException consumerError;
+
+	private static final ReportEvent STOP_EVENT = new ReportEvent()
+	{
+		@Override
+		public void renderTo(ReportType reportType)
+		{
+			// Marker event to stop the consumer thread; nothing to render
+		}
+	};
+
+
+	/**
+	 * Constructor to initialize the asynchronous report
+	 * @param reportTypes The {@link ReportType}s to which the report events are to be rendered
+	 * @param queueCapacity The maximum number of report events which may be pending at any point of time
+	 * @param consumerName The name of the background thread which renders the report events
+	 */
+	AsyncReportType(List<ReportType> reportTypes, int queueCapacity, String consumerName)
+	{
+		this.reportTypes = reportTypes;
+		this.eventQueue = new ArrayBlockingQueue<ReportEvent>(queueCapacity);
+		this.consumerName = consumerName;
+	}
+
+	private synchronized void startConsumer()
+	{
+		if (consumerThread != null) {
+			return;
+		}
+
+		consumerError = null;
+		consumerThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				consumeEvents();
+			}
+		}, consumerName);
+		consumerThread.setDaemon(true);
+		consumerThread.start();
+	}
+
+	private void consumeEvents()
+	{
+		while (true) {
+			ReportEvent event;
+			try {
+				event = eventQueue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			if (event == STOP_EVENT) {
+				return;
+			}
+
+			// Once an error occurs, the remaining events are discarded so that the publishers are never blocked
+			if (consumerError != null) {
+				continue;
+			}
+
+			try {
+				for (int i=0; i < reportTypes.size(); i++) {
+					event.renderTo(reportTypes.get(i));
+				}
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				consumerError = e;
+			}
+		}
+	}
+
+	private void publish(ReportEvent event)
+	{
+		checkConsumerError();
+		startConsumer();
+
+		try {
+			eventQueue.put(event);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkException("Interrupted while publishing the report event");
+		}
+	}
+
+	private synchronized void drainAndStopConsumer()
+	{
+		if (consumerThread == null) {
+			return;
+		}
+
+		try {
+			eventQueue.put(STOP_EVENT);
+			consumerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkException("Interrupted while waiting for the report events to be rendered");
+		} finally {
+			consumerThread = null;
+		}
+
+		checkConsumerError();
+	}
+
+	private void checkConsumerError()
+	{
+		RuntimeException error = consumerError;
+		if (error != null) {
+			throw new FrameworkException("Error while rendering the report: " + error.getMessage());
+		}
+	}
+
+
+	/* TEST LOG FUNCTIONS*/
+
+	@Override
+	public void initializeTestLog()
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.initializeTestLog();
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogHeading(final String heading)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogHeading(heading);
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogSubHeading(final String subHeading1, final String subHeading2,
+										final String subHeading3, final String subHeading4)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogSubHeading(subHeading1, subHeading2,
+													subHeading3, subHeading4);
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogTableHeadings()
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogTableHeadings();
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogSection(final String section)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogSection(section);
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogSubSection(final String subSection)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogSubSection(subSection);
+			}
+		});
+	}
+
+	@Override
+	public void updateTestLog(String stepNumber, String stepName,
+								String stepDescription, Status stepStatus,
+								String screenshotName)
+	{
+		// The step time is captured when the step is logged, rather than when it is rendered
+		updateTestLog(stepNumber, stepName, stepDescription, stepStatus, screenshotName, Util.getCurrentTime());
+	}
+
+	@Override
+	public void updateTestLog(final String stepNumber, final String stepName,
+								final String stepDescription, final Status stepStatus,
+								final String screenshotName, final Date stepTime)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.updateTestLog(stepNumber, stepName, stepDescription,
+											stepStatus, screenshotName, stepTime);
+			}
+		});
+	}
+
+	@Override
+	public void addTestLogFooter(final String executionTime,
+									final int nStepsPassed, final int nStepsFailed)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addTestLogFooter(executionTime, nStepsPassed, nStepsFailed);
+			}
+		});
+
+		drainAndStopConsumer();
+	}
+
+
+	/* RESULT SUMMARY FUNCTIONS*/
+
+	@Override
+	public void initializeResultSummary()
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.initializeResultSummary();
+			}
+		});
+	}
+
+	@Override
+	public void addResultSummaryHeading(final String heading)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addResultSummaryHeading(heading);
+			}
+		});
+	}
+
+	@Override
+	public void addResultSummarySubHeading(final String subHeading1, final String subHeading2,
+											final String subHeading3, final String subHeading4)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addResultSummarySubHeading(subHeading1, subHeading2,
+														subHeading3, subHeading4);
+			}
+		});
+	}
+
+	@Override
+	public void addResultSummaryTableHeadings()
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addResultSummaryTableHeadings();
+			}
+		});
+	}
+
+	@Override
+	public void updateResultSummary(final String scenarioName, final String testcaseName,
+										final String testcaseDescription, final String executionTime,
+										final String testStatus)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.updateResultSummary(scenarioName, testcaseName,
+												testcaseDescription, executionTime, testStatus);
+			}
+		});
+	}
+
+	@Override
+	public void addResultSummaryFooter(final String totalExecutionTime,
+										final int nTestsPassed, final int nTestsFailed)
+	{
+		publish(new ReportEvent()
+		{
+			@Override
+			public void renderTo(ReportType reportType)
+			{
+				reportType.addResultSummaryFooter(totalExecutionTime, nTestsPassed, nTestsFailed);
+			}
+		});
+
+		drainAndStopConsumer();
+	}
+
+
+	/**
+	 * Interface representing an immutable report event, which is rendered to each {@link ReportType} in turn
+	 */
+	private interface ReportEvent
+	{
+		public void renderTo(ReportType reportType);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+
+/**
+ * Singleton class that resolves the references to the common test data,
+ * using a shared copy of the common test data sheet which is loaded only once
+ * for as long as the underlying file remains unchanged.
+ * The storage format of the common test data is specified by each caller, since concurrent tests may use different formats
+ * @author Cognizant
+ */
+public class CommonDataResolver
+{
+	private static final CommonDataResolver commonDataResolver = new CommonDataResolver();
+
+	private static final String COMMON_DATATABLE_NAME = "Common Testdata";
+	private static final String COMMON_DATASHEET_NAME = "Common_Testdata";
+
+	private final ConcurrentMap<String, CommonData> commonDataCache =
+									new ConcurrentHashMap<String, CommonData>();
+
+	private CommonDataResolver()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to return the singleton instance of the {@link CommonDataResolver} object
+	 * @return Instance of the {@link CommonDataResolver} object
+	 */
+	public static CommonDataResolver getInstance()
+	{
+		return commonDataResolver;
+	}
+
+	/**
+	 * Function to resolve the specified reference to the common test data stored within an Excel datatable
+	 * @param datatablePath The path where the common test data is stored
+	 * @param fieldName The name of the field whose value is required
+	 * @param dataValue The reference to be resolved (the data reference identifier followed by the reference ID)
+	 * @param dataReferenceIdentifier The data reference identifier character
+	 * @return The common test data value corresponding to the reference
+	 * @see #resolve(DatatableFormat, String, String, boolean, String, String, String)
+	 */
+	public String resolve(String datatablePath, String fieldName,
+							String dataValue, String dataReferenceIdentifier)
+	{
+		return resolve(DatatableFormat.Excel, datatablePath, null, false,
+								fieldName, dataValue, dataReferenceIdentifier);
+	}
+
+	/**
+	 * Function to resolve the specified reference to the common test data.
+	 * Chained references (i.e., common test data values which are themselves references) are resolved in turn
+	 * @param datatableFormat The {@link DatatableFormat} of the common test data
+	 * @param datatablePath The path where the common test data is stored
+	 * @param databaseUrl The JDBC URL of the database in which the common test data is stored
+	 * (applicable only to the Database format)
+	 * @param useSnapshots Boolean value indicating whether the common test data is to be loaded from the compiled
+	 * {@link DatatableSnapshot} of the common test data sheet (applicable only to the Excel format)
+	 * @param fieldName The name of the field whose value is required
+	 * @param dataValue The reference to be resolved (the data reference identifier followed by the reference ID)
+	 * @param dataReferenceIdentifier The data reference identifier character
+	 * @return The common test data value corresponding to the reference
+	 */
+	public String resolve(DatatableFormat datatableFormat, String datatablePath,
+							String databaseUrl, boolean useSnapshots, String fieldName,
+							String dataValue, String dataReferenceIdentifier)
+	{
+		DatatableBackend commonDataBackend =
+				getBackend(datatableFormat, datatablePath, databaseUrl, useSnapshots);
+		Map<String, Map<String, String>> commonData = getCommonData(commonDataBackend, databaseUrl);
+		Set<String> visitedReferenceIds = new LinkedHashSet<String>();
+
+		while (dataValue.startsWith(dataReferenceIdentifier)) {
+			String[] dataValueParts = dataValue.split(Pattern.quote(dataReferenceIdentifier));
+			if (dataValueParts.length < 2) {
+				throw new FrameworkException("The common test data reference \"" + dataValue + "\"" +
+											"does not specify a reference ID!");
+			}
+			String dataReferenceId = dataValueParts[1];
+
+			if (!visitedReferenceIds.add(dataReferenceId)) {
+				throw new FrameworkException("Circular reference detected while resolving the common test data: " +
+											visitedReferenceIds + " -> " + dataReferenceId);
+			}
+
+			Map<String, String> commonDataRow = commonData.get(dataReferenceId);
+			if (commonDataRow == null) {
+				throw new FrameworkException("The common test data row identified by \"" + dataReferenceId + "\"" +
+											"is not found in the common test data sheet!");
+			}
+
+			dataValue = commonDataRow.get(fieldName);
+			if (dataValue == null) {
+				throw new FrameworkException("The specified column header \"" + fieldName + "\"" +
+											"is not found in the sheet \"" + COMMON_DATASHEET_NAME + "\"!");
+			}
+		}
+
+		return dataValue;
+	}
+
+	private Map<String, Map<String, String>> getCommonData(DatatableBackend commonDataBackend,
+																	String databaseUrl)
+	{
+		File commonDatatable = commonDataBackend.getSheetFile(COMMON_DATASHEET_NAME);
+		if (commonDatatable == null) {
+			return getDatabaseCommonData(commonDataBackend, databaseUrl);
+		}
+		String cacheKey = commonDatatable.getAbsolutePath();
+
+		CommonData commonData = commonDataCache.get(cacheKey);
+		if (commonData != null && commonData.isCurrent(commonDatatable)) {
+			return commonData.rows;
+		}
+
+		// Concurrent loads of the same file are harmless, since the loaded data is immutable
+		long lastModified = commonDatatable.lastModified();
+		long length = commonDatatable.length();
+		commonData = new CommonData(commonDataBackend.getReferenceRows(COMMON_DATASHEET_NAME),
+																		lastModified, length);
+		commonDataCache.put(cacheKey, commonData);
+
+		return commonData.rows;
+	}
+
+	private Map<String, Map<String, String>> getDatabaseCommonData(DatatableBackend commonDataBackend,
+																			String databaseUrl)
+	{
+		// The common test data stored within a database is loaded once per test batch execution
+		String cacheKey = databaseUrl;
+
+		CommonData commonData = commonDataCache.get(cacheKey);
+		if (commonData == null) {
+			commonData = new CommonData(commonDataBackend.getReferenceRows(COMMON_DATASHEET_NAME), 0, 0);
+			commonDataCache.put(cacheKey, commonData);
+		}
+
+		return commonData.rows;
+	}
+
+	private DatatableBackend getBackend(DatatableFormat datatableFormat, String datatablePath,
+											String databaseUrl, boolean useSnapshots)
+	{
+		switch (datatableFormat) {
+		case Excel:
+			ExcelDatatableBackend excelBackend = new ExcelDatatableBackend(datatablePath, COMMON_DATATABLE_NAME);
+			excelBackend.setUseSnapshots(useSnapshots);
+			return excelBackend;
+			
+		case Database:
+			return new JdbcDatatableBackend(databaseUrl, COMMON_DATATABLE_NAME);
+			
+		default:
+			return new DelimitedDatatableBackend(datatablePath, COMMON_DATATABLE_NAME, datatableFormat);
+		}
+	}
+
+	/**
+	 * Function to discard the cached common test data, and release the memory held by it
+	 */
+	public void clear()
+	{
+		commonDataCache.clear();
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException
+	{
+		throw new CloneNotSupportedException();
+	}
+
+
+	private static class CommonData
+	{
+		private final Map<String, Map<String, String>> rows;
+		private final long lastModified, length;
+
+		private CommonData(Map<String, Map<String, String>> rows, long lastModified, long length)
+		{
+			this.rows = rows;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		private boolean isCurrent(File file)
+		{
+			return file.lastModified() == lastModified && file.length() == length;
+		}
+	}
+}
\ No newline at end of file
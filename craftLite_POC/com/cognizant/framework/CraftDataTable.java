@@ -22,6 +22,30 @@ public class CraftDataTable
 		this.dataReferenceIdentifier = dataReferenceIdentifier;
 	}
 	
+	private boolean writeBehind = false;
+	/**
+	 * Function to set whether the output data is to be written into the datatable in the background.
+	 * The data written is visible to the subsequent reads right away,
+	 * but is guaranteed to be present in the datatable file only after {@link DatatableWriter#flush()}
+	 * @param writeBehind Boolean value indicating whether the output data is to be written in the background
+	 */
+	public void setWriteBehind(boolean writeBehind)
+	{
+		this.writeBehind = writeBehind;
+	}
+	
+	private boolean reevaluateFormulasOnWrite = false;
+	/**
+	 * Function to set whether the formulas within the datatable are to be re-evaluated whenever output data is written,
+	 * so that the formula results stored within the datatable file reflect the data written
+	 * @param reevaluateFormulasOnWrite Boolean value indicating whether the formulas are to be re-evaluated on write
+	 * @see ExcelDataAccess#setReevaluateFormulasOnWrite(boolean)
+	 */
+	public void setReevaluateFormulasOnWrite(boolean reevaluateFormulasOnWrite)
+	{
+		this.reevaluateFormulasOnWrite = reevaluateFormulasOnWrite;
+	}
+	
 	private String currentTestcase;
 	private int currentIteration = 0, currentSubIteration = 0;
 	
@@ -78,52 +102,59 @@ public class CraftDataTable
 		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
 		testDataAccess.setDatasheetName(datasheetName);
 		
-		int rowNum = testDataAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
+		int rowNum = getRowNum(testDataAccess, "test data sheet \"" + datasheetName + "\"");
+		
+		//int columnNum = testDataAccess.getColumnNum(fieldName, 0);
+		//String dataValue = testDataAccess.getValue(rowNum, columnNum);
+		String dataValue = DatatableWriter.getInstance().getPendingValue(datatablePath, datatableName,
+																	datasheetName, rowNum, fieldName);
+		if (dataValue == null) {
+			dataValue = testDataAccess.getValue(rowNum, fieldName);
+		}
+		
+		if(dataValue.startsWith(dataReferenceIdentifier)) {
+			dataValue = getCommonData(fieldName, dataValue);
+		}
+		
+		return dataValue;
+	}
+	
+	private int getRowNum(ExcelDataAccess dataAccess, String sheetDescription)
+	{
+		String[] keys = {currentTestcase, Integer.toString(currentIteration),
+							Integer.toString(currentSubIteration)};
+		int rowNum = dataAccess.getRowNum(keys);
+		if (rowNum != -1) {
+			return rowNum;
+		}
+		
+		// Fall back to searching column by column, so as to report exactly which key is not found
+		rowNum = dataAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
 		if (rowNum == -1) {
 			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
+										"is not found in the " + sheetDescription + "!");
 		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
+		rowNum = dataAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
 		if (rowNum == -1) {
 			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
 										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
+										"is not found in the " + sheetDescription + "!");
 		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentSubIteration), 2, rowNum);
+		rowNum = dataAccess.getRowNum(Integer.toString(currentSubIteration), 2, rowNum);
 		if (rowNum == -1) {
 			throw new FrameworkException("The sub iteration number \"" + currentSubIteration + "\"" +
 										"under iteration number \"" + currentIteration + "\"" +
 										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
+										"is not found in the " + sheetDescription + "!");
 		}
 		
-		//int columnNum = testDataAccess.getColumnNum(fieldName, 0);
-		//String dataValue = testDataAccess.getValue(rowNum, columnNum);
-		String dataValue = testDataAccess.getValue(rowNum, fieldName);
-		
-		if(dataValue.startsWith(dataReferenceIdentifier)) {
-			dataValue = getCommonData(fieldName, dataValue);
-		}
-		
-		return dataValue;
+		return rowNum;
 	}
 	
 	private String getCommonData(String fieldName, String dataValue)
 	{
-		ExcelDataAccess commonDataAccess = new ExcelDataAccess(datatablePath, "Common Testdata");
-		commonDataAccess.setDatasheetName("Common_Testdata");
-		
-		String dataReferenceId = dataValue.split(dataReferenceIdentifier)[1];
-		
-		int rowNum = commonDataAccess.getRowNum(dataReferenceId, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The common test data row identified by \"" + dataReferenceId + "\"" +
-										"is not found in the common test data sheet!");
-		}
-		
-		dataValue = commonDataAccess.getValue(rowNum, fieldName);
-		
-		return dataValue;
+		return CommonDataResolver.getInstance().resolve(datatablePath, fieldName,
+												dataValue, dataReferenceIdentifier);
 	}
 	
 	/**
@@ -139,28 +170,32 @@ public class CraftDataTable
 		
 		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
 		testDataAccess.setDatasheetName(datasheetName);
-		
-		int rowNum = testDataAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentSubIteration), 2, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The sub iteration number \"" + currentSubIteration + "\"" +
-										"under iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		
-		synchronized (CraftDataTable.class) {
-			testDataAccess.setValue(rowNum, fieldName, dataValue);
+		testDataAccess.setReevaluateFormulasOnWrite(reevaluateFormulasOnWrite);
+		
+		if (writeBehind) {
+			// Resolve the row and the column right away, so that any error is reported in context
+			int rowNum = getRowNum(testDataAccess, "test data sheet \"" + datasheetName + "\"");
+			testDataAccess.getColumnNum(fieldName);
+			
+			DatatableWriter.getInstance().enqueue(datatablePath, datatableName,
+											datasheetName, rowNum, fieldName, dataValue,
+											reevaluateFormulasOnWrite);
+			return;
+		}
+		
+		synchronized (DatatableWriter.getInstance().getFileLock(datatablePath, datatableName)) {
+			// Perform the lookup and the update within a single transaction,
+			// so that the workbook is parsed and written only once
+			testDataAccess.beginTransaction();
+			try {
+				int rowNum = getRowNum(testDataAccess, "test data sheet \"" + datasheetName + "\"");
+				
+				testDataAccess.setValue(rowNum, fieldName, dataValue);
+				testDataAccess.commitTransaction();
+			} catch (RuntimeException e) {
+				testDataAccess.rollbackTransaction();
+				throw e;
+			}
 		}
 	}
 	
@@ -177,24 +212,7 @@ public class CraftDataTable
 		ExcelDataAccess expectedResultsAccess = new ExcelDataAccess(datatablePath, datatableName);
 		expectedResultsAccess.setDatasheetName("Parametrized_Checkpoints");
 		
-		int rowNum = expectedResultsAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the parametrized checkpoints sheet!");
-		}
-		rowNum = expectedResultsAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the parametrized checkpoints sheet!");
-		}
-		rowNum = expectedResultsAccess.getRowNum(Integer.toString(currentSubIteration), 2, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The sub iteration number \"" + currentSubIteration + "\"" +
-										"under iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the parametrized checkpoints sheet!");
-		}
+		int rowNum = getRowNum(expectedResultsAccess, "parametrized checkpoints sheet");
 		
 		String dataValue = expectedResultsAccess.getValue(rowNum, fieldName);
 		
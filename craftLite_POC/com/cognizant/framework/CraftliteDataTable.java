@@ -1,5 +1,24 @@
 package com.cognizant.framework;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+import org.apache.poi.hssf.usermodel.HSSFDateUtil;
+
 /**
  * Class to encapsulate the datatable related functions of the framework
  * @author Cognizant
@@ -22,9 +41,114 @@ public class CraftliteDataTable
 		this.dataReferenceIdentifier = dataReferenceIdentifier;
 	}
 	
+	private DataPrefetchMode prefetchMode = DataPrefetchMode.None;
+	/**
+	 * Function to set the mode in which the test data of the current row is prefetched
+	 * (takes effect from the next call to {@link #setCurrentRow(String, int)})
+	 * @param prefetchMode The {@link DataPrefetchMode} to be used
+	 */
+	public void setPrefetchMode(DataPrefetchMode prefetchMode)
+	{
+		this.prefetchMode = prefetchMode;
+	}
+	
+	private DatatableFormat datatableFormat = DatatableFormat.Excel;
+	/**
+	 * Function to set the storage format of the datatable
+	 * @param datatableFormat The {@link DatatableFormat} of the datatable
+	 * @see DatatableBackend
+	 */
+	public void setDatatableFormat(DatatableFormat datatableFormat)
+	{
+		this.datatableFormat = datatableFormat;
+	}
+	
+	private String databaseUrl;
+	/**
+	 * Function to set the JDBC URL of the database in which the datatable is stored
+	 * (applicable only to the Database format)
+	 * @param databaseUrl The JDBC URL of the datatable database
+	 * @see JdbcDatatableBackend
+	 */
+	public void setDatabaseUrl(String databaseUrl)
+	{
+		this.databaseUrl = databaseUrl;
+	}
+	
+	private DatatableJournal journal;
+	/**
+	 * Function to set the journal in which the output data is to be recorded, instead of being written into the datatable.
+	 * The test data read reflects the output data recorded in the journal
+	 * @param journal The {@link DatatableJournal} to be used (null to write the output data into the datatable)
+	 */
+	public void setJournal(DatatableJournal journal)
+	{
+		this.journal = journal;
+	}
+	
+	private boolean writeBehind = false;
+	/**
+	 * Function to set whether the output data is to be written into the datatable in the background
+	 * (applicable only to the Excel datatables).
+	 * The data written is visible to the subsequent reads right away,
+	 * but is guaranteed to be present in the datatable file only after {@link DatatableWriter#flush()}
+	 * @param writeBehind Boolean value indicating whether the output data is to be written in the background
+	 */
+	public void setWriteBehind(boolean writeBehind)
+	{
+		this.writeBehind = writeBehind;
+	}
+	
+	private boolean reevaluateFormulasOnWrite = false;
+	/**
+	 * Function to set whether the formulas within the datatable are to be re-evaluated whenever output data is written,
+	 * so that the formula results stored within the datatable file reflect the data written
+	 * (applicable only to the Excel datatables)
+	 * @param reevaluateFormulasOnWrite Boolean value indicating whether the formulas are to be re-evaluated on write
+	 * @see ExcelDataAccess#setReevaluateFormulasOnWrite(boolean)
+	 */
+	public void setReevaluateFormulasOnWrite(boolean reevaluateFormulasOnWrite)
+	{
+		this.reevaluateFormulasOnWrite = reevaluateFormulasOnWrite;
+	}
+	
+	private boolean useSnapshots = false;
+	/**
+	 * Function to set whether the test data is to be prefetched from the compiled {@link DatatableSnapshot}
+	 * of the datatable, rather than from the datatable itself (applicable only to the Excel datatables)
+	 * @param useSnapshots Boolean value indicating whether the datatable snapshots are to be used
+	 * @see DatatableSnapshotCache
+	 */
+	public void setUseSnapshots(boolean useSnapshots)
+	{
+		this.useSnapshots = useSnapshots;
+	}
+	
 	private String currentTestcase;
 	private int currentIteration = 0;
 	
+	// Executor shared by all the datatables for prefetching the test data in the background
+	private static final ExecutorService prefetchExecutor =
+			Executors.newCachedThreadPool(new ThreadFactory()
+			{
+				@Override
+				public Thread newThread(Runnable runnable)
+				{
+					Thread prefetchThread = new Thread(runnable, "DatatablePrefetch");
+					prefetchThread.setDaemon(true);
+					return prefetchThread;
+				}
+			});
+	
+	// The prefetched rows of every data sheet (keyed by sheet name), which are never modified once published
+	private Future<Map<String, Map<String, String>>> currentRowFuture, nextRowFuture;
+	private Map<String, Map<String, String>> currentRowData;
+	private String nextRowTestcase;
+	private int nextRowIteration;
+	// The native values of the current row, fetched once per data sheet on first use (null if the row is not found)
+	private final Map<String, Map<String, Object>> currentNativeRowData =
+											new HashMap<String, Map<String, Object>>();
+	
 	
 	/**
 	 * Constructor to initialize the {@link CraftliteDataTable} object
@@ -37,6 +161,33 @@ public class CraftliteDataTable
 		this.datatableName = datatableName;
 	}
 	
+	private DatatableBackend getBackend()
+	{
+		if (journal != null) {
+			return new JournalledDatatableBackend(getSourceBackend(), journal, datatableName);
+		}
+		
+		return getSourceBackend();
+	}
+	
+	private DatatableBackend getSourceBackend()
+	{
+		switch (datatableFormat) {
+		case Excel:
+			ExcelDatatableBackend excelBackend = new ExcelDatatableBackend(datatablePath, datatableName);
+			excelBackend.setUseSnapshots(useSnapshots);
+			excelBackend.setWriteBehind(writeBehind);
+			excelBackend.setReevaluateFormulasOnWrite(reevaluateFormulasOnWrite);
+			return excelBackend;
+			
+		case Database:
+			return new JdbcDatatableBackend(databaseUrl, datatableName);
+			
+		default:
+			return new DelimitedDatatableBackend(datatablePath, datatableName, datatableFormat);
+		}
+	}
+	
 	/**
 	 * Function to set the variables required to uniquely identify the exact row of data under consideration
 	 * @param currentTestcase The ID of the current test case
@@ -46,6 +197,131 @@ public class CraftliteDataTable
 	{
 		this.currentTestcase = currentTestcase;
 		this.currentIteration = currentIteration;
+		
+		currentRowData = null;
+		currentRowFuture = null;
+		currentNativeRowData.clear();
+		if (prefetchMode == DataPrefetchMode.None || currentTestcase == null) {
+			nextRowFuture = null;
+			return;
+		}
+		
+		if (nextRowFuture != null && currentTestcase.equals(nextRowTestcase) &&
+											currentIteration == nextRowIteration) {
+			currentRowFuture = nextRowFuture;
+		} else {
+			currentRowFuture = prefetchRow(currentTestcase, currentIteration);
+		}
+		
+		nextRowFuture = null;
+		if (prefetchMode == DataPrefetchMode.Background) {
+			// Fetch the next iteration's row while the current iteration is executing
+			nextRowTestcase = currentTestcase;
+			nextRowIteration = currentIteration + 1;
+			nextRowFuture = prefetchRow(nextRowTestcase, nextRowIteration);
+		}
+	}
+	
+	private Future<Map<String, Map<String, String>>> prefetchRow(final String testcase,
+																		final int iteration)
+	{
+		FutureTask<Map<String, Map<String, String>>> prefetchTask =
+				new FutureTask<Map<String, Map<String, String>>>(
+						new Callable<Map<String, Map<String, String>>>()
+				{
+					@Override
+					public Map<String, Map<String, String>> call()
+					{
+						return getBackend().getRows(testcase, iteration);
+					}
+				});
+		
+		if (prefetchMode == DataPrefetchMode.Background) {
+			prefetchExecutor.execute(prefetchTask);
+		} else {
+			prefetchTask.run();
+		}
+		
+		return prefetchTask;
+	}
+	
+	private Map<String, String> getPrefetchedRow(String datasheetName)
+	{
+		if (currentRowData == null) {
+			if (currentRowFuture == null) {
+				return null;
+			}
+			
+			try {
+				currentRowData = currentRowFuture.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				currentRowFuture = null;
+				return null;
+			} catch (ExecutionException e) {
+				// Fall back to reading the data directly, which reports the error in context
+				e.printStackTrace();
+				currentRowFuture = null;
+				return null;
+			}
+		}
+		
+		return currentRowData.get(datasheetName);
+	}
+	
+	private String getPrefetchedData(String datasheetName, String fieldName)
+	{
+		Map<String, String> prefetchedRow = getPrefetchedRow(datasheetName);
+		if (prefetchedRow == null) {
+			return null;
+		}
+		
+		return prefetchedRow.get(fieldName);
+	}
+	
+	private Object getPrefetchedNativeData(String datasheetName, String fieldName)
+	{
+		if (prefetchMode == DataPrefetchMode.None) {
+			return null;
+		}
+		
+		if (!currentNativeRowData.containsKey(datasheetName)) {
+			Map<String, Object> nativeRow;
+			try {
+				nativeRow = getBackend().getNativeRow(datasheetName, currentTestcase, currentIteration);
+			} catch (FrameworkException e) {
+				// Fall back to reading the data directly, which reports the error in context
+				nativeRow = null;
+			}
+			currentNativeRowData.put(datasheetName, nativeRow);
+		}
+		
+		Map<String, Object> nativeRow = currentNativeRowData.get(datasheetName);
+		return (nativeRow == null)? null : nativeRow.get(fieldName);
+	}
+	
+	private void updatePrefetchedData(String datasheetName, String fieldName, String dataValue)
+	{
+		Map<String, Object> nativeRow = currentNativeRowData.get(datasheetName);
+		if (nativeRow != null) {
+			Map<String, Object> updatedNativeRow = new HashMap<String, Object>(nativeRow);
+			updatedNativeRow.put(fieldName, dataValue);
+			currentNativeRowData.put(datasheetName, Collections.unmodifiableMap(updatedNativeRow));
+		}
+		
+		Map<String, String> prefetchedRow = getPrefetchedRow(datasheetName);
+		if (prefetchedRow == null) {
+			return;
+		}
+		
+		// Publish updated copies rather than modifying the prefetched data in place
+		Map<String, String> updatedRow = new HashMap<String, String>(prefetchedRow);
+		updatedRow.put(fieldName, dataValue);
+		
+		Map<String, Map<String, String>> updatedRowData =
+								new HashMap<String, Map<String, String>>(currentRowData);
+		updatedRowData.put(datasheetName, Collections.unmodifiableMap(updatedRow));
+		currentRowData = Collections.unmodifiableMap(updatedRowData);
 	}
 	
 	private void checkPreRequisites()
@@ -70,25 +346,11 @@ public class CraftliteDataTable
 	{
 		checkPreRequisites();
 		
-		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
-		testDataAccess.setDatasheetName(datasheetName);
-		
-		int rowNum = testDataAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
+		String dataValue = getPrefetchedData(datasheetName, fieldName);
+		if (dataValue == null) {
+			dataValue = getBackend().getData(datasheetName, currentTestcase, currentIteration, fieldName);
 		}
 		
-		//int columnNum = testDataAccess.getColumnNum(fieldName, 0);
-		//String dataValue = testDataAccess.getValue(rowNum, columnNum);
-		String dataValue = testDataAccess.getValue(rowNum, fieldName);
-		
 		if(dataValue.startsWith(dataReferenceIdentifier)) {
 			dataValue = getCommonData(fieldName, dataValue);
 		}
@@ -96,24 +358,180 @@ public class CraftliteDataTable
 		return dataValue;
 	}
 	
-	private String getCommonData(String fieldName, String dataValue)
+	private Object getNativeData(String datasheetName, String fieldName)
 	{
-		ExcelDataAccess commonDataAccess = new ExcelDataAccess(datatablePath, "Common Testdata");
-		commonDataAccess.setDatasheetName("Common_Testdata");
-		
-		String dataReferenceId = dataValue.split(dataReferenceIdentifier)[1];
+		checkPreRequisites();
 		
-		int rowNum = commonDataAccess.getRowNum(dataReferenceId, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The common test data row identified by \"" + dataReferenceId + "\"" +
-										"is not found in the common test data sheet!");
+		Object dataValue;
+		if (datatableFormat == DatatableFormat.Excel) {
+			dataValue = getPrefetchedNativeData(datasheetName, fieldName);
+		} else {
+			// The other formats do not distinguish the types of the values, so the prefetched text is the native value
+			dataValue = getPrefetchedData(datasheetName, fieldName);
+		}
+		if (dataValue == null) {
+			dataValue = getBackend().getNativeData(datasheetName, currentTestcase, currentIteration, fieldName);
 		}
 		
-		dataValue = commonDataAccess.getValue(rowNum, fieldName);
+		if (dataValue instanceof String && ((String) dataValue).startsWith(dataReferenceIdentifier)) {
+			dataValue = getCommonData(fieldName, (String) dataValue);
+		}
 		
 		return dataValue;
 	}
 	
+	private FrameworkException getConversionException(String datasheetName, String fieldName,
+																Object dataValue, String type)
+	{
+		return new FrameworkException("The value \"" + dataValue + "\" of the field \"" + fieldName + "\"" +
+									"in the test data sheet \"" + datasheetName + "\" is not a valid " + type + "!");
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed, as a double.
+	 * Numeric cells are read directly, without being formatted into a string and parsed back
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @return The test data present in the field name specified
+	 * @see #getData(String, String)
+	 */
+	public double getDouble(String datasheetName, String fieldName)
+	{
+		Object dataValue = getNativeData(datasheetName, fieldName);
+		if (dataValue instanceof Double) {
+			return (Double) dataValue;
+		}
+		
+		try {
+			return Double.parseDouble(dataValue.toString().trim());
+		} catch (NumberFormatException e) {
+			throw getConversionException(datasheetName, fieldName, dataValue, "number");
+		}
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed, as a long
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @return The test data present in the field name specified
+	 * @see #getDouble(String, String)
+	 */
+	public long getLong(String datasheetName, String fieldName)
+	{
+		Object dataValue = getNativeData(datasheetName, fieldName);
+		if (dataValue instanceof Double) {
+			double numericValue = (Double) dataValue;
+			if (numericValue != Math.rint(numericValue) ||
+					numericValue < Long.MIN_VALUE || numericValue > Long.MAX_VALUE) {
+				throw getConversionException(datasheetName, fieldName, dataValue, "whole number");
+			}
+			return (long) numericValue;
+		}
+		
+		try {
+			return Long.parseLong(dataValue.toString().trim());
+		} catch (NumberFormatException e) {
+			throw getConversionException(datasheetName, fieldName, dataValue, "whole number");
+		}
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed, as an int
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @return The test data present in the field name specified
+	 * @see #getDouble(String, String)
+	 */
+	public int getInt(String datasheetName, String fieldName)
+	{
+		long dataValue = getLong(datasheetName, fieldName);
+		if (dataValue < Integer.MIN_VALUE || dataValue > Integer.MAX_VALUE) {
+			throw getConversionException(datasheetName, fieldName, dataValue, "integer");
+		}
+		
+		return (int) dataValue;
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed, as a boolean.
+	 * Boolean cells are read directly, while text values must be either "true" or "false" (ignoring case)
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @return The test data present in the field name specified
+	 * @see #getData(String, String)
+	 */
+	public boolean getBoolean(String datasheetName, String fieldName)
+	{
+		Object dataValue = getNativeData(datasheetName, fieldName);
+		if (dataValue instanceof Boolean) {
+			return (Boolean) dataValue;
+		}
+		
+		String stringValue = dataValue.toString().trim();
+		if (stringValue.equalsIgnoreCase("true")) {
+			return true;
+		} else if (stringValue.equalsIgnoreCase("false")) {
+			return false;
+		} else {
+			throw getConversionException(datasheetName, fieldName, dataValue, "boolean");
+		}
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed, as a date.
+	 * Date cells are read directly, while text values are parsed using the specified date format
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @param dateFormatString The date format (as per {@link SimpleDateFormat}) of the text values
+	 * @return The test data present in the field name specified
+	 * @see #getData(String, String)
+	 */
+	public Date getDate(String datasheetName, String fieldName, String dateFormatString)
+	{
+		Object dataValue = getNativeData(datasheetName, fieldName);
+		if (dataValue instanceof Double) {
+			return HSSFDateUtil.getJavaDate((Double) dataValue);
+		}
+		
+		try {
+			return new SimpleDateFormat(dateFormatString).parse(dataValue.toString().trim());
+		} catch (ParseException e) {
+			throw getConversionException(datasheetName, fieldName, dataValue, "date");
+		}
+	}
+	
+	/**
+	 * Function to return the test data value corresponding to the sheet name and field name passed,
+	 * split into a list of values using the specified delimiter
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @param delimiter The delimiter which separates the values
+	 * @return The list of values (trimmed) present in the field name specified
+	 * (an empty list if the field is empty)
+	 * @see #getData(String, String)
+	 */
+	public List<String> getList(String datasheetName, String fieldName, String delimiter)
+	{
+		String dataValue = getData(datasheetName, fieldName);
+		if (dataValue.trim().equals("")) {
+			return Collections.emptyList();
+		}
+		
+		String[] dataValues = dataValue.split(Pattern.quote(delimiter), -1);
+		List<String> dataList = new ArrayList<String>(dataValues.length);
+		for (String value : dataValues) {
+			dataList.add(value.trim());
+		}
+		
+		return Collections.unmodifiableList(dataList);
+	}
+	
+	private String getCommonData(String fieldName, String dataValue)
+	{
+		return CommonDataResolver.getInstance().resolve(datatableFormat, datatablePath, databaseUrl,
+								useSnapshots, fieldName, dataValue, dataReferenceIdentifier);
+	}
+	
 	/**
 	 * Function to output intermediate data (output values) into the specified sheet
 	 * @param datasheetName The name of the sheet into which the data is to be written
@@ -125,24 +543,8 @@ public class CraftliteDataTable
 	{
 		checkPreRequisites();
 		
-		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
-		testDataAccess.setDatasheetName(datasheetName);
-		
-		int rowNum = testDataAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		rowNum = testDataAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the test data sheet \"" + datasheetName + "\"!");
-		}
-		
-		synchronized(CraftliteDataTable.class) {
-			testDataAccess.setValue(rowNum, fieldName, dataValue);
-		}
+		getBackend().putData(datasheetName, currentTestcase, currentIteration, fieldName, dataValue);
+		updatePrefetchedData(datasheetName, fieldName, dataValue);
 	}
 	
 	/**
@@ -155,22 +557,11 @@ public class CraftliteDataTable
 	{
 		checkPreRequisites();
 		
-		ExcelDataAccess expectedResultsAccess = new ExcelDataAccess(datatablePath, datatableName);
-		expectedResultsAccess.setDatasheetName("Parametrized_Checkpoints");
-		
-		int rowNum = expectedResultsAccess.getRowNum(currentTestcase, 0, 1);	// Start at row 1, skipping the header row
-		if (rowNum == -1) {
-			throw new FrameworkException("The test case \"" + currentTestcase + "\"" +
-										"is not found in the parametrized checkpoints sheet!");
+		String dataValue = getPrefetchedData("Parametrized_Checkpoints", fieldName);
+		if (dataValue == null) {
+			dataValue = getBackend().getData("Parametrized_Checkpoints",
+												currentTestcase, currentIteration, fieldName);
 		}
-		rowNum = expectedResultsAccess.getRowNum(Integer.toString(currentIteration), 1, rowNum);
-		if (rowNum == -1) {
-			throw new FrameworkException("The iteration number \"" + currentIteration + "\"" +
-										"of the test case \"" + currentTestcase + "\"" +
-										"is not found in the parametrized checkpoints sheet!");
-		}
-		
-		String dataValue = expectedResultsAccess.getValue(rowNum, fieldName);
 		
 		return dataValue;
 	}
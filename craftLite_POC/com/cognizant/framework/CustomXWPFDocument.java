@@ -18,6 +18,11 @@ import java.io.InputStream;
  */
 public class CustomXWPFDocument extends XWPFDocument
 {
+    public CustomXWPFDocument()
+    {
+        super();
+    }
+    
     public CustomXWPFDocument(InputStream in) throws IOException
     {
         super(in);
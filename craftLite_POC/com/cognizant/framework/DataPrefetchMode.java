@@ -0,0 +1,22 @@
+package com.cognizant.framework;
+
+/**
+ * Enumeration to represent the various options for prefetching the test data of the current row
+ * @author Cognizant
+ */
+public enum DataPrefetchMode
+{
+	/**
+	 * Do not prefetch the test data; every field is read from the datatable when requested
+	 */
+	None,
+	/**
+	 * Prefetch the current row of every data sheet as soon as the current row is set
+	 */
+	Immediate,
+	/**
+	 * Prefetch the current row of every data sheet, as well as the row of the next iteration,
+	 * on a background thread
+	 */
+	Background;
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.Map;
+
+
+/**
+ * Interface representing the storage format of a datatable.
+ * Every sheet of a datatable holds one row per test case iteration, identified by the test case ID
+ * and the iteration number present in its first two columns, and the first row holds the column headers
+ * @author Cognizant
+ * @see DatatableFormat
+ */
+public interface DatatableBackend
+{
+	/**
+	 * Function to count the rows of the specified test case within the specified sheet
+	 * @param datasheetName The name of the sheet
+	 * @param testcase The ID of the test case
+	 * @return The number of rows (i.e., iterations) of the test case
+	 */
+	public int getRowCount(String datasheetName, String testcase);
+
+	/**
+	 * Function to get the rows corresponding to the specified test case iteration within every sheet of the datatable
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @return The values of the rows (keyed by column header), keyed by sheet name
+	 * (the sheets which do not contain the test case iteration are omitted)
+	 */
+	public Map<String, Map<String, String>> getRows(String testcase, int iteration);
+
+	/**
+	 * Function to get the value of the specified field for the specified test case iteration
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @param fieldName The name of the field whose value is required
+	 * @return The value present in the field specified
+	 * @throws FrameworkException If the sheet, the test case iteration or the field is not found
+	 */
+	public String getData(String datasheetName, String testcase, int iteration, String fieldName);
+
+	/**
+	 * Function to get the value of the specified field for the specified test case iteration, in its native type
+	 * (a {@link Double} or a {@link Boolean} where the storage format distinguishes such values, a {@link String} otherwise)
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @param fieldName The name of the field whose value is required
+	 * @return The value present in the field specified
+	 * @throws FrameworkException If the sheet, the test case iteration or the field is not found
+	 */
+	public Object getNativeData(String datasheetName, String testcase, int iteration, String fieldName);
+
+	/**
+	 * Function to get the row corresponding to the specified test case iteration within the specified sheet,
+	 * with the values in their native types (as per {@link #getNativeData(String, String, int, String)})
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @return The values of the row, keyed by column header
+	 * @throws FrameworkException If the sheet or the test case iteration is not found
+	 */
+	public Map<String, Object> getNativeRow(String datasheetName, String testcase, int iteration);
+
+	/**
+	 * Function to write a value into the specified field for the specified test case iteration
+	 * @param datasheetName The name of the sheet into which the data is to be written
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @param fieldName The name of the field into which the data is to be written
+	 * @param dataValue The value to be written into the field specified
+	 * @throws FrameworkException If the sheet, the test case iteration or the field is not found
+	 */
+	public void putData(String datasheetName, String testcase, int iteration,
+											String fieldName, String dataValue);
+
+	/**
+	 * Function to get all the rows of the specified sheet keyed by the value of their first column,
+	 * as required to resolve the references to the common test data
+	 * (the first occurrence of each key takes precedence)
+	 * @param datasheetName The name of the sheet
+	 * @return The values of the rows (keyed by column header), keyed by the value of their first column
+	 */
+	public Map<String, Map<String, String>> getReferenceRows(String datasheetName);
+
+	/**
+	 * Function to get the file in which the specified sheet is stored,
+	 * so that the callers caching the data read can detect changes to it
+	 * @param datasheetName The name of the sheet
+	 * @return The file in which the sheet is stored (null if the sheet is not stored within a file of its own)
+	 */
+	public File getSheetFile(String datasheetName);
+}
@@ -0,0 +1,27 @@
+package com.cognizant.framework;
+
+/**
+ * Enumeration to represent the storage formats supported for the datatables
+ * @author Cognizant
+ * @see DatatableBackend
+ */
+public enum DatatableFormat
+{
+	/**
+	 * Excel workbooks (.xls), with one worksheet per sheet
+	 */
+	Excel,
+	/**
+	 * Folders named after the datatable, with one comma separated values file (.csv) per sheet
+	 */
+	Csv,
+	/**
+	 * Folders named after the datatable, with one tab separated values file (.tsv) per sheet
+	 */
+	Tsv,
+	/**
+	 * Tables within an embedded SQL database, accessed through JDBC (with one table per sheet)
+	 * @see JdbcDatatableBackend
+	 */
+	Database;
+}
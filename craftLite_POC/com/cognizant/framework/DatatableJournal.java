@@ -0,0 +1,409 @@
+package com.cognizant.framework;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Class to hold the output data written during a test batch execution into the run-time datatables
+ * (i.e., the copies of the datatables included within the test report), without copying the datatables up front.
+ * The test data continues to be read from the original datatables, overlaid with the values recorded in the journal,
+ * and the run-time datatables are created only once, at the end of the test batch execution,
+ * by copying the original datatables and applying the journal to the copies.
+ * The journal is also appended to a file within the run-time datatable folder as it is recorded,
+ * so that the values recorded are never lost, even if the test batch execution ends abruptly
+ * @author Cognizant
+ * @see #materializeAll()
+ */
+public class DatatableJournal
+{
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String JOURNAL_FILE_NAME = "Datatables.journal";
+
+	private static final ConcurrentMap<String, DatatableJournal> journals =
+									new ConcurrentHashMap<String, DatatableJournal>();
+
+	private final String runTimeDatatablePath;
+	private final File journalFile;
+
+	// The values recorded for each row, keyed by datatable, sheet, test case and iteration, and then by field
+	private final ConcurrentMap<List<String>, Map<String, String>> rowValues =
+									new ConcurrentHashMap<List<String>, Map<String, String>>();
+	// The location and format of the original datatables, keyed by datatable name
+	private final ConcurrentMap<String, DatatableSource> datatableSources =
+									new ConcurrentHashMap<String, DatatableSource>();
+
+
+	private DatatableJournal(String runTimeDatatablePath)
+	{
+		this.runTimeDatatablePath = runTimeDatatablePath;
+		this.journalFile = new File(runTimeDatatablePath + Util.getFileSeparator() + JOURNAL_FILE_NAME);
+
+		if (journalFile.exists()) {
+			readJournalFile();
+		}
+	}
+
+	/**
+	 * Function to get the journal corresponding to the specified run-time datatable folder
+	 * (values recorded earlier into the journal file within the folder, if any, are read back)
+	 * @param runTimeDatatablePath The path where the run-time datatables are to be stored
+	 * @return The {@link DatatableJournal} corresponding to the folder
+	 */
+	public static DatatableJournal getJournal(String runTimeDatatablePath)
+	{
+		String journalKey = new File(runTimeDatatablePath).getAbsolutePath();
+
+		DatatableJournal journal = journals.get(journalKey);
+		if (journal == null) {
+			synchronized (journals) {
+				journal = journals.get(journalKey);
+				if (journal == null) {
+					journal = new DatatableJournal(runTimeDatatablePath);
+					journals.put(journalKey, journal);
+				}
+			}
+		}
+
+		return journal;
+	}
+
+	/**
+	 * Function to create the run-time datatables corresponding to all the journals recorded so far
+	 * and then discard the journals. This must be done once, at the end of the test batch execution
+	 * @throws FrameworkException If any of the run-time datatables could not be created
+	 * (after attempting to create the rest of them)
+	 * @see #materialize()
+	 */
+	public static void materializeAll()
+	{
+		synchronized (journals) {
+			RuntimeException materializeError = null;
+			for (DatatableJournal journal : journals.values()) {
+				try {
+					journal.materialize();
+				} catch (RuntimeException e) {
+					if (materializeError == null) {
+						materializeError = e;
+					}
+				}
+			}
+			journals.clear();
+			
+			if (materializeError != null) {
+				throw materializeError;
+			}
+		}
+	}
+
+	/**
+	 * Function to register a datatable whose run-time copy is to be created by this journal
+	 * @param datatablePath The path where the original datatable is stored
+	 * @param datatableName The name of the datatable
+	 * @param datatableFormat The {@link DatatableFormat} of the datatable (either Excel, Csv or Tsv)
+	 */
+	public void register(String datatablePath, String datatableName, DatatableFormat datatableFormat)
+	{
+		if (datatableFormat == DatatableFormat.Database) {
+			throw new FrameworkException("The datatables stored within a database do not have run-time copies!");
+		}
+
+		datatableSources.putIfAbsent(datatableName, new DatatableSource(datatablePath, datatableFormat));
+	}
+
+	private static List<String> getRowKey(String datatableName, String datasheetName,
+															String testcase, int iteration)
+	{
+		return Arrays.asList(datatableName, datasheetName, testcase, Integer.toString(iteration));
+	}
+
+	/**
+	 * Function to record a value written into the specified field for the specified test case iteration
+	 * @param datatableName The name of the datatable
+	 * @param datasheetName The name of the sheet into which the data is written
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @param fieldName The name of the field into which the data is written
+	 * @param dataValue The value written into the field specified
+	 */
+	public synchronized void record(String datatableName, String datasheetName,
+							String testcase, int iteration, String fieldName, String dataValue)
+	{
+		appendToJournalFile(Arrays.asList(datatableName, datasheetName, testcase,
+										Integer.toString(iteration), fieldName, dataValue));
+		putValue(getRowKey(datatableName, datasheetName, testcase, iteration), fieldName, dataValue);
+	}
+
+	private void putValue(List<String> rowKey, String fieldName, String dataValue)
+	{
+		Map<String, String> values = rowValues.get(rowKey);
+		if (values == null) {
+			values = new ConcurrentHashMap<String, String>();
+			rowValues.put(rowKey, values);
+		}
+
+		values.put(fieldName, dataValue);
+	}
+
+	/**
+	 * Function to get the value recorded for the specified field and test case iteration
+	 * @param datatableName The name of the datatable
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @param fieldName The name of the field whose value is required
+	 * @return The value recorded (null if no value has been recorded for the field)
+	 */
+	public String getValue(String datatableName, String datasheetName,
+								String testcase, int iteration, String fieldName)
+	{
+		Map<String, String> values = rowValues.get(getRowKey(datatableName, datasheetName, testcase, iteration));
+		return (values == null)? null : values.get(fieldName);
+	}
+
+	/**
+	 * Function to get all the values recorded for the specified test case iteration
+	 * @param datatableName The name of the datatable
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param testcase The ID of the test case
+	 * @param iteration The iteration number
+	 * @return The values recorded, keyed by field name (an empty map if no value has been recorded)
+	 */
+	public Map<String, String> getRowValues(String datatableName, String datasheetName,
+																String testcase, int iteration)
+	{
+		Map<String, String> values = rowValues.get(getRowKey(datatableName, datasheetName, testcase, iteration));
+		if (values == null) {
+			return Collections.emptyMap();
+		}
+
+		return Collections.unmodifiableMap(new HashMap<String, String>(values));
+	}
+
+	private void appendToJournalFile(List<String> fields)
+	{
+		StringBuilder entry = new StringBuilder();
+		for (String field : fields) {
+			if (entry.length() > 0) {
+				entry.append('\t');
+			}
+			entry.append(escape(field));
+		}
+		entry.append('\n');
+
+		journalFile.getParentFile().mkdirs();
+		Writer journalWriter = null;
+		try {
+			journalWriter = new OutputStreamWriter(new FileOutputStream(journalFile, true), UTF_8);
+			journalWriter.write(entry.toString());
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while writing into the datatable journal \"" +
+																journalFile.getPath() + "\"");
+		} finally {
+			if (journalWriter != null) {
+				try {
+					journalWriter.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private void readJournalFile()
+	{
+		BufferedReader journalReader = null;
+		try {
+			journalReader = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), UTF_8));
+
+			String entry;
+			while ((entry = journalReader.readLine()) != null) {
+				String[] fields = entry.split("\t", -1);
+				if (fields.length != 6) {
+					continue;	// Skip any entry left incomplete by an abrupt end of the execution
+				}
+
+				putValue(Arrays.asList(unescape(fields[0]), unescape(fields[1]),
+										unescape(fields[2]), unescape(fields[3])),
+										unescape(fields[4]), unescape(fields[5]));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the datatable journal \"" +
+																journalFile.getPath() + "\"");
+		} finally {
+			if (journalReader != null) {
+				try {
+					journalReader.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private static String escape(String field)
+	{
+		return field.replace("\\", "\\\\").replace("\t", "\\t").replace("\r", "\\r").replace("\n", "\\n");
+	}
+
+	private static String unescape(String field)
+	{
+		if (field.indexOf('\\') == -1) {
+			return field;
+		}
+
+		StringBuilder unescapedField = new StringBuilder(field.length());
+		for (int i = 0; i < field.length(); i++) {
+			char currentChar = field.charAt(i);
+			if (currentChar != '\\' || i + 1 == field.length()) {
+				unescapedField.append(currentChar);
+				continue;
+			}
+
+			char escapedChar = field.charAt(++i);
+			switch (escapedChar) {
+			case 't':
+				unescapedField.append('\t');
+				break;
+
+			case 'r':
+				unescapedField.append('\r');
+				break;
+
+			case 'n':
+				unescapedField.append('\n');
+				break;
+
+			default:
+				unescapedField.append(escapedChar);
+			}
+		}
+
+		return unescapedField.toString();
+	}
+
+	/**
+	 * Function to create the run-time copies of the registered datatables (unless they already exist)
+	 * and apply the values recorded in the journal to them, after which the journal file is deleted
+	 * @throws FrameworkException If any of the run-time datatables could not be created
+	 */
+	public synchronized void materialize()
+	{
+		for (Map.Entry<String, DatatableSource> datatableSource : datatableSources.entrySet()) {
+			copyDatatable(datatableSource.getKey(), datatableSource.getValue());
+		}
+
+		// Group the values by datatable, so that each run-time datatable is updated in one go
+		Map<String, List<List<String>>> rowKeysByDatatable = new LinkedHashMap<String, List<List<String>>>();
+		for (List<String> rowKey : rowValues.keySet()) {
+			List<List<String>> rowKeys = rowKeysByDatatable.get(rowKey.get(0));
+			if (rowKeys == null) {
+				rowKeys = new ArrayList<List<String>>();
+				rowKeysByDatatable.put(rowKey.get(0), rowKeys);
+			}
+			rowKeys.add(rowKey);
+		}
+
+		for (Map.Entry<String, List<List<String>>> datatableRowKeys : rowKeysByDatatable.entrySet()) {
+			DatatableSource datatableSource = datatableSources.get(datatableRowKeys.getKey());
+			if (datatableSource == null) {
+				throw new FrameworkException("The source of the datatable \"" + datatableRowKeys.getKey() + "\"" +
+											"recorded in the journal \"" + journalFile.getPath() + "\" is unknown!");
+			}
+
+			DatatableBackend runTimeBackend = getRunTimeBackend(datatableRowKeys.getKey(), datatableSource);
+			for (List<String> rowKey : datatableRowKeys.getValue()) {
+				for (Map.Entry<String, String> value : rowValues.get(rowKey).entrySet()) {
+					runTimeBackend.putData(rowKey.get(1), rowKey.get(2), Integer.parseInt(rowKey.get(3)),
+																	value.getKey(), value.getValue());
+				}
+			}
+		}
+		DatatableWriter.getInstance().flush();
+
+		if (journalFile.exists() && !journalFile.delete()) {
+			throw new FrameworkException("Error while deleting the datatable journal \"" + journalFile.getPath() + "\"");
+		}
+		rowValues.clear();
+	}
+
+	private DatatableBackend getRunTimeBackend(String datatableName, DatatableSource datatableSource)
+	{
+		if (datatableSource.datatableFormat != DatatableFormat.Excel) {
+			return new DelimitedDatatableBackend(runTimeDatatablePath, datatableName,
+															datatableSource.datatableFormat);
+		}
+
+		// Queue the updates, so that they are all written into the workbook at once
+		ExcelDatatableBackend excelBackend = new ExcelDatatableBackend(runTimeDatatablePath, datatableName);
+		excelBackend.setWriteBehind(true);
+		return excelBackend;
+	}
+
+	private void copyDatatable(String datatableName, DatatableSource datatableSource)
+	{
+		// The delimited datatables are folders, rather than files
+		String datatableExtension = (datatableSource.datatableFormat == DatatableFormat.Excel)? ".xls" : "";
+		File datatable = new File(datatableSource.datatablePath + Util.getFileSeparator() +
+															datatableName + datatableExtension);
+		File runTimeDatatable = new File(runTimeDatatablePath + Util.getFileSeparator() +
+															datatableName + datatableExtension);
+		if (runTimeDatatable.exists()) {
+			return;
+		}
+
+		try {
+			if (datatable.isDirectory()) {
+				Files.createDirectories(runTimeDatatable.toPath());
+
+				File[] sheetFiles = datatable.listFiles();
+				for (File sheetFile : sheetFiles) {
+					if (sheetFile.isFile()) {
+						Files.copy(sheetFile.toPath(), new File(runTimeDatatable, sheetFile.getName()).toPath(),
+																	StandardCopyOption.COPY_ATTRIBUTES);
+					}
+				}
+			} else {
+				Files.createDirectories(runTimeDatatable.getParentFile().toPath());
+				Files.copy(datatable.toPath(), runTimeDatatable.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error in creating run-time datatable: Copying the datatable \"" +
+																	datatableName + "\" failed...");
+		}
+	}
+
+
+	private static class DatatableSource
+	{
+		private final String datatablePath;
+		private final DatatableFormat datatableFormat;
+
+		private DatatableSource(String datatablePath, DatatableFormat datatableFormat)
+		{
+			this.datatablePath = datatablePath;
+			this.datatableFormat = datatableFormat;
+		}
+	}
+}
@@ -0,0 +1,596 @@
+package com.cognizant.framework;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+
+/**
+ * Class representing a compiled, read-only snapshot of an Excel datatable.
+ * The snapshot holds the values of every worksheet column by column, as references into a sorted string dictionary,
+ * so that any cell is addressed directly by its offset, and keys are compared without decoding the cell values.
+ * The rows of every worksheet are also indexed by their key columns (the test case ID and the iteration number),
+ * so that a row is located by a binary search rather than by scanning the worksheet.
+ * The snapshot file is memory-mapped rather than read into the heap, which allows it to be shared
+ * across threads as well as across processes. Snapshots are obtained through the {@link DatatableSnapshotCache}
+ * @author Cognizant
+ */
+public final class DatatableSnapshot
+{
+	private static final int MAGIC_NUMBER = 0x43524654;	// "CRFT"
+	private static final int FORMAT_VERSION = 2;
+	private static final int INT_SIZE = 4;
+	private static final int MAX_KEY_COLUMNS = 2;
+
+	// File layout: magic number, format version, source length, source checksum, string count,
+	// string offsets (count + 1), string data (UTF-8), sheet count, sheet directory, cell data, row indexes
+	// (the row numbers of every sheet excluding the header row, sorted by the string IDs of the key columns and then by row number)
+	private static final int STRING_COUNT_OFFSET = 24;
+	private static final int SHEET_DIRECTORY_ENTRY_SIZE = 5 * INT_SIZE;
+
+	private final String datatableName;
+	private final ByteBuffer buffer;
+	private final long sourceLength, sourceChecksum;
+
+	private final int nStrings, stringOffsetsOffset, stringDataOffset;
+	private final String[] decodedStrings;
+
+	private final List<String> sheetNames;
+	private final Map<String, SheetInfo> sheets;
+
+
+	private DatatableSnapshot(String datatableName, ByteBuffer buffer)
+	{
+		this.datatableName = datatableName;
+		this.buffer = buffer;
+
+		if (buffer.capacity() < STRING_COUNT_OFFSET + INT_SIZE ||
+				buffer.getInt(0) != MAGIC_NUMBER || buffer.getInt(INT_SIZE) != FORMAT_VERSION) {
+			throw new FrameworkException("The snapshot of the datatable \"" + datatableName + ".xls\"" +
+										"is not in the expected format!");
+		}
+		sourceLength = buffer.getLong(8);
+		sourceChecksum = buffer.getLong(16);
+
+		nStrings = buffer.getInt(STRING_COUNT_OFFSET);
+		stringOffsetsOffset = STRING_COUNT_OFFSET + INT_SIZE;
+		stringDataOffset = stringOffsetsOffset + (nStrings + 1) * INT_SIZE;
+		decodedStrings = new String[nStrings];
+
+		int sheetCountOffset = stringDataOffset + buffer.getInt(stringOffsetsOffset + nStrings * INT_SIZE);
+		int nSheets = buffer.getInt(sheetCountOffset);
+
+		List<String> sheetNames = new ArrayList<String>();
+		sheets = new HashMap<String, SheetInfo>();
+		for (int sheetIndex = 0; sheetIndex < nSheets; sheetIndex++) {
+			int entryOffset = sheetCountOffset + INT_SIZE + sheetIndex * SHEET_DIRECTORY_ENTRY_SIZE;
+			String sheetName = getString(buffer.getInt(entryOffset));
+			SheetInfo sheet = new SheetInfo(buffer.getInt(entryOffset + INT_SIZE),
+											buffer.getInt(entryOffset + 2 * INT_SIZE),
+											buffer.getInt(entryOffset + 3 * INT_SIZE),
+											buffer.getInt(entryOffset + 4 * INT_SIZE));
+
+			//0 because header is always in the first row
+			for (int columnNum = 0; columnNum < sheet.nColumns; columnNum++) {
+				String header = getString(getCellStringId(sheet, 0, columnNum));
+				if (!sheet.headerIndex.containsKey(header)) {	// The first occurrence takes precedence
+					sheet.headerIndex.put(header, columnNum);
+				}
+			}
+
+			sheetNames.add(sheetName);
+			sheets.put(sheetName, sheet);
+		}
+		this.sheetNames = Collections.unmodifiableList(sheetNames);
+	}
+
+	/**
+	 * Function to open the specified snapshot file
+	 * @param snapshotFile The snapshot file
+	 * @param datatableName The name of the datatable from which the snapshot was compiled
+	 * @return The {@link DatatableSnapshot} object
+	 */
+	static DatatableSnapshot open(File snapshotFile, String datatableName)
+	{
+		RandomAccessFile randomAccessFile = null;
+		try {
+			randomAccessFile = new RandomAccessFile(snapshotFile, "r");
+			FileChannel fileChannel = randomAccessFile.getChannel();
+
+			// The mapping remains valid after the file is closed
+			ByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+			return new DatatableSnapshot(datatableName, buffer);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while opening the snapshot of the datatable \"" + datatableName + ".xls\"");
+		} finally {
+			if (randomAccessFile != null) {
+				try {
+					randomAccessFile.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Function to compile the specified datatable into a snapshot file
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file
+	 * @param sourceLength The length of the datatable file
+	 * @param sourceChecksum The CRC32 checksum of the datatable file
+	 * @param snapshotFile The snapshot file to be written
+	 */
+	static void compile(String datatablePath, String datatableName,
+							long sourceLength, long sourceChecksum, File snapshotFile)
+	{
+		ExcelDataAccess datatableAccess = new ExcelDataAccess(datatablePath, datatableName);
+		List<String> sheetNames = datatableAccess.getSheetNames();
+
+		SortedSet<String> dictionary = new TreeSet<String>(sheetNames);
+		List<String[][]> sheetValues = new ArrayList<String[][]>();
+		for (String sheetName : sheetNames) {
+			datatableAccess.setDatasheetName(sheetName);
+			String[][] cellValues = datatableAccess.getCellValues();
+			for (String[] rowValues : cellValues) {
+				Collections.addAll(dictionary, rowValues);
+			}
+			sheetValues.add(cellValues);
+		}
+
+		Map<String, Integer> stringIds = new HashMap<String, Integer>();
+		List<byte[]> encodedStrings = new ArrayList<byte[]>();
+		int stringDataLength = 0;
+		for (String string : dictionary) {
+			byte[] encodedString = string.getBytes(StandardCharsets.UTF_8);
+			stringIds.put(string, encodedStrings.size());
+			encodedStrings.add(encodedString);
+			stringDataLength += encodedString.length;
+		}
+
+		int sheetCountOffset = STRING_COUNT_OFFSET + (dictionary.size() + 2) * INT_SIZE + stringDataLength;
+		int cellDataOffset = sheetCountOffset + INT_SIZE + sheetNames.size() * SHEET_DIRECTORY_ENTRY_SIZE;
+		int rowIndexOffset = cellDataOffset;
+		for (String[][] cellValues : sheetValues) {
+			rowIndexOffset += cellValues.length * ((cellValues.length == 0)? 0 : cellValues[0].length) * INT_SIZE;
+		}
+
+		File tempFile = null;
+		DataOutputStream outputStream = null;
+		try {
+			// A uniquely named temporary file, since other processes may be compiling the same snapshot
+			tempFile = File.createTempFile(snapshotFile.getName() + ".", ".tmp", snapshotFile.getParentFile());
+			outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+
+			outputStream.writeInt(MAGIC_NUMBER);
+			outputStream.writeInt(FORMAT_VERSION);
+			outputStream.writeLong(sourceLength);
+			outputStream.writeLong(sourceChecksum);
+
+			outputStream.writeInt(encodedStrings.size());
+			int stringOffset = 0;
+			for (byte[] encodedString : encodedStrings) {
+				outputStream.writeInt(stringOffset);
+				stringOffset += encodedString.length;
+			}
+			outputStream.writeInt(stringOffset);
+			for (byte[] encodedString : encodedStrings) {
+				outputStream.write(encodedString);
+			}
+
+			outputStream.writeInt(sheetNames.size());
+			for (int sheetIndex = 0; sheetIndex < sheetNames.size(); sheetIndex++) {
+				String[][] cellValues = sheetValues.get(sheetIndex);
+				int nRows = cellValues.length;
+				int nColumns = (nRows == 0)? 0 : cellValues[0].length;
+
+				outputStream.writeInt(stringIds.get(sheetNames.get(sheetIndex)));
+				outputStream.writeInt(nRows);
+				outputStream.writeInt(nColumns);
+				outputStream.writeInt(cellDataOffset);
+				outputStream.writeInt(rowIndexOffset);
+				cellDataOffset += nRows * nColumns * INT_SIZE;
+				rowIndexOffset += Math.max(nRows - 1, 0) * INT_SIZE;
+			}
+
+			for (String[][] cellValues : sheetValues) {
+				int nColumns = (cellValues.length == 0)? 0 : cellValues[0].length;
+				for (int columnNum = 0; columnNum < nColumns; columnNum++) {
+					for (String[] rowValues : cellValues) {
+						outputStream.writeInt(stringIds.get(rowValues[columnNum]));
+					}
+				}
+			}
+
+			for (String[][] cellValues : sheetValues) {
+				for (int rowNum : getRowIndex(cellValues, stringIds)) {
+					outputStream.writeInt(rowNum);
+				}
+			}
+
+			outputStream.close();
+			outputStream = null;
+
+			replaceFile(tempFile, snapshotFile);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while writing the snapshot of the datatable \"" + datatableName + ".xls\"");
+		} finally {
+			if (outputStream != null) {
+				try {
+					outputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			if (tempFile != null) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	private static int[] getRowIndex(final String[][] cellValues, final Map<String, Integer> stringIds)
+	{
+		final int nKeyColumns = (cellValues.length == 0)? 0 : Math.min(cellValues[0].length, MAX_KEY_COLUMNS);
+
+		Integer[] rowNums = new Integer[Math.max(cellValues.length - 1, 0)];
+		for (int rowNum = 1; rowNum < cellValues.length; rowNum++) {	// Skip the header row
+			rowNums[rowNum - 1] = rowNum;
+		}
+
+		Arrays.sort(rowNums, new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer rowNum1, Integer rowNum2)
+			{
+				for (int columnNum = 0; columnNum < nKeyColumns; columnNum++) {
+					int comparison = stringIds.get(cellValues[rowNum1][columnNum]).compareTo(
+											stringIds.get(cellValues[rowNum2][columnNum]));
+					if (comparison != 0) {
+						return comparison;
+					}
+				}
+
+				return rowNum1.compareTo(rowNum2);
+			}
+		});
+
+		int[] rowIndex = new int[rowNums.length];
+		for (int indexPosition = 0; indexPosition < rowNums.length; indexPosition++) {
+			rowIndex[indexPosition] = rowNums[indexPosition];
+		}
+
+		return rowIndex;
+	}
+
+	private static void replaceFile(File sourceFile, File targetFile) throws IOException
+	{
+		try {
+			Files.move(sourceFile.toPath(), targetFile.toPath(),
+						StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Function to check whether this snapshot was compiled from the specified version of the datatable
+	 * @param sourceLength The length of the datatable file
+	 * @param sourceChecksum The CRC32 checksum of the datatable file
+	 * @return Boolean value indicating whether the snapshot corresponds to the datatable file
+	 */
+	boolean isSnapshotOf(long sourceLength, long sourceChecksum)
+	{
+		return this.sourceLength == sourceLength && this.sourceChecksum == sourceChecksum;
+	}
+
+	private String getString(int stringId)
+	{
+		String string = decodedStrings[stringId];
+		if (string == null) {
+			int startOffset = buffer.getInt(stringOffsetsOffset + stringId * INT_SIZE);
+			int endOffset = buffer.getInt(stringOffsetsOffset + (stringId + 1) * INT_SIZE);
+
+			byte[] encodedString = new byte[endOffset - startOffset];
+			ByteBuffer stringBuffer = buffer.duplicate();
+			stringBuffer.position(stringDataOffset + startOffset);
+			stringBuffer.get(encodedString);
+			string = new String(encodedString, StandardCharsets.UTF_8);
+
+			// Strings are immutable, so concurrent decodes of the same string are harmless
+			decodedStrings[stringId] = string;
+		}
+
+		return string;
+	}
+
+	private int getStringId(String string)
+	{
+		// The dictionary is sorted, so the string can be located without decoding all of it
+		int lowId = 0, highId = nStrings - 1;
+		while (lowId <= highId) {
+			int midId = (lowId + highId) >>> 1;
+			int comparison = getString(midId).compareTo(string);
+			if (comparison < 0) {
+				lowId = midId + 1;
+			} else if (comparison > 0) {
+				highId = midId - 1;
+			} else {
+				return midId;
+			}
+		}
+
+		return -1;
+	}
+
+	private int getCellStringId(SheetInfo sheet, int rowNum, int columnNum)
+	{
+		return buffer.getInt(sheet.dataOffset + (columnNum * sheet.nRows + rowNum) * INT_SIZE);
+	}
+
+	private int getIndexedRowNum(SheetInfo sheet, int indexPosition)
+	{
+		return buffer.getInt(sheet.indexOffset + indexPosition * INT_SIZE);
+	}
+
+	private int compareIndexedRow(SheetInfo sheet, int indexPosition, int[] keyIds)
+	{
+		int rowNum = getIndexedRowNum(sheet, indexPosition);
+		for (int keyIndex = 0; keyIndex < keyIds.length; keyIndex++) {
+			int cellStringId = getCellStringId(sheet, rowNum, keyIndex);
+			if (cellStringId != keyIds[keyIndex]) {
+				return (cellStringId < keyIds[keyIndex])? -1 : 1;
+			}
+		}
+
+		return 0;
+	}
+
+	private SheetInfo getSheet(String sheetName)
+	{
+		SheetInfo sheet = sheets.get(sheetName);
+		if (sheet == null) {
+			throw new FrameworkException("The specified sheet \"" + sheetName + "\"" +
+										"does not exist within the workbook \"" + datatableName + ".xls\"");
+		}
+
+		return sheet;
+	}
+
+	/**
+	 * Function to get the names of all the sheets within the datatable
+	 * @return The list of sheet names, in the order in which they appear within the workbook
+	 */
+	public List<String> getSheetNames()
+	{
+		return sheetNames;
+	}
+
+	/**
+	 * Function to get the last row number within the specified sheet
+	 * @param sheetName The name of the sheet
+	 * @return The last row number within the sheet
+	 */
+	public int getLastRowNum(String sheetName)
+	{
+		return Math.max(getSheet(sheetName).nRows - 1, 0);
+	}
+
+	/**
+	 * Function to get the column number corresponding to the specified column header
+	 * @param sheetName The name of the sheet
+	 * @param columnHeader The column header
+	 * @return The column number of the first column with the specified header
+	 */
+	public int getColumnNum(String sheetName, String columnHeader)
+	{
+		Integer columnNum = getSheet(sheetName).headerIndex.get(columnHeader);
+		if (columnNum == null) {
+			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
+										"is not found in the sheet \"" + sheetName + "\"!");
+		}
+
+		return columnNum;
+	}
+
+	/**
+	 * Function to get the value in the cell identified by the specified row and column numbers
+	 * @param sheetName The name of the sheet
+	 * @param rowNum The row number of the cell
+	 * @param columnNum The column number of the cell
+	 * @return The value present in the cell
+	 */
+	public String getValue(String sheetName, int rowNum, int columnNum)
+	{
+		SheetInfo sheet = getSheet(sheetName);
+		if (rowNum >= sheet.nRows || columnNum >= sheet.nColumns) {
+			return "";
+		}
+
+		return getString(getCellStringId(sheet, rowNum, columnNum));
+	}
+
+	/**
+	 * Function to get the value in the cell identified by the specified row number and column header
+	 * @param sheetName The name of the sheet
+	 * @param rowNum The row number of the cell
+	 * @param columnHeader The column header of the cell
+	 * @return The value present in the cell
+	 */
+	public String getValue(String sheetName, int rowNum, String columnHeader)
+	{
+		return getValue(sheetName, rowNum, getColumnNum(sheetName, columnHeader));
+	}
+
+	/**
+	 * Function to get all the values in the specified row, keyed by their column headers
+	 * @param sheetName The name of the sheet
+	 * @param rowNum The row number
+	 * @return An unmodifiable map of the column headers to the corresponding values in the row
+	 */
+	public Map<String, String> getRowValues(String sheetName, int rowNum)
+	{
+		SheetInfo sheet = getSheet(sheetName);
+
+		Map<String, String> rowValues = new HashMap<String, String>();
+		for (Map.Entry<String, Integer> header : sheet.headerIndex.entrySet()) {
+			rowValues.put(header.getKey(), getValue(sheetName, rowNum, header.getValue()));
+		}
+
+		return Collections.unmodifiableMap(rowValues);
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding row number
+	 * @param sheetName The name of the sheet
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @param startRowNum The row number from which the search should start
+	 * @return The row number in which the specified key is found (-1 if the key is not found)
+	 */
+	public int getRowNum(String sheetName, String key, int columnNum, int startRowNum)
+	{
+		SheetInfo sheet = getSheet(sheetName);
+		int keyId = getStringId(key);
+		if (keyId == -1 || columnNum >= sheet.nColumns) {
+			return -1;
+		}
+
+		for (int currentRowNum = startRowNum; currentRowNum < sheet.nRows; currentRowNum++) {
+			if (getCellStringId(sheet, currentRowNum, columnNum) == keyId) {
+				return currentRowNum;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Function to search for the row whose leading columns match the specified keys, and return the corresponding row number
+	 * @param sheetName The name of the sheet
+	 * @param keys The values being searched for, in the order of the leading columns of the sheet
+	 * (for example, the test case ID followed by the iteration number)
+	 * @return The first row number (excluding the header row) in which all the specified keys are found
+	 * (-1 if the keys are not found)
+	 */
+	public int getRowNum(String sheetName, String[] keys)
+	{
+		SheetInfo sheet = getSheet(sheetName);
+		if (keys.length > sheet.nColumns) {
+			return -1;
+		}
+
+		int[] keyIds = new int[keys.length];
+		for (int keyIndex = 0; keyIndex < keys.length; keyIndex++) {
+			keyIds[keyIndex] = getStringId(keys[keyIndex]);
+			if (keyIds[keyIndex] == -1) {
+				return -1;
+			}
+		}
+
+		if (keys.length > Math.min(sheet.nColumns, MAX_KEY_COLUMNS)) {
+			// Only the leading key columns are indexed
+			for (int currentRowNum = 1;	// Start at row 1, skipping the header row
+					currentRowNum < sheet.nRows; currentRowNum++) {
+
+				int keyIndex = 0;
+				while (keyIndex < keys.length &&
+						getCellStringId(sheet, currentRowNum, keyIndex) == keyIds[keyIndex]) {
+					keyIndex++;
+				}
+				if (keyIndex == keys.length) {
+					return currentRowNum;
+				}
+			}
+
+			return -1;
+		}
+
+		// Binary search for the first indexed row matching the keys
+		int nIndexedRows = Math.max(sheet.nRows - 1, 0);
+		int lowPosition = 0, highPosition = nIndexedRows;
+		while (lowPosition < highPosition) {
+			int midPosition = (lowPosition + highPosition) >>> 1;
+			if (compareIndexedRow(sheet, midPosition, keyIds) < 0) {
+				lowPosition = midPosition + 1;
+			} else {
+				highPosition = midPosition;
+			}
+		}
+
+		// The matching rows are ordered by row number only if all the key columns are matched
+		int rowNum = -1;
+		for (int indexPosition = lowPosition; indexPosition < nIndexedRows &&
+					compareIndexedRow(sheet, indexPosition, keyIds) == 0; indexPosition++) {
+			int indexedRowNum = getIndexedRowNum(sheet, indexPosition);
+			if (rowNum == -1 || indexedRowNum < rowNum) {
+				rowNum = indexedRowNum;
+			}
+			if (keys.length == Math.min(sheet.nColumns, MAX_KEY_COLUMNS)) {
+				break;
+			}
+		}
+
+		return rowNum;
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding occurence count
+	 * @param sheetName The name of the sheet
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @return The occurence count of the specified key
+	 */
+	public int getRowCount(String sheetName, String key, int columnNum)
+	{
+		SheetInfo sheet = getSheet(sheetName);
+		int rowNum = getRowNum(sheetName, key, columnNum, 0);
+		if (rowNum == -1) {
+			return 0;
+		}
+
+		int keyId = getCellStringId(sheet, rowNum, columnNum);
+		int rowCount = 0;
+		// Assumption: Keys always appear contiguously
+		while (rowNum < sheet.nRows && getCellStringId(sheet, rowNum, columnNum) == keyId) {
+			rowCount++;
+			rowNum++;
+		}
+
+		return rowCount;
+	}
+
+
+	private static class SheetInfo
+	{
+		private final int nRows, nColumns, dataOffset, indexOffset;
+		private final Map<String, Integer> headerIndex = new HashMap<String, Integer>();
+
+		private SheetInfo(int nRows, int nColumns, int dataOffset, int indexOffset)
+		{
+			this.nRows = nRows;
+			this.nColumns = nColumns;
+			this.dataOffset = dataOffset;
+			this.indexOffset = indexOffset;
+		}
+	}
+}
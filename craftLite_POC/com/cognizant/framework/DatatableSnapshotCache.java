@@ -0,0 +1,205 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+
+/**
+ * Singleton class that compiles the datatables into {@link DatatableSnapshot}s on first use, and caches the snapshots opened.
+ * The snapshots are stored within a "Snapshots" folder alongside the datatables, and are named after the checksum
+ * of the datatable they were compiled from, so that a snapshot is reused (even by other processes)
+ * for as long as the content of the datatable remains unchanged.
+ * @author Cognizant
+ */
+public class DatatableSnapshotCache
+{
+	private static final DatatableSnapshotCache datatableSnapshotCache = new DatatableSnapshotCache();
+
+	private static final String SNAPSHOT_FOLDER_NAME = "Snapshots";
+	private static final String SNAPSHOT_FILE_EXTENSION = ".snapshot";
+
+	private final ConcurrentMap<String, CachedSnapshot> cachedSnapshots =
+									new ConcurrentHashMap<String, CachedSnapshot>();
+	private final ConcurrentMap<String, Object> loadLocks =
+									new ConcurrentHashMap<String, Object>();
+
+	private DatatableSnapshotCache()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to return the singleton instance of the {@link DatatableSnapshotCache} object
+	 * @return Instance of the {@link DatatableSnapshotCache} object
+	 */
+	public static DatatableSnapshotCache getInstance()
+	{
+		return datatableSnapshotCache;
+	}
+
+	/**
+	 * Function to get the snapshot of the specified datatable,
+	 * compiling it only if no snapshot exists for the current content of the datatable
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file
+	 * @return The {@link DatatableSnapshot} corresponding to the datatable
+	 */
+	public DatatableSnapshot getSnapshot(String datatablePath, String datatableName)
+	{
+		File datatable = new File(datatablePath + Util.getFileSeparator() + datatableName + ".xls");
+		String cacheKey = datatable.getAbsolutePath();
+
+		CachedSnapshot cachedSnapshot = cachedSnapshots.get(cacheKey);
+		if (cachedSnapshot != null && cachedSnapshot.isCurrent(datatable)) {
+			return cachedSnapshot.snapshot;
+		}
+
+		synchronized (getLoadLock(cacheKey)) {
+			// Another thread may have loaded the snapshot while we were waiting
+			cachedSnapshot = cachedSnapshots.get(cacheKey);
+			if (cachedSnapshot != null && cachedSnapshot.isCurrent(datatable)) {
+				return cachedSnapshot.snapshot;
+			}
+
+			if (!datatable.exists()) {
+				throw new FrameworkException("The specified file \"" + cacheKey + "\" does not exist!");
+			}
+
+			// A changed timestamp alone does not invalidate the snapshot (for example, when the datatable is copied)
+			long lastModified = datatable.lastModified();
+			long length = datatable.length();
+			long checksum = getChecksum(datatable);
+
+			DatatableSnapshot snapshot = loadSnapshot(datatablePath, datatableName, length, checksum);
+			cachedSnapshots.put(cacheKey, new CachedSnapshot(snapshot, lastModified, length));
+
+			return snapshot;
+		}
+	}
+
+	private Object getLoadLock(String cacheKey)
+	{
+		Object loadLock = loadLocks.get(cacheKey);
+		if (loadLock == null) {
+			Object newLoadLock = new Object();
+			loadLock = loadLocks.putIfAbsent(cacheKey, newLoadLock);
+			if (loadLock == null) {
+				loadLock = newLoadLock;
+			}
+		}
+
+		return loadLock;
+	}
+
+	private long getChecksum(File datatable)
+	{
+		CRC32 crc32 = new CRC32();
+		byte[] readBuffer = new byte[64 * 1024];
+
+		InputStream inputStream = null;
+		try {
+			inputStream = new FileInputStream(datatable);
+			int nBytesRead;
+			while ((nBytesRead = inputStream.read(readBuffer)) != -1) {
+				crc32.update(readBuffer, 0, nBytesRead);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the datatable \"" + datatable.getName() + "\"");
+		} finally {
+			if (inputStream != null) {
+				try {
+					inputStream.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return crc32.getValue();
+	}
+
+	private DatatableSnapshot loadSnapshot(String datatablePath, String datatableName,
+															long length, long checksum)
+	{
+		File snapshotFolder = new File(datatablePath + Util.getFileSeparator() + SNAPSHOT_FOLDER_NAME);
+		File snapshotFile = new File(snapshotFolder,
+						datatableName + "-" + String.format("%08x", checksum) + SNAPSHOT_FILE_EXTENSION);
+
+		if (snapshotFile.exists()) {
+			try {
+				DatatableSnapshot snapshot = DatatableSnapshot.open(snapshotFile, datatableName);
+				if (snapshot.isSnapshotOf(length, checksum)) {
+					return snapshot;
+				}
+			} catch (FrameworkException fx) {
+				// The snapshot is corrupt or was written by an incompatible version; compile it afresh
+			}
+		}
+
+		snapshotFolder.mkdirs();
+		DatatableSnapshot.compile(datatablePath, datatableName, length, checksum, snapshotFile);
+		deleteStaleSnapshots(snapshotFolder, datatableName, snapshotFile);
+
+		return DatatableSnapshot.open(snapshotFile, datatableName);
+	}
+
+	private void deleteStaleSnapshots(File snapshotFolder, String datatableName, File currentSnapshotFile)
+	{
+		Pattern snapshotFileNamePattern = Pattern.compile(Pattern.quote(datatableName) +
+										"-[0-9a-f]{8}" + Pattern.quote(SNAPSHOT_FILE_EXTENSION));
+
+		File[] snapshotFiles = snapshotFolder.listFiles();
+		if (snapshotFiles == null) {
+			return;
+		}
+
+		for (File snapshotFile : snapshotFiles) {
+			if (!snapshotFile.equals(currentSnapshotFile) &&
+					snapshotFileNamePattern.matcher(snapshotFile.getName()).matches()) {
+				// Best effort only, since the snapshot may still be mapped by another process
+				snapshotFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Function to discard all the cached snapshots
+	 * (the snapshot files are retained, to be reused by subsequent runs)
+	 */
+	public void clear()
+	{
+		cachedSnapshots.clear();
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException
+	{
+		throw new CloneNotSupportedException();
+	}
+
+
+	private static class CachedSnapshot
+	{
+		private final DatatableSnapshot snapshot;
+		private final long lastModified, length;
+
+		private CachedSnapshot(DatatableSnapshot snapshot, long lastModified, long length)
+		{
+			this.snapshot = snapshot;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		private boolean isCurrent(File file)
+		{
+			return file.lastModified() == lastModified && file.length() == length;
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Singleton class that watches the datatable directories for changes, and reloads the cached copy
+ * of only the workbook which has changed, as soon as it changes.
+ * The re-parsed workbook replaces the cached copy in one step (along with its lookup indexes, which are
+ * rebuilt lazily), so that the readers always see either the old or the new content of a workbook, never a mix.
+ * The {@link ExcelWorkbookCache} still checks the files for changes on every read, so that a read made before
+ * the watcher has caught up never sees a stale workbook; the watcher only saves that read the cost of re-parsing.
+ * @author Cognizant
+ */
+public class DatatableWatcher
+{
+	private static final DatatableWatcher datatableWatcher = new DatatableWatcher();
+
+	// Editors typically save a file in several steps, so the events are allowed to settle before reloading
+	private static final long SETTLE_TIME_MILLIS = 250;
+
+	private final ConcurrentMap<String, WatchKey> watchedDirectories =
+									new ConcurrentHashMap<String, WatchKey>();
+
+	private WatchService watchService;
+	private Thread watcherThread;
+
+
+	private DatatableWatcher()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to return the singleton instance of the {@link DatatableWatcher} object
+	 * @return Instance of the {@link DatatableWatcher} object
+	 */
+	public static DatatableWatcher getInstance()
+	{
+		return datatableWatcher;
+	}
+
+	/**
+	 * Function to start watching the specified datatable directory for changes
+	 * (has no effect if the directory is already being watched)
+	 * @param datatablePath The path of the directory where the datatables are stored
+	 */
+	public synchronized void watch(String datatablePath)
+	{
+		File directory = new File(datatablePath).getAbsoluteFile();
+		if (watchedDirectories.containsKey(directory.getPath())) {
+			return;
+		}
+
+		try {
+			if (watchService == null) {
+				watchService = FileSystems.getDefault().newWatchService();
+				startWatcher(watchService);
+			}
+
+			WatchKey watchKey = directory.toPath().register(watchService,
+										StandardWatchEventKinds.ENTRY_CREATE,
+										StandardWatchEventKinds.ENTRY_MODIFY,
+										StandardWatchEventKinds.ENTRY_DELETE);
+			watchedDirectories.put(directory.getPath(), watchKey);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while watching the datatable directory \"" +
+																directory.getPath() + "\"");
+		}
+
+		// Discard any workbook cached before the directory was watched, since it may already be stale
+		ExcelWorkbookCache.getInstance().invalidateDirectory(directory.getPath());
+	}
+
+	/**
+	 * Function to stop watching all the datatable directories
+	 */
+	public synchronized void stop()
+	{
+		if (watchService == null) {
+			return;
+		}
+
+		watchedDirectories.clear();
+		try {
+			watchService.close();	// Also stops the watcher thread
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+
+		watchService = null;
+		watcherThread = null;
+	}
+
+	private void startWatcher(final WatchService watchService)
+	{
+		watcherThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				watchChanges(watchService);
+			}
+		}, "DatatableWatcher");
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+	}
+
+	private void watchChanges(WatchService watchService)
+	{
+		while (true) {
+			Set<File> changedFiles = new LinkedHashSet<File>();
+			try {
+				WatchKey watchKey = watchService.take();
+				while (watchKey != null) {
+					collectChangedFiles(watchKey, changedFiles);
+					watchKey = watchService.poll(SETTLE_TIME_MILLIS, TimeUnit.MILLISECONDS);
+				}
+			} catch (ClosedWatchServiceException e) {
+				return;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+
+			for (File changedFile : changedFiles) {
+				try {
+					ExcelWorkbookCache.getInstance().reload(changedFile.getPath());
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private void collectChangedFiles(WatchKey watchKey, Set<File> changedFiles)
+	{
+		Path directory = (Path) watchKey.watchable();
+
+		for (WatchEvent<?> event : watchKey.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+				// Some events have been lost, so the changed workbooks cannot be identified
+				ExcelWorkbookCache.getInstance().invalidateDirectory(directory.toString());
+				continue;
+			}
+
+			Path fileName = (Path) event.context();
+			if (fileName.toString().endsWith(".xls")) {
+				changedFiles.add(directory.resolve(fileName).toFile());
+			}
+		}
+
+		if (!watchKey.reset()) {
+			// The directory is no longer accessible
+			watchedDirectories.remove(directory.toString(), watchKey);
+			ExcelWorkbookCache.getInstance().invalidateDirectory(directory.toString());
+		}
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException
+	{
+		throw new CloneNotSupportedException();
+	}
+}
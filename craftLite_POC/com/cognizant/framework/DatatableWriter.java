@@ -0,0 +1,380 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * Singleton class that coordinates the updates made to the datatables.
+ * Each datatable file has its own lock, so that updates to different files never block each other.
+ * In the write-behind mode, the updates are held in memory (where they remain visible to the readers)
+ * and written by a single background thread, which coalesces all the pending updates to a file into one commit.
+ * The updates are tracked per queuing thread (i.e., per test), so that each test waits only for its own updates
+ * and is failed only by its own write errors.
+ * @author Cognizant
+ */
+public class DatatableWriter
+{
+	private static final DatatableWriter datatableWriter = new DatatableWriter();
+
+	private final ConcurrentMap<String, Object> fileLocks =
+									new ConcurrentHashMap<String, Object>();
+	private final ConcurrentMap<String, PendingUpdate> pendingUpdates =
+									new ConcurrentHashMap<String, PendingUpdate>();
+	private final BlockingQueue<PendingUpdate> updateQueue =
+									new LinkedBlockingQueue<PendingUpdate>();
+
+	private final Object flushMonitor = new Object();
+	private int nPendingUpdates = 0;
+	private final ThreadLocal<UpdateTracker> updateTrackers = new ThreadLocal<UpdateTracker>()
+	{
+		@Override
+		protected UpdateTracker initialValue()
+		{
+			return new UpdateTracker();
+		}
+	};
+	// Trackers whose write errors are yet to be reported, for the threads which never flush their own updates
+	private final List<UpdateTracker> failedTrackers = new ArrayList<UpdateTracker>();
+
+	private Thread writerThread;
+
+
+	private DatatableWriter()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to return the singleton instance of the {@link DatatableWriter} object
+	 * @return Instance of the {@link DatatableWriter} object
+	 */
+	public static DatatableWriter getInstance()
+	{
+		return datatableWriter;
+	}
+
+	private static String getFileKey(String datatablePath, String datatableName)
+	{
+		return new File(datatablePath + Util.getFileSeparator() +
+								datatableName + ".xls").getAbsolutePath();
+	}
+
+	private static String getValueKey(String fileKey, String datasheetName,
+												int rowNum, String fieldName)
+	{
+		return fileKey + "|" + datasheetName + "|" + rowNum + "|" + fieldName;
+	}
+
+	/**
+	 * Function to get the lock which must be held while updating the specified datatable
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file
+	 * @return The lock object corresponding to the datatable file
+	 */
+	public Object getFileLock(String datatablePath, String datatableName)
+	{
+		String fileKey = getFileKey(datatablePath, datatableName);
+
+		Object fileLock = fileLocks.get(fileKey);
+		if (fileLock == null) {
+			Object newFileLock = new Object();
+			fileLock = fileLocks.putIfAbsent(fileKey, newFileLock);
+			if (fileLock == null) {
+				fileLock = newFileLock;
+			}
+		}
+
+		return fileLock;
+	}
+
+	/**
+	 * Function to queue an update to the specified datatable cell, to be written in the background
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file
+	 * @param datasheetName The name of the sheet into which the data is to be written
+	 * @param rowNum The row number into which the data is to be written
+	 * @param fieldName The name of the field into which the data is to be written
+	 * @param dataValue The value to be written into the field specified
+	 * @param reevaluateFormulas Boolean value indicating whether the formulas within the datatable
+	 * are to be re-evaluated when the update is written
+	 * @see #flush()
+	 */
+	public void enqueue(String datatablePath, String datatableName, String datasheetName,
+						int rowNum, String fieldName, String dataValue, boolean reevaluateFormulas)
+	{
+		String valueKey = getValueKey(getFileKey(datatablePath, datatableName),
+												datasheetName, rowNum, fieldName);
+		UpdateTracker updateTracker = updateTrackers.get();
+		PendingUpdate update = new PendingUpdate(datatablePath, datatableName, datasheetName,
+												rowNum, fieldName, dataValue, reevaluateFormulas, valueKey, updateTracker);
+		pendingUpdates.put(valueKey, update);
+
+		synchronized (flushMonitor) {
+			nPendingUpdates++;
+			updateTracker.nPendingUpdates++;
+			startWriter();
+		}
+
+		updateQueue.add(update);
+	}
+
+	/**
+	 * Function to get the value of an update to the specified datatable cell which is yet to be written
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file
+	 * @param datasheetName The name of the sheet in which the data is present
+	 * @param rowNum The row number in which the data is present
+	 * @param fieldName The name of the field whose value is required
+	 * @return The pending value (null if there is no pending update to the specified cell)
+	 */
+	public String getPendingValue(String datatablePath, String datatableName,
+									String datasheetName, int rowNum, String fieldName)
+	{
+		if (pendingUpdates.isEmpty()) {
+			return null;
+		}
+
+		PendingUpdate update = pendingUpdates.get(getValueKey(getFileKey(datatablePath, datatableName),
+																datasheetName, rowNum, fieldName));
+		return (update == null)? null : update.dataValue;
+	}
+
+	/**
+	 * Function to wait until all the updates queued by the current thread have been written into the datatables
+	 * @throws FrameworkException If any of the updates queued by the current thread could not be written
+	 * @see #flushAll()
+	 */
+	public void flush()
+	{
+		UpdateTracker updateTracker = updateTrackers.get();
+
+		synchronized (flushMonitor) {
+			while (updateTracker.nPendingUpdates > 0) {
+				awaitUpdates();
+			}
+
+			reportError(updateTracker);
+		}
+	}
+
+	/**
+	 * Function to wait until all the queued updates (by any thread) have been written into the datatables
+	 * @throws FrameworkException If any of the queued updates could not be written,
+	 * and the error has not been reported to the thread which queued the update
+	 * @see #flush()
+	 */
+	public void flushAll()
+	{
+		synchronized (flushMonitor) {
+			while (nPendingUpdates > 0) {
+				awaitUpdates();
+			}
+
+			if (!failedTrackers.isEmpty()) {
+				reportError(failedTrackers.get(0));
+			}
+		}
+	}
+
+	private void awaitUpdates()
+	{
+		try {
+			flushMonitor.wait();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkException("Interrupted while waiting for the datatable updates to be written");
+		}
+	}
+
+	private void reportError(UpdateTracker updateTracker)
+	{
+		if (updateTracker.writeError != null) {
+			FrameworkException error = updateTracker.writeError;
+			updateTracker.writeError = null;
+			failedTrackers.remove(updateTracker);
+			throw error;
+		}
+	}
+
+	private void startWriter()
+	{
+		if (writerThread != null) {
+			return;
+		}
+
+		writerThread = new Thread(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				writeUpdates();
+			}
+		}, "DatatableWriter");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	private void writeUpdates()
+	{
+		try {
+			while (true) {
+				List<PendingUpdate> updates = new ArrayList<PendingUpdate>();
+				try {
+					updates.add(updateQueue.take());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				updateQueue.drainTo(updates);
+
+				// The batch is accounted for even if it could not be written, so that the flushes never hang
+				try {
+					writeBatch(updates);
+				} finally {
+					synchronized (flushMonitor) {
+						nPendingUpdates -= updates.size();
+						for (PendingUpdate update : updates) {
+							update.updateTracker.nPendingUpdates--;
+						}
+						flushMonitor.notifyAll();
+					}
+				}
+			}
+		} finally {
+			// Let the next update start a new writer, and restart right away if any update is still queued
+			synchronized (flushMonitor) {
+				writerThread = null;
+				if (!updateQueue.isEmpty()) {
+					startWriter();
+				}
+			}
+		}
+	}
+
+	private void writeBatch(List<PendingUpdate> updates)
+	{
+		// Group the updates by file, so that each file is written only once per batch
+		Map<String, List<PendingUpdate>> updatesByFile =
+							new LinkedHashMap<String, List<PendingUpdate>>();
+		for (PendingUpdate update : updates) {
+			String fileKey = getFileKey(update.datatablePath, update.datatableName);
+			List<PendingUpdate> fileUpdates = updatesByFile.get(fileKey);
+			if (fileUpdates == null) {
+				fileUpdates = new ArrayList<PendingUpdate>();
+				updatesByFile.put(fileKey, fileUpdates);
+			}
+			fileUpdates.add(update);
+		}
+
+		for (List<PendingUpdate> fileUpdates : updatesByFile.values()) {
+			try {
+				writeFileUpdates(fileUpdates);
+			} catch (Throwable e) {
+				// Errors outside the transaction (e.g., while loading the workbook) fail all the updates to the file
+				for (PendingUpdate update : fileUpdates) {
+					recordError(update, e);
+				}
+			} finally {
+				for (PendingUpdate update : fileUpdates) {
+					// Retain the value if it has since been overwritten by a newer pending update
+					pendingUpdates.remove(update.valueKey, update);
+				}
+			}
+		}
+	}
+
+	private void writeFileUpdates(List<PendingUpdate> fileUpdates)
+	{
+		PendingUpdate firstUpdate = fileUpdates.get(0);
+		ExcelDataAccess testDataAccess =
+				new ExcelDataAccess(firstUpdate.datatablePath, firstUpdate.datatableName);
+
+		synchronized (getFileLock(firstUpdate.datatablePath, firstUpdate.datatableName)) {
+			List<PendingUpdate> appliedUpdates = new ArrayList<PendingUpdate>();
+			testDataAccess.beginTransaction();
+			try {
+				boolean reevaluateFormulas = false;
+				for (PendingUpdate update : fileUpdates) {
+					// An invalid update fails only the test which queued it, leaving the other updates to be committed
+					try {
+						testDataAccess.setDatasheetName(update.datasheetName);
+						testDataAccess.setValue(update.rowNum, update.fieldName, update.dataValue);
+					} catch (RuntimeException e) {
+						recordError(update, e);
+						continue;
+					}
+					appliedUpdates.add(update);
+					reevaluateFormulas |= update.reevaluateFormulas;
+				}
+
+				testDataAccess.setReevaluateFormulasOnWrite(reevaluateFormulas);
+				testDataAccess.commitTransaction();
+			} catch (RuntimeException e) {
+				testDataAccess.rollbackTransaction();
+				for (PendingUpdate update : appliedUpdates) {
+					recordError(update, e);
+				}
+			}
+		}
+	}
+
+	private void recordError(PendingUpdate update, Throwable e)
+	{
+		e.printStackTrace();
+		synchronized (flushMonitor) {
+			UpdateTracker updateTracker = update.updateTracker;
+			if (updateTracker.writeError == null) {
+				updateTracker.writeError = new FrameworkException("Error while writing the test data into the datatable \"" +
+															update.datatableName + ".xls\": " + e.getMessage());
+				failedTrackers.add(updateTracker);
+			}
+		}
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException
+	{
+		throw new CloneNotSupportedException();
+	}
+
+
+	private static class PendingUpdate
+	{
+		private final String datatablePath, datatableName, datasheetName;
+		private final int rowNum;
+		private final String fieldName, dataValue;
+		private final boolean reevaluateFormulas;
+		private final String valueKey;
+		private final UpdateTracker updateTracker;
+
+		private PendingUpdate(String datatablePath, String datatableName, String datasheetName,
+								int rowNum, String fieldName, String dataValue,
+								boolean reevaluateFormulas, String valueKey, UpdateTracker updateTracker)
+		{
+			this.datatablePath = datatablePath;
+			this.datatableName = datatableName;
+			this.datasheetName = datasheetName;
+			this.rowNum = rowNum;
+			this.fieldName = fieldName;
+			this.dataValue = dataValue;
+			this.reevaluateFormulas = reevaluateFormulas;
+			this.valueKey = valueKey;
+			this.updateTracker = updateTracker;
+		}
+	}
+
+	// The pending updates and write error of the updates queued by one thread (guarded by the flush monitor)
+	private static class UpdateTracker
+	{
+		private int nPendingUpdates = 0;
+		private FrameworkException writeError;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Class which implements the {@link DatatableBackend} over the delimited (CSV/TSV) datatables.
+ * Each datatable is a folder named after the datatable, holding one UTF-8 encoded file per sheet
+ * (named after the sheet), whose first line holds the column headers.
+ * Being plain text, such datatables can be compared and merged like any other source file
+ * @author Cognizant
+ * @see DelimitedSheet
+ */
+public class DelimitedDatatableBackend implements DatatableBackend
+{
+	private final String datatablePath, datatableName;
+	private final char delimiter;
+	private final String fileExtension;
+
+
+	/**
+	 * Constructor to initialize the {@link DelimitedDatatableBackend} object
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable (i.e., the name of the folder which holds its sheets)
+	 * @param datatableFormat The {@link DatatableFormat} of the datatable (either Csv or Tsv)
+	 */
+	public DelimitedDatatableBackend(String datatablePath, String datatableName,
+															DatatableFormat datatableFormat)
+	{
+		this.datatablePath = datatablePath;
+		this.datatableName = datatableName;
+
+		switch (datatableFormat) {
+		case Csv:
+			delimiter = ',';
+			fileExtension = ".csv";
+			break;
+
+		case Tsv:
+			delimiter = '\t';
+			fileExtension = ".tsv";
+			break;
+
+		default:
+			throw new FrameworkException("The datatable format \"" + datatableFormat + "\"" +
+															"is not a delimited format!");
+		}
+	}
+
+	/**
+	 * Function to discard all the delimited datatable sheets cached so far, and release the memory held by them
+	 */
+	public static void clearCache()
+	{
+		DelimitedSheet.clearCache();
+	}
+
+	private File getDatatableFolder()
+	{
+		return new File(datatablePath + Util.getFileSeparator() + datatableName);
+	}
+
+	private DelimitedSheet getSheet(String datasheetName)
+	{
+		File sheetFile = getSheetFile(datasheetName);
+		if (!sheetFile.exists()) {
+			throw new FrameworkException("The specified sheet \"" + datasheetName + "\"" +
+										"does not exist within the datatable \"" + datatableName + "\"");
+		}
+
+		return DelimitedSheet.getSheet(sheetFile, delimiter);
+	}
+
+	private int getRowNum(DelimitedSheet sheet, String datasheetName, String testcase, int iteration)
+	{
+		int rowNum = sheet.getRowNum(testcase, Integer.toString(iteration));
+		if (rowNum != -1) {
+			return rowNum;
+		}
+
+		if (sheet.getRowCount(testcase) == 0) {
+			throw new FrameworkException("The test case \"" + testcase + "\"" +
+										"is not found in the test data sheet \"" + datasheetName + "\"!");
+		}
+		throw new FrameworkException("The iteration number \"" + iteration + "\"" +
+									"of the test case \"" + testcase + "\"" +
+									"is not found in the test data sheet \"" + datasheetName + "\"!");
+	}
+
+	private int getColumnNum(DelimitedSheet sheet, String datasheetName, String fieldName)
+	{
+		int columnNum = sheet.getColumnNum(fieldName);
+		if (columnNum == -1) {
+			throw new FrameworkException("The specified column header \"" + fieldName + "\"" +
+										"is not found in the sheet \"" + datasheetName + "\"!");
+		}
+
+		return columnNum;
+	}
+
+	@Override
+	public int getRowCount(String datasheetName, String testcase)
+	{
+		return getSheet(datasheetName).getRowCount(testcase);
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getRows(String testcase, int iteration)
+	{
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		File[] sheetFiles = getDatatableFolder().listFiles();
+		if (sheetFiles == null) {
+			throw new FrameworkException("The specified datatable \"" + getDatatableFolder().getPath() + "\"" +
+																					"does not exist!");
+		}
+
+		for (File sheetFile : sheetFiles) {
+			String sheetFileName = sheetFile.getName();
+			if (!sheetFile.isFile() || !sheetFileName.endsWith(fileExtension)) {
+				continue;
+			}
+
+			DelimitedSheet sheet = DelimitedSheet.getSheet(sheetFile, delimiter);
+			int rowNum = sheet.getRowNum(testcase, Integer.toString(iteration));
+			if (rowNum != -1) {
+				String datasheetName =
+						sheetFileName.substring(0, sheetFileName.length() - fileExtension.length());
+				rows.put(datasheetName, sheet.getRowValues(rowNum));
+			}
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	@Override
+	public String getData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		DelimitedSheet sheet = getSheet(datasheetName);
+		int rowNum = getRowNum(sheet, datasheetName, testcase, iteration);
+		int columnNum = getColumnNum(sheet, datasheetName, fieldName);
+
+		return sheet.getValue(rowNum, columnNum);
+	}
+
+	@Override
+	public Object getNativeData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		// The delimited formats do not distinguish the types of the values
+		return getData(datasheetName, testcase, iteration, fieldName);
+	}
+
+	@Override
+	public Map<String, Object> getNativeRow(String datasheetName, String testcase, int iteration)
+	{
+		DelimitedSheet sheet = getSheet(datasheetName);
+		int rowNum = getRowNum(sheet, datasheetName, testcase, iteration);
+
+		return Collections.<String, Object>unmodifiableMap(sheet.getRowValues(rowNum));
+	}
+
+	@Override
+	public void putData(String datasheetName, String testcase, int iteration,
+											String fieldName, String dataValue)
+	{
+		synchronized (DatatableWriter.getInstance().getFileLock(datatablePath, datatableName)) {
+			DelimitedSheet sheet = getSheet(datasheetName);
+			int rowNum = getRowNum(sheet, datasheetName, testcase, iteration);
+			int columnNum = getColumnNum(sheet, datasheetName, fieldName);
+
+			sheet.writeWithValue(getSheetFile(datasheetName), rowNum, columnNum, dataValue);
+		}
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getReferenceRows(String datasheetName)
+	{
+		DelimitedSheet sheet = getSheet(datasheetName);
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		for (int rowNum = 1; rowNum <= sheet.getLastRowNum(); rowNum++) {	// Start at row 1, skipping the header row
+			// The reference IDs are present in the first column
+			String referenceId = sheet.getValue(rowNum, 0);
+
+			if (!rows.containsKey(referenceId)) {	// The first occurrence takes precedence
+				rows.put(referenceId, sheet.getRowValues(rowNum));
+			}
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	@Override
+	public File getSheetFile(String datasheetName)
+	{
+		return new File(getDatatableFolder(), datasheetName + fileExtension);
+	}
+}
@@ -0,0 +1,362 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Class to hold a sheet of a delimited (CSV/TSV) datatable, as read by the {@link DelimitedDatatableBackend}.
+ * The file is memory-mapped and decoded in one go, and only the boundaries of its records are located up front;
+ * the fields of a record are parsed only when the record is accessed, and the index of the test case iterations
+ * is built from the first two fields of each record alone, when it is first required.
+ * The sheets are cached for as long as the underlying file remains unchanged, and are never modified once loaded.
+ * Quoted fields (which may contain delimiters, line breaks and doubled quotes) are supported as per RFC 4180
+ * @author Cognizant
+ */
+final class DelimitedSheet
+{
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+	private static final ConcurrentMap<String, DelimitedSheet> cachedSheets =
+									new ConcurrentHashMap<String, DelimitedSheet>();
+
+	private final String content;
+	private final char delimiter;
+	private final long lastModified, length;
+
+	// The offsets at which each record starts, followed by the length of the content
+	private final int[] recordOffsets;
+	private final List<String> headers;
+	private final Map<String, Integer> headerIndex;
+
+	private volatile Map<List<String>, Integer> rowIndex;
+
+
+	private DelimitedSheet(String content, char delimiter, long lastModified, long length)
+	{
+		this.content = content;
+		this.delimiter = delimiter;
+		this.lastModified = lastModified;
+		this.length = length;
+
+		this.recordOffsets = locateRecords();
+
+		List<String> headers = Collections.emptyList();
+		Map<String, Integer> headerIndex = new HashMap<String, Integer>();
+		if (getLastRowNum() >= 0) {
+			headers = parseFields(0, Integer.MAX_VALUE);
+			for (int columnNum = 0; columnNum < headers.size(); columnNum++) {
+				if (!headerIndex.containsKey(headers.get(columnNum))) {	// The first occurrence takes precedence
+					headerIndex.put(headers.get(columnNum), columnNum);
+				}
+			}
+		}
+		this.headers = Collections.unmodifiableList(headers);
+		this.headerIndex = Collections.unmodifiableMap(headerIndex);
+	}
+
+	/**
+	 * Function to get the sheet stored within the specified file,
+	 * parsing it only if it is not cached yet or if the file has been modified since it was cached
+	 * @param file The file in which the sheet is stored
+	 * @param delimiter The character which separates the fields
+	 * @return The {@link DelimitedSheet} corresponding to the file
+	 */
+	static DelimitedSheet getSheet(File file, char delimiter)
+	{
+		String cacheKey = file.getAbsolutePath();
+
+		DelimitedSheet sheet = cachedSheets.get(cacheKey);
+		if (sheet != null && sheet.isCurrent(file)) {
+			return sheet;
+		}
+
+		// Concurrent loads of the same file are harmless, since the loaded sheet is immutable
+		long lastModified = file.lastModified();
+		long length = file.length();
+		sheet = new DelimitedSheet(readFile(file), delimiter, lastModified, length);
+		cachedSheets.put(cacheKey, sheet);
+
+		return sheet;
+	}
+
+	/**
+	 * Function to discard all the cached sheets
+	 */
+	static void clearCache()
+	{
+		cachedSheets.clear();
+	}
+
+	private static String readFile(File file)
+	{
+		FileChannel fileChannel = null;
+		try {
+			fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			MappedByteBuffer mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+			return UTF_8.newDecoder().decode(mappedBuffer).toString();
+		} catch (CharacterCodingException e) {
+			e.printStackTrace();
+			throw new FrameworkException("The datatable \"" + file.getPath() + "\" is not UTF-8 encoded!");
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the datatable \"" + file.getPath() + "\"");
+		} finally {
+			if (fileChannel != null) {
+				try {
+					fileChannel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	private boolean isCurrent(File file)
+	{
+		return file.lastModified() == lastModified && file.length() == length;
+	}
+
+	private int[] locateRecords()
+	{
+		int offset = (content.length() > 0 && content.charAt(0) == BYTE_ORDER_MARK)? 1 : 0;
+
+		int[] offsets = new int[64];
+		int nRecords = 0;
+		boolean inQuotes = false;
+		boolean recordStarted = false;
+
+		for (int i = offset; i < content.length(); i++) {
+			if (!recordStarted) {
+				if (nRecords + 1 == offsets.length) {
+					offsets = Arrays.copyOf(offsets, offsets.length * 2);
+				}
+				offsets[nRecords++] = i;
+				recordStarted = true;
+			}
+
+			char currentChar = content.charAt(i);
+			if (currentChar == '"') {
+				inQuotes = !inQuotes;	// Doubled quotes toggle twice, which leaves the state unchanged
+			} else if (currentChar == '\n' && !inQuotes) {
+				recordStarted = false;
+			}
+		}
+
+		offsets[nRecords] = content.length();
+		return Arrays.copyOf(offsets, nRecords + 1);
+	}
+
+	private List<String> parseFields(int rowNum, int maxFields)
+	{
+		int start = recordOffsets[rowNum];
+		int end = recordOffsets[rowNum + 1];
+
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean inQuotes = false;
+
+		for (int i = start; i < end; i++) {
+			char currentChar = content.charAt(i);
+			if (inQuotes) {
+				if (currentChar != '"') {
+					field.append(currentChar);
+				} else if (i + 1 < end && content.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else {
+					inQuotes = false;
+				}
+			} else if (currentChar == '"') {
+				inQuotes = true;
+			} else if (currentChar == delimiter) {
+				fields.add(field.toString());
+				if (fields.size() == maxFields) {
+					return fields;
+				}
+				field.setLength(0);
+			} else if (currentChar != '\r' && currentChar != '\n') {
+				field.append(currentChar);
+			}
+		}
+
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * Function to get the last row number within the sheet (including the header row, whose row number is 0)
+	 * @return The last row number (-1 if the sheet is empty)
+	 */
+	int getLastRowNum()
+	{
+		return recordOffsets.length - 2;
+	}
+
+	/**
+	 * Function to get the column number of the specified column header
+	 * @param columnHeader The column header
+	 * @return The column number (-1 if the column header is not found)
+	 */
+	int getColumnNum(String columnHeader)
+	{
+		Integer columnNum = headerIndex.get(columnHeader);
+		return (columnNum == null)? -1 : columnNum;
+	}
+
+	/**
+	 * Function to get the value of the specified field (an empty string if the record has fewer fields)
+	 * @param rowNum The row number
+	 * @param columnNum The column number
+	 * @return The value of the field
+	 */
+	String getValue(int rowNum, int columnNum)
+	{
+		List<String> fields = parseFields(rowNum, columnNum + 1);
+		return (columnNum < fields.size())? fields.get(columnNum) : "";
+	}
+
+	/**
+	 * Function to get the values of the specified row, keyed by column header
+	 * @param rowNum The row number
+	 * @return The values of the row, in the order of the columns
+	 */
+	Map<String, String> getRowValues(int rowNum)
+	{
+		List<String> fields = parseFields(rowNum, Integer.MAX_VALUE);
+
+		Map<String, String> rowValues = new LinkedHashMap<String, String>();
+		for (int columnNum = 0; columnNum < headers.size(); columnNum++) {
+			if (!rowValues.containsKey(headers.get(columnNum))) {	// The first occurrence takes precedence
+				rowValues.put(headers.get(columnNum), (columnNum < fields.size())? fields.get(columnNum) : "");
+			}
+		}
+
+		return Collections.unmodifiableMap(rowValues);
+	}
+
+	/**
+	 * Function to get the row number corresponding to the specified values of the first two columns
+	 * @param key1 The value of the first column
+	 * @param key2 The value of the second column
+	 * @return The row number of the first such row (-1 if there is no such row)
+	 */
+	int getRowNum(String key1, String key2)
+	{
+		Map<List<String>, Integer> rowIndex = this.rowIndex;
+		if (rowIndex == null) {
+			// Concurrent builds of the index are harmless, since they produce identical indexes
+			rowIndex = new HashMap<List<String>, Integer>();
+			for (int rowNum = 1; rowNum <= getLastRowNum(); rowNum++) {	// Start at row 1, skipping the header row
+				List<String> keys = parseFields(rowNum, 2);
+				if (keys.size() == 1) {
+					keys.add("");
+				}
+				if (!rowIndex.containsKey(keys)) {	// The first occurrence takes precedence
+					rowIndex.put(keys, rowNum);
+				}
+			}
+			this.rowIndex = rowIndex;
+		}
+
+		Integer rowNum = rowIndex.get(Arrays.asList(key1, key2));
+		return (rowNum == null)? -1 : rowNum;
+	}
+
+	/**
+	 * Function to count the rows whose first column has the specified value
+	 * @param key The value of the first column
+	 * @return The number of such rows
+	 */
+	int getRowCount(String key)
+	{
+		int rowCount = 0;
+		for (int rowNum = 1; rowNum <= getLastRowNum(); rowNum++) {	// Start at row 1, skipping the header row
+			if (parseFields(rowNum, 1).get(0).equals(key)) {
+				rowCount++;
+			}
+		}
+
+		return rowCount;
+	}
+
+	/**
+	 * Function to write the content of the sheet, with the specified field replaced, into the specified file.
+	 * The file is replaced in one step, and the cached copy of the sheet is discarded
+	 * @param file The file into which the sheet is to be written
+	 * @param rowNum The row number of the field to be replaced
+	 * @param columnNum The column number of the field to be replaced
+	 * @param dataValue The new value of the field
+	 */
+	void writeWithValue(File file, int rowNum, int columnNum, String dataValue)
+	{
+		List<String> fields = parseFields(rowNum, Integer.MAX_VALUE);
+		while (fields.size() <= columnNum) {
+			fields.add("");
+		}
+		fields.set(columnNum, dataValue);
+
+		int start = recordOffsets[rowNum];
+		int end = recordOffsets[rowNum + 1];
+		int recordEnd = end;
+		while (recordEnd > start &&
+				(content.charAt(recordEnd - 1) == '\n' || content.charAt(recordEnd - 1) == '\r')) {
+			recordEnd--;
+		}
+
+		StringBuilder updatedContent = new StringBuilder(content.length() + dataValue.length() + 2);
+		updatedContent.append(content, 0, start);
+		for (int i = 0; i < fields.size(); i++) {
+			if (i > 0) {
+				updatedContent.append(delimiter);
+			}
+			appendField(updatedContent, fields.get(i));
+		}
+		updatedContent.append(content, recordEnd, content.length());
+
+		File temporaryFile = new File(file.getPath() + ".tmp");
+		try {
+			Files.write(temporaryFile.toPath(), updatedContent.toString().getBytes(UTF_8));
+			try {
+				Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+															StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while writing into the datatable \"" + file.getPath() + "\"");
+		} finally {
+			cachedSheets.remove(file.getAbsolutePath());
+		}
+	}
+
+	private void appendField(StringBuilder record, String field)
+	{
+		if (field.indexOf(delimiter) == -1 && field.indexOf('"') == -1 &&
+				field.indexOf('\n') == -1 && field.indexOf('\r') == -1) {
+			record.append(field);
+			return;
+		}
+
+		record.append('"').append(field.replace("\"", "\"\"")).append('"');
+	}
+}
@@ -1,14 +1,25 @@
 package com.cognizant.framework;
 
 import java.awt.Color;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFCellStyle;
-import org.apache.poi.hssf.usermodel.HSSFFont;
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
 import org.apache.poi.hssf.usermodel.HSSFPalette;
 import org.apache.poi.hssf.usermodel.HSSFRow;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
@@ -30,6 +41,19 @@ public class ExcelDataAccess
 {
 	private final String filePath, fileName;
 	
+	private HSSFWorkbook transactionWorkbook;
+	private boolean transactionActive = false;
+	
+	// DataFormatter is not thread-safe, and is costly to create for every cell read
+	private static final ThreadLocal<DataFormatter> dataFormatters = new ThreadLocal<DataFormatter>()
+	{
+		@Override
+		protected DataFormatter initialValue()
+		{
+			return new DataFormatter();
+		}
+	};
+	
 	private String datasheetName;
 	/**
 	 * Function to get the Excel sheet name
@@ -48,6 +72,18 @@ public class ExcelDataAccess
 		this.datasheetName = datasheetName;
 	}
 	
+	private boolean reevaluateFormulasOnWrite = false;
+	/**
+	 * Function to set whether the formulas within the workbook are to be re-evaluated whenever the workbook is written,
+	 * so that the formula results stored within the file reflect the values written
+	 * (if not, the formulas are recalculated by Excel when the file is next opened)
+	 * @param reevaluateFormulasOnWrite Boolean value indicating whether the formulas are to be re-evaluated on write
+	 */
+	public void setReevaluateFormulasOnWrite(boolean reevaluateFormulasOnWrite)
+	{
+		this.reevaluateFormulasOnWrite = reevaluateFormulasOnWrite;
+	}
+	
 	
 	/**
 	 * Constructor to initialize the excel data filepath and filename
@@ -68,50 +104,192 @@ public class ExcelDataAccess
 		}
 	}
 	
+	private String getAbsoluteFilePath()
+	{
+		return filePath + Util.getFileSeparator() + fileName + ".xls";
+	}
+	
 	private HSSFWorkbook openFileForReading()
 	{
-		String absoluteFilePath = filePath + Util.getFileSeparator() +
-															fileName + ".xls";
+		if (transactionActive) {
+			// Reads within a transaction should see the uncommitted changes
+			return getTransactionWorkbook();
+		}
 		
-		FileInputStream fileInputStream;
-		try	{
-			fileInputStream = new FileInputStream(absoluteFilePath);
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-			throw new FrameworkException("The specified file \"" + absoluteFilePath + "\" does not exist!");
+		return ExcelWorkbookCache.getInstance().getWorkbook(getAbsoluteFilePath());
+	}
+	
+	private HSSFWorkbook openFileForWriting()
+	{
+		if (transactionActive) {
+			return getTransactionWorkbook();
 		}
 		
-		HSSFWorkbook workbook;
-		try {
-			workbook = new HSSFWorkbook(fileInputStream);
-			//fileInputStream.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new FrameworkException("Error while opening the specified Excel workbook \"" + absoluteFilePath + "\"");
+		// Always work on a private copy, since the cached workbook is shared across threads
+		return ExcelWorkbookCache.loadWorkbook(getAbsoluteFilePath());
+	}
+	
+	private HSSFWorkbook getTransactionWorkbook()
+	{
+		if (transactionWorkbook == null) {
+			transactionWorkbook = ExcelWorkbookCache.loadWorkbook(getAbsoluteFilePath());
+		}
+		
+		return transactionWorkbook;
+	}
+	
+	private void saveChanges(HSSFWorkbook workbook)
+	{
+		if (transactionActive) {
+			transactionWorkbook = workbook;	// Written only when the transaction is committed
+		} else {
+			writeIntoFile(workbook);
+		}
+	}
+	
+	/**
+	 * Function to start a transaction, within which all the changes made to the workbook
+	 * are held in memory until {@link #commitTransaction()} writes them into the file in one go
+	 * @see #rollbackTransaction()
+	 */
+	public void beginTransaction()
+	{
+		if (transactionActive) {
+			throw new FrameworkException("A transaction is already active on the workbook \"" +
+																fileName + ".xls\"!");
+		}
+		
+		transactionActive = true;
+		transactionWorkbook = null;	// Loaded lazily on first access
+	}
+	
+	/**
+	 * Function to write all the changes made within the current transaction into the file
+	 * @see #beginTransaction()
+	 */
+	public void commitTransaction()
+	{
+		if (!transactionActive) {
+			throw new FrameworkException("No transaction is active on the workbook \"" +
+																fileName + ".xls\"!");
+		}
+		
+		HSSFWorkbook workbook = transactionWorkbook;
+		transactionActive = false;
+		transactionWorkbook = null;
+		
+		if (workbook != null) {
+			writeIntoFile(workbook);
+		}
+	}
+	
+	/**
+	 * Function to write all the changes made so far within the current transaction into the file,
+	 * while keeping the transaction active for further changes
+	 * @see #commitTransaction()
+	 */
+	public void checkpointTransaction()
+	{
+		if (!transactionActive) {
+			throw new FrameworkException("No transaction is active on the workbook \"" +
+																fileName + ".xls\"!");
 		}
 		
-		return workbook;
+		if (transactionWorkbook != null) {
+			writeIntoFile(transactionWorkbook);
+		}
+	}
+	
+	/**
+	 * Function to discard all the changes made within the current transaction, leaving the file untouched
+	 * (has no effect if no transaction is active)
+	 * @see #beginTransaction()
+	 */
+	public void rollbackTransaction()
+	{
+		transactionActive = false;
+		transactionWorkbook = null;
+	}
+	
+	/**
+	 * Function to check whether a transaction is currently active
+	 * @return Boolean value indicating whether a transaction is currently active
+	 */
+	public boolean isTransactionActive()
+	{
+		return transactionActive;
 	}
 	
 	private void writeIntoFile(HSSFWorkbook workbook)
 	{
-		String absoluteFilePath = filePath + Util.getFileSeparator() +
-															fileName + ".xls";
+		String absoluteFilePath = getAbsoluteFilePath();
+		// Write into a temporary file first, so that the workbook is never left half-written
+		String temporaryFilePath = absoluteFilePath + ".tmp";
+		
+		// Evaluate the formulas before opening the file, so that an unsupported formula cannot leave it open
+		evaluateFormulas(workbook);
 		
 		FileOutputStream fileOutputStream;
 		try	{
-			fileOutputStream = new FileOutputStream(absoluteFilePath);
+			fileOutputStream = new FileOutputStream(temporaryFilePath);
 		} catch (FileNotFoundException e) {
 			e.printStackTrace();
 			throw new FrameworkException("The specified file \"" + absoluteFilePath + "\" does not exist!");
 		}
 		
+		boolean fileReplaced = false;
 		try {
 			workbook.write(fileOutputStream);
 			fileOutputStream.close();
+			replaceFile(temporaryFilePath, absoluteFilePath);
+			fileReplaced = true;
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while writing into the specified Excel workbook \"" + absoluteFilePath + "\"");
+		} finally {
+			if (!fileReplaced) {
+				closeQuietly(fileOutputStream);
+				new File(temporaryFilePath).delete();
+			}
+			ExcelWorkbookCache.getInstance().invalidate(absoluteFilePath);
+		}
+	}
+	
+	private void evaluateFormulas(HSSFWorkbook workbook)
+	{
+		if (reevaluateFormulasOnWrite) {
+			// Update the results of the formulas which depend on the cells written, within the file itself
+			try {
+				HSSFFormulaEvaluator.evaluateAllFormulaCells(workbook);
+				return;
+			} catch (RuntimeException e) {
+				// Some formula is not supported by POI; fall back to Excel updating the results instead
+				e.printStackTrace();
+			}
+		}
+		
+		// Leave it to Excel to update the results of the formulas when the file is opened
+		workbook.setForceFormulaRecalculation(true);
+	}
+	
+	private void closeQuietly(FileOutputStream fileOutputStream)
+	{
+		try {
+			fileOutputStream.close();
+		} catch (IOException e) {
+			// The stream is being discarded anyway
+		}
+	}
+	
+	private void replaceFile(String sourceFilePath, String targetFilePath) throws IOException
+	{
+		Path source = Paths.get(sourceFilePath);
+		Path target = Paths.get(targetFilePath);
+		try {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING,
+												StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
 		}
 	}
 	
@@ -138,24 +316,81 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			String currentValue;
+			for (int currentRowNum = startRowNum;
+					currentRowNum <= worksheet.getLastRowNum(); currentRowNum++) {
+				
+				HSSFRow row = worksheet.getRow(currentRowNum);
+				HSSFCell cell = row.getCell(columnNum);
+				currentValue = getCellValueAsString(cell, formulaEvaluator);
+				
+				if (currentValue.equals(key)) {
+					return currentRowNum;
+				}
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Function to search for the row whose leading columns match the specified keys, and return the corresponding row number.
+	 * The row is looked up through an index built over the worksheet, and shared across threads
+	 * as long as the underlying file remains unchanged
+	 * @param keys The values being searched for, in the order of the leading columns of the worksheet
+	 * (for example, the test case ID followed by the iteration number)
+	 * @return The first row number (excluding the header row) in which all the specified keys are found
+	 * (-1 if the keys are not found)
+	 */
+	public int getRowNum(String[] keys)
+	{
+		checkPreRequisites();
+		
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			
+			Integer rowNum = getRowIndex(workbook, worksheet, keys.length).get(Arrays.asList(keys));
+			return (rowNum == null)? -1 : rowNum;
+		}
+	}
+	
+	private Map<List<String>, Integer> getRowIndex(HSSFWorkbook workbook,
+												HSSFSheet worksheet, int nKeyColumns)
+	{
+		Map<List<String>, Integer> rowIndex = ExcelSheetIndex.getRowIndex(worksheet, nKeyColumns);
+		if (rowIndex != null) {
+			return rowIndex;
+		}
 		
-		String currentValue;
-		for (int currentRowNum = startRowNum;
+		FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+		rowIndex = new HashMap<List<String>, Integer>();
+		for (int currentRowNum = 1;	// Start at row 1, skipping the header row
 				currentRowNum <= worksheet.getLastRowNum(); currentRowNum++) {
 			
 			HSSFRow row = worksheet.getRow(currentRowNum);
-			HSSFCell cell = row.getCell(columnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
+			if (row == null) {
+				continue;
+			}
+			
+			String[] currentKeys = new String[nKeyColumns];
+			for (int currentColumnNum = 0; currentColumnNum < nKeyColumns; currentColumnNum++) {
+				HSSFCell cell = row.getCell(currentColumnNum);
+				currentKeys[currentColumnNum] = getCellValueAsString(cell, formulaEvaluator);
+			}
 			
-			if (currentValue.equals(key)) {
-				return currentRowNum;
+			List<String> currentKey = Arrays.asList(currentKeys);
+			if (!rowIndex.containsKey(currentKey)) {	// The first occurrence takes precedence
+				rowIndex.put(currentKey, currentRowNum);
 			}
 		}
 		
-		return -1;
+		ExcelSheetIndex.putRowIndex(worksheet, nKeyColumns, rowIndex);
+		return rowIndex;
 	}
 	
 	/*private String getCellValueAsString(HSSFCell cell, FormulaEvaluator formulaEvaluator)
@@ -196,18 +431,77 @@ public class ExcelDataAccess
 		}
 	}*/
 	
+	private FormulaEvaluator getFormulaEvaluator(HSSFWorkbook workbook)
+	{
+		if (ExcelWorkbookCache.getInstance().isEvaluated(workbook)) {
+			// The formulas within the cached workbooks are evaluated once, when the workbook is loaded
+			return null;
+		}
+		
+		return workbook.getCreationHelper().createFormulaEvaluator();
+	}
+	
+	private int getEvaluatedCellType(HSSFCell cell, FormulaEvaluator formulaEvaluator)
+	{
+		int cellType = cell.getCellType();
+		if (cellType == HSSFCell.CELL_TYPE_FORMULA) {
+			if (formulaEvaluator == null) {
+				cellType = cell.getCachedFormulaResultType();
+			} else {
+				// Evaluate the formula only once, caching the result within the cell
+				cellType = formulaEvaluator.evaluateFormulaCell(cell);
+			}
+		}
+		
+		if (cellType == HSSFCell.CELL_TYPE_ERROR) {
+			throw new FrameworkException("Error in formula within this cell! " +
+										"Error code: " + cell.getErrorCellValue());
+		}
+		
+		return cellType;
+	}
+	
 	private String getCellValueAsString(HSSFCell cell, FormulaEvaluator formulaEvaluator)
 	{
 		if (cell == null || cell.getCellType() == HSSFCell.CELL_TYPE_BLANK) {
 			return "";
-		} else {
-			if (formulaEvaluator.evaluate(cell).getCellType() == HSSFCell.CELL_TYPE_ERROR) {
-				throw new FrameworkException("Error in formula within this cell! " +
-											"Error code: " + cell.getErrorCellValue());
-			}
+		}
+		
+		switch(getEvaluatedCellType(cell, formulaEvaluator)) {
+		case HSSFCell.CELL_TYPE_NUMERIC:
+			HSSFCellStyle cellStyle = cell.getCellStyle();
+			return dataFormatters.get().formatRawCellContents(cell.getNumericCellValue(),
+									cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+			
+		case HSSFCell.CELL_TYPE_BOOLEAN:
+			return cell.getBooleanCellValue()? "TRUE" : "FALSE";
+			
+		case HSSFCell.CELL_TYPE_STRING:
+			return cell.getRichStringCellValue().getString();
+			
+		default:
+			return "";
+		}
+	}
+	
+	private Object getCellValue(HSSFCell cell, FormulaEvaluator formulaEvaluator)
+	{
+		if (cell == null || cell.getCellType() == HSSFCell.CELL_TYPE_BLANK) {
+			return "";
+		}
+		
+		switch(getEvaluatedCellType(cell, formulaEvaluator)) {
+		case HSSFCell.CELL_TYPE_NUMERIC:
+			return cell.getNumericCellValue();
 			
-			DataFormatter dataFormatter = new DataFormatter();
-			return dataFormatter.formatCellValue(formulaEvaluator.evaluateInCell(cell));
+		case HSSFCell.CELL_TYPE_BOOLEAN:
+			return cell.getBooleanCellValue();
+			
+		case HSSFCell.CELL_TYPE_STRING:
+			return cell.getRichStringCellValue().getString();
+			
+		default:
+			return "";
 		}
 	}
 	
@@ -231,9 +525,11 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		
-		return worksheet.getLastRowNum();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			
+			return worksheet.getLastRowNum();
+		}
 	}
 	
 	/**
@@ -248,27 +544,29 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
-		
 		int rowCount = 0;
-		boolean keyFound = false;
 		
-		String currentValue;
-		for (int currentRowNum = startRowNum;
-				currentRowNum <= worksheet.getLastRowNum(); currentRowNum++) {
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
 			
-			HSSFRow row = worksheet.getRow(currentRowNum);
-			HSSFCell cell = row.getCell(columnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
+			boolean keyFound = false;
 			
-			if (currentValue.equals(key)) {
-				rowCount++;
-				keyFound = true;
-			} else {
-				if (keyFound) {
-					break;	// Assumption: Keys always appear contiguously
+			String currentValue;
+			for (int currentRowNum = startRowNum;
+					currentRowNum <= worksheet.getLastRowNum(); currentRowNum++) {
+				
+				HSSFRow row = worksheet.getRow(currentRowNum);
+				HSSFCell cell = row.getCell(columnNum);
+				currentValue = getCellValueAsString(cell, formulaEvaluator);
+				
+				if (currentValue.equals(key)) {
+					rowCount++;
+					keyFound = true;
+				} else {
+					if (keyFound) {
+						break;	// Assumption: Keys always appear contiguously
+					}
 				}
 			}
 		}
@@ -298,26 +596,89 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
-		
-		HSSFRow row = worksheet.getRow(rowNum);
-		String currentValue;
-		for (int currentColumnNum = 0;
-				currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
 			
-			HSSFCell cell = row.getCell(currentColumnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
+			if (rowNum == 0) {	// The header row is looked up through the header index
+				Integer columnNum = getHeaderIndex(workbook, worksheet).get(key);
+				return (columnNum == null)? -1 : columnNum;
+			}
 			
-			if (currentValue.equals(key)) {
-				return currentColumnNum;
+			HSSFRow row = worksheet.getRow(rowNum);
+			String currentValue;
+			for (int currentColumnNum = 0;
+					currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
+				
+				HSSFCell cell = row.getCell(currentColumnNum);
+				currentValue = getCellValueAsString(cell, formulaEvaluator);
+				
+				if (currentValue.equals(key)) {
+					return currentColumnNum;
+				}
 			}
 		}
 		
 		return -1;
 	}
 	
+	/**
+	 * Function to get the column number corresponding to the specified column header.
+	 * The column number may be resolved once and then reused across calls to
+	 * {@link #getValue(int, int)} and {@link #setValue(int, int, String)}
+	 * @param columnHeader The column header
+	 * @return The column number corresponding to the specified column header
+	 */
+	public int getColumnNum(String columnHeader)
+	{
+		checkPreRequisites();
+		
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			
+			return getColumnNum(workbook, worksheet, columnHeader);
+		}
+	}
+	
+	private int getColumnNum(HSSFWorkbook workbook, HSSFSheet worksheet, String columnHeader)
+	{
+		Integer columnNum = getHeaderIndex(workbook, worksheet).get(columnHeader);
+		if (columnNum == null) {
+			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
+										"is not found in the sheet \"" + datasheetName + "\"!");
+		}
+		
+		return columnNum;
+	}
+	
+	private Map<String, Integer> getHeaderIndex(HSSFWorkbook workbook, HSSFSheet worksheet)
+	{
+		Map<String, Integer> headerIndex = ExcelSheetIndex.getHeaderIndex(worksheet);
+		if (headerIndex != null) {
+			return headerIndex;
+		}
+		
+		FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+		headerIndex = new HashMap<String, Integer>();
+		HSSFRow row = worksheet.getRow(0);	//0 because header is always in the first row
+		if (row != null) {
+			for (int currentColumnNum = 0;
+					currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
+				
+				HSSFCell cell = row.getCell(currentColumnNum);
+				String currentValue = getCellValueAsString(cell, formulaEvaluator);
+				
+				if (!headerIndex.containsKey(currentValue)) {	// The first occurrence takes precedence
+					headerIndex.put(currentValue, currentColumnNum);
+				}
+			}
+		}
+		
+		ExcelSheetIndex.putHeaderIndex(worksheet, headerIndex);
+		return headerIndex;
+	}
+	
 	/**
 	 * Function to get the value in the cell identified by the specified row and column numbers
 	 * @param rowNum The row number of the cell
@@ -329,13 +690,14 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
-		
-		HSSFRow row = worksheet.getRow(rowNum);
-		HSSFCell cell = row.getCell(columnNum);
-		return getCellValueAsString(cell, formulaEvaluator);
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			HSSFRow row = worksheet.getRow(rowNum);
+			HSSFCell cell = row.getCell(columnNum);
+			return getCellValueAsString(cell, formulaEvaluator);
+		}
 	}
 	
 	/**
@@ -349,55 +711,193 @@ public class ExcelDataAccess
 		checkPreRequisites();
 		
 		HSSFWorkbook workbook = openFileForReading();
-		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
-		
-		HSSFRow row = worksheet.getRow(0);	//0 because header is always in the first row
-		int columnNum = -1;
-		String currentValue;
-		for (int currentColumnNum = 0;
-				currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
 			
-			HSSFCell cell = row.getCell(currentColumnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
+			int columnNum = getColumnNum(workbook, worksheet, columnHeader);
 			
-			if (currentValue.equals(columnHeader)) {
-				columnNum = currentColumnNum;
-				break;
-			}
+			HSSFRow row = worksheet.getRow(rowNum);
+			HSSFCell cell = row.getCell(columnNum);
+			return getCellValueAsString(cell, formulaEvaluator);
 		}
+	}
+	
+	/**
+	 * Function to get the value in the cell identified by the specified row number and column header,
+	 * in its native type rather than as formatted for display
+	 * @param rowNum The row number of the cell
+	 * @param columnHeader The column header of the cell
+	 * @return The value present in the cell, as a {@link Double} (for numeric and date cells),
+	 * a {@link Boolean} or a {@link String} (blank cells are returned as empty strings)
+	 */
+	public Object getNativeValue(int rowNum, String columnHeader)
+	{
+		checkPreRequisites();
 		
-		if (columnNum == -1) {
-			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
-										"is not found in the sheet \"" + datasheetName + "\"!");
-		} else {
-			row = worksheet.getRow(rowNum);
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			int columnNum = getColumnNum(workbook, worksheet, columnHeader);
+			
+			HSSFRow row = worksheet.getRow(rowNum);
 			HSSFCell cell = row.getCell(columnNum);
-			return getCellValueAsString(cell, formulaEvaluator);
+			return getCellValue(cell, formulaEvaluator);
 		}
 	}
 	
-	private HSSFCellStyle applyCellStyle(HSSFWorkbook workbook,
-											ExcelCellFormatting cellFormatting)
+	/**
+	 * Function to get all the values in the specified row, keyed by their column headers
+	 * @param rowNum The row number
+	 * @return An unmodifiable map of the column headers to the corresponding values in the row
+	 */
+	public Map<String, String> getRowValues(int rowNum)
+	{
+		checkPreRequisites();
+		
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			Map<String, Integer> headerIndex = getHeaderIndex(workbook, worksheet);
+			Map<String, String> rowValues = new HashMap<String, String>();
+			
+			HSSFRow row = worksheet.getRow(rowNum);
+			for (Map.Entry<String, Integer> header : headerIndex.entrySet()) {
+				HSSFCell cell = (row == null)? null : row.getCell(header.getValue());
+				rowValues.put(header.getKey(), getCellValueAsString(cell, formulaEvaluator));
+			}
+			
+			return Collections.unmodifiableMap(rowValues);
+		}
+	}
+	
+	/**
+	 * Function to get all the values in the specified row, keyed by their column headers,
+	 * in their native types rather than as formatted for display
+	 * @param rowNum The row number
+	 * @return An unmodifiable map of the column headers to the corresponding values in the row
+	 * (as per {@link #getNativeValue(int, String)})
+	 */
+	public Map<String, Object> getNativeRowValues(int rowNum)
 	{
-		HSSFCellStyle cellStyle = workbook.createCellStyle();
-		if (cellFormatting.centred) {
-			cellStyle.setAlignment(HSSFCellStyle.ALIGN_CENTER);
+		checkPreRequisites();
+		
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			Map<String, Integer> headerIndex = getHeaderIndex(workbook, worksheet);
+			Map<String, Object> rowValues = new HashMap<String, Object>();
+			
+			HSSFRow row = worksheet.getRow(rowNum);
+			for (Map.Entry<String, Integer> header : headerIndex.entrySet()) {
+				HSSFCell cell = (row == null)? null : row.getCell(header.getValue());
+				rowValues.put(header.getKey(), getCellValue(cell, formulaEvaluator));
+			}
+			
+			return Collections.unmodifiableMap(rowValues);
 		}
-		cellStyle.setFillForegroundColor(cellFormatting.getBackColorIndex());
-		cellStyle.setFillPattern(HSSFCellStyle.SOLID_FOREGROUND);
+	}
+	
+	/**
+	 * Function to get all the rows (excluding the header row) within the worksheet, keyed by their column headers.
+	 * The workbook is opened and the header row is read only once for all the rows
+	 * @return The list of rows in order, each represented as an unmodifiable map of the column headers
+	 * to the corresponding values in the row
+	 */
+	public List<Map<String, String>> getAllRows()
+	{
+		checkPreRequisites();
 		
-		HSSFFont font = workbook.createFont();
-		font.setFontName(cellFormatting.getFontName());
-		font.setFontHeightInPoints(cellFormatting.getFontSize());
-		if (cellFormatting.bold) {
-			font.setBoldweight(HSSFFont.BOLDWEIGHT_BOLD);
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			Map<String, Integer> headerIndex = getHeaderIndex(workbook, worksheet);
+			List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+			
+			for (int currentRowNum = 1;	// Start at row 1, skipping the header row
+					currentRowNum <= worksheet.getLastRowNum(); currentRowNum++) {
+				
+				HSSFRow row = worksheet.getRow(currentRowNum);
+				Map<String, String> rowValues = new HashMap<String, String>();
+				for (Map.Entry<String, Integer> header : headerIndex.entrySet()) {
+					HSSFCell cell = (row == null)? null : row.getCell(header.getValue());
+					rowValues.put(header.getKey(), getCellValueAsString(cell, formulaEvaluator));
+				}
+				
+				rows.add(Collections.unmodifiableMap(rowValues));
+			}
+			
+			return rows;
 		}
-		font.setColor(cellFormatting.getForeColorIndex());
-		cellStyle.setFont(font);
+	}
+	
+	/**
+	 * Function to get the names of all the sheets within the Excel workbook
+	 * @return The list of sheet names, in the order in which they appear within the workbook
+	 */
+	public List<String> getSheetNames()
+	{
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			List<String> sheetNames = new ArrayList<String>();
+			for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+				sheetNames.add(workbook.getSheetName(sheetIndex));
+			}
+			
+			return sheetNames;
+		}
+	}
+	
+	/**
+	 * Function to get the values of all the cells within the worksheet, including the header row
+	 * @return The cell values indexed by row number and column number
+	 * (missing rows and cells are represented by empty strings, up to the widest row)
+	 */
+	String[][] getCellValues()
+	{
+		checkPreRequisites();
 		
-		return cellStyle;
+		HSSFWorkbook workbook = openFileForReading();
+		synchronized (workbook) {
+			HSSFSheet worksheet = getWorkSheet(workbook);
+			FormulaEvaluator formulaEvaluator = getFormulaEvaluator(workbook);
+			
+			int nRows = worksheet.getLastRowNum() + 1;
+			int nColumns = 0;
+			for (int currentRowNum = 0; currentRowNum < nRows; currentRowNum++) {
+				HSSFRow row = worksheet.getRow(currentRowNum);
+				if (row != null) {
+					nColumns = Math.max(nColumns, row.getLastCellNum());
+				}
+			}
+			
+			String[][] cellValues = new String[nRows][nColumns];
+			for (int currentRowNum = 0; currentRowNum < nRows; currentRowNum++) {
+				HSSFRow row = worksheet.getRow(currentRowNum);
+				for (int currentColumnNum = 0; currentColumnNum < nColumns; currentColumnNum++) {
+					HSSFCell cell = (row == null)? null : row.getCell(currentColumnNum);
+					cellValues[currentRowNum][currentColumnNum] =
+										getCellValueAsString(cell, formulaEvaluator);
+				}
+			}
+			
+			return cellValues;
+		}
+	}
+	
+	private HSSFCellStyle applyCellStyle(HSSFWorkbook workbook,
+											ExcelCellFormatting cellFormatting)
+	{
+		// Identical formats share a single style, rather than adding a style and a font per cell
+		return ExcelStylePool.getCellStyle(workbook, cellFormatting);
 	}
 	
 	/**
@@ -423,7 +923,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		HSSFRow row = worksheet.getRow(rowNum);
@@ -436,7 +936,13 @@ public class ExcelDataAccess
 			cell.setCellStyle(cellStyle);
 		}
 		
-		writeIntoFile(workbook);
+		if (rowNum == 0) {
+			ExcelSheetIndex.invalidateHeaderIndex(worksheet);
+		} else {
+			ExcelSheetIndex.invalidateRowIndexes(worksheet, columnNum);
+		}
+		
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -462,42 +968,28 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
 		
-		HSSFRow row = worksheet.getRow(0);	//0 because header is always in the first row
-		int columnNum = -1;
-		String currentValue;
-		for (int currentColumnNum = 0;
-				currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
-			
-			HSSFCell cell = row.getCell(currentColumnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
-			
-			if (currentValue.equals(columnHeader)) {
-				columnNum = currentColumnNum;
-				break;
-			}
+		int columnNum = getColumnNum(workbook, worksheet, columnHeader);
+		
+		HSSFRow row = worksheet.getRow(rowNum);
+		HSSFCell cell = row.createCell(columnNum);
+		cell.setCellType(HSSFCell.CELL_TYPE_STRING);
+		cell.setCellValue(value);
+		
+		if (cellFormatting != null) {
+			HSSFCellStyle cellStyle = applyCellStyle(workbook, cellFormatting);
+			cell.setCellStyle(cellStyle);
 		}
 		
-		if (columnNum == -1) {
-			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
-										"is not found in the sheet \"" + datasheetName + "\"!");
+		if (rowNum == 0) {
+			ExcelSheetIndex.invalidateHeaderIndex(worksheet);
 		} else {
-			row = worksheet.getRow(rowNum);
-			HSSFCell cell = row.createCell(columnNum);
-			cell.setCellType(HSSFCell.CELL_TYPE_STRING);
-			cell.setCellValue(value);
-			
-			if (cellFormatting != null) {
-				HSSFCellStyle cellStyle = applyCellStyle(workbook, cellFormatting);
-				cell.setCellStyle(cellStyle);
-			}
-			
-			writeIntoFile(workbook);
+			ExcelSheetIndex.invalidateRowIndexes(worksheet, columnNum);
 		}
+		
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -510,7 +1002,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		HSSFRow row = worksheet.getRow(rowNum);
@@ -522,15 +1014,13 @@ public class ExcelDataAccess
 		
 		setCellHyperlink(workbook, cell, linkAddress);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	private void setCellHyperlink(HSSFWorkbook workbook, HSSFCell cell, String linkAddress)
 	{
-		HSSFCellStyle cellStyle = cell.getCellStyle();
-		HSSFFont font = cellStyle.getFont(workbook);
-		font.setUnderline(HSSFFont.U_SINGLE);
-		cellStyle.setFont(font);
+		// The cell style may be shared with other cells, so switch to an underlined variant instead of modifying it
+		HSSFCellStyle cellStyle = ExcelStylePool.getUnderlinedCellStyle(workbook, cell.getCellStyle());
 		
 		CreationHelper creationHelper = workbook.getCreationHelper();
 		Hyperlink hyperlink = creationHelper.createHyperlink(Hyperlink.LINK_URL);
@@ -550,41 +1040,21 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
-		FormulaEvaluator formulaEvaluator =
-							workbook.getCreationHelper().createFormulaEvaluator();
 		
-		HSSFRow row = worksheet.getRow(0);	//0 because header is always in the first row
-		int columnNum = -1;
-		String currentValue;
-		for (int currentColumnNum = 0;
-				currentColumnNum < row.getLastCellNum(); currentColumnNum++) {
-			
-			HSSFCell cell = row.getCell(currentColumnNum);
-			currentValue = getCellValueAsString(cell, formulaEvaluator);
-			
-			if (currentValue.equals(columnHeader)) {
-				columnNum = currentColumnNum;
-				break;
-			}
-		}
+		int columnNum = getColumnNum(workbook, worksheet, columnHeader);
 		
-		if (columnNum == -1) {
-			throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
-										"is not found in the sheet \"" + datasheetName + "\"!");
-		} else {
-			row = worksheet.getRow(rowNum);
-			HSSFCell cell = row.getCell(columnNum);
-			if (cell == null) {
-				throw new FrameworkException("Specified cell is empty! " +
-											"Please set a value before including a hyperlink...");
-			}
-			
-			setCellHyperlink(workbook, cell, linkAddress);
-			
-			writeIntoFile(workbook);
+		HSSFRow row = worksheet.getRow(rowNum);
+		HSSFCell cell = row.getCell(columnNum);
+		if (cell == null) {
+			throw new FrameworkException("Specified cell is empty! " +
+										"Please set a value before including a hyperlink...");
 		}
+		
+		setCellHyperlink(workbook, cell, linkAddress);
+		
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -594,7 +1064,7 @@ public class ExcelDataAccess
 	{
 		HSSFWorkbook workbook = new HSSFWorkbook();
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -603,12 +1073,12 @@ public class ExcelDataAccess
 	 */
 	public void addSheet(String sheetName)
 	{
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		
 		HSSFSheet worksheet = workbook.createSheet(sheetName);
 		worksheet.createRow(0);	//include a blank row in the sheet created
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 		
 		this.datasheetName = sheetName;
 	}
@@ -621,13 +1091,14 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		int newRowNum = worksheet.getLastRowNum() + 1;
 		worksheet.createRow(newRowNum);
+		ExcelSheetIndex.invalidateRowIndexes(worksheet, -1);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 		
 		return newRowNum;
 	}
@@ -650,7 +1121,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		HSSFRow row = worksheet.getRow(0);	//0 because header is always in the first row
@@ -668,7 +1139,9 @@ public class ExcelDataAccess
 			cell.setCellStyle(cellStyle);
 		}
 		
-		writeIntoFile(workbook);
+		ExcelSheetIndex.invalidateHeaderIndex(worksheet);
+		
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -678,7 +1151,7 @@ public class ExcelDataAccess
 	 */
 	public void setCustomPaletteColor(short index, String hexColor)
 	{
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFPalette palette = workbook.getCustomPalette();
 		
 		if(index < 0x8 || index > 0x40) {
@@ -689,7 +1162,7 @@ public class ExcelDataAccess
 		palette.setColorAtIndex(index, (byte) color.getRed(),
 									(byte) color.getGreen(), (byte) color.getBlue());
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -704,14 +1177,14 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		CellRangeAddress cellRangeAddress = new CellRangeAddress(firstRow, lastRow,
 																	firstCol, lastCol);
 		worksheet.addMergedRegion(cellRangeAddress);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -724,12 +1197,12 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		worksheet.setRowSumsBelow(rowSumsBelow);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -741,12 +1214,12 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		worksheet.groupRow(firstRow, lastRow);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -759,7 +1232,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		if (firstCol < 0) {
@@ -775,7 +1248,7 @@ public class ExcelDataAccess
 			worksheet.autoSizeColumn(currentColumn);
 		}
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -788,7 +1261,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		CellRangeAddress cellRangeAddress = new CellRangeAddress(0, worksheet.getLastRowNum(),
@@ -796,7 +1269,7 @@ public class ExcelDataAccess
 		HSSFRegionUtil.setBorderBottom(HSSFCellStyle.BORDER_THIN, cellRangeAddress, worksheet, workbook);
 		HSSFRegionUtil.setBorderRight(HSSFCellStyle.BORDER_THIN, cellRangeAddress, worksheet, workbook);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 	
 	/**
@@ -811,7 +1284,7 @@ public class ExcelDataAccess
 	{
 		checkPreRequisites();
 		
-		HSSFWorkbook workbook = openFileForReading();
+		HSSFWorkbook workbook = openFileForWriting();
 		HSSFSheet worksheet = getWorkSheet(workbook);
 		
 		CellRangeAddress cellRangeAddress = new CellRangeAddress(firstRow, lastRow,
@@ -821,6 +1294,6 @@ public class ExcelDataAccess
 		HSSFRegionUtil.setBorderRight(HSSFCellStyle.BORDER_THIN, cellRangeAddress, worksheet, workbook);
 		HSSFRegionUtil.setBorderLeft(HSSFCellStyle.BORDER_THIN, cellRangeAddress, worksheet, workbook);
 		
-		writeIntoFile(workbook);
+		saveChanges(workbook);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Class which implements the {@link DatatableBackend} over the Excel (.xls) datatables,
+ * read through the {@link ExcelDataAccess} (or the compiled {@link DatatableSnapshot}s, if enabled)
+ * @author Cognizant
+ */
+public class ExcelDatatableBackend implements DatatableBackend
+{
+	private final String datatablePath, datatableName;
+
+	private boolean useSnapshots = false;
+	/**
+	 * Function to set whether the rows are to be read from the compiled {@link DatatableSnapshot}
+	 * of the datatable, rather than from the datatable itself
+	 * @param useSnapshots Boolean value indicating whether the datatable snapshots are to be used
+	 */
+	public void setUseSnapshots(boolean useSnapshots)
+	{
+		this.useSnapshots = useSnapshots;
+	}
+
+	private boolean writeBehind = false;
+	/**
+	 * Function to set whether the output data is to be written into the datatable in the background
+	 * @param writeBehind Boolean value indicating whether the output data is to be written in the background
+	 * @see DatatableWriter
+	 */
+	public void setWriteBehind(boolean writeBehind)
+	{
+		this.writeBehind = writeBehind;
+	}
+
+	private boolean reevaluateFormulasOnWrite = false;
+	/**
+	 * Function to set whether the formulas within the datatable are to be re-evaluated whenever output data is written
+	 * @param reevaluateFormulasOnWrite Boolean value indicating whether the formulas are to be re-evaluated on write
+	 * @see ExcelDataAccess#setReevaluateFormulasOnWrite(boolean)
+	 */
+	public void setReevaluateFormulasOnWrite(boolean reevaluateFormulasOnWrite)
+	{
+		this.reevaluateFormulasOnWrite = reevaluateFormulasOnWrite;
+	}
+
+
+	/**
+	 * Constructor to initialize the {@link ExcelDatatableBackend} object
+	 * @param datatablePath The path where the datatable is stored
+	 * @param datatableName The name of the datatable file (without the extension)
+	 */
+	public ExcelDatatableBackend(String datatablePath, String datatableName)
+	{
+		this.datatablePath = datatablePath;
+		this.datatableName = datatableName;
+	}
+
+	@Override
+	public int getRowCount(String datasheetName, String testcase)
+	{
+		if (useSnapshots) {
+			DatatableSnapshot snapshot =
+					DatatableSnapshotCache.getInstance().getSnapshot(datatablePath, datatableName);
+			return snapshot.getRowCount(datasheetName, testcase, 0);
+		}
+
+		// Count within the cached workbook if it is already loaded (and current)
+		if (ExcelWorkbookCache.getInstance().isCached(getSheetFile(datasheetName).getPath())) {
+			ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+			testDataAccess.setDatasheetName(datasheetName);
+			return testDataAccess.getRowCount(testcase, 0);
+		}
+
+		// Otherwise only the test case column is required, so avoid loading the whole workbook
+		ExcelEventReader testDataReader = new ExcelEventReader(datatablePath, datatableName);
+		testDataReader.setDatasheetName(datasheetName);
+		return testDataReader.getRowCount(testcase, 0);
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getRows(String testcase, int iteration)
+	{
+		String[] keys = {testcase, Integer.toString(iteration)};
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		if (useSnapshots) {
+			DatatableSnapshot snapshot =
+					DatatableSnapshotCache.getInstance().getSnapshot(datatablePath, datatableName);
+			for (String datasheetName : snapshot.getSheetNames()) {
+				int rowNum = snapshot.getRowNum(datasheetName, keys);
+				if (rowNum != -1) {
+					rows.put(datasheetName, applyPendingValues(datasheetName, rowNum,
+													snapshot.getRowValues(datasheetName, rowNum)));
+				}
+			}
+
+			return Collections.unmodifiableMap(rows);
+		}
+
+		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		for (String datasheetName : testDataAccess.getSheetNames()) {
+			testDataAccess.setDatasheetName(datasheetName);
+
+			int rowNum = testDataAccess.getRowNum(keys);
+			if (rowNum != -1) {
+				rows.put(datasheetName, applyPendingValues(datasheetName, rowNum,
+																testDataAccess.getRowValues(rowNum)));
+			}
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	// The values written in the background but not yet present in the datatable file take precedence
+	private Map<String, String> applyPendingValues(String datasheetName, int rowNum,
+															Map<String, String> rowValues)
+	{
+		Map<String, String> pendingRowValues = null;
+		for (String fieldName : rowValues.keySet()) {
+			String pendingValue = DatatableWriter.getInstance().getPendingValue(datatablePath, datatableName,
+																		datasheetName, rowNum, fieldName);
+			if (pendingValue != null) {
+				if (pendingRowValues == null) {
+					pendingRowValues = new HashMap<String, String>(rowValues);
+				}
+				pendingRowValues.put(fieldName, pendingValue);
+			}
+		}
+
+		if (pendingRowValues == null) {
+			return rowValues;
+		}
+
+		return Collections.unmodifiableMap(pendingRowValues);
+	}
+
+	@Override
+	public String getData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		testDataAccess.setDatasheetName(datasheetName);
+
+		int rowNum = getRowNum(testDataAccess, datasheetName, testcase, iteration);
+
+		String dataValue = DatatableWriter.getInstance().getPendingValue(datatablePath, datatableName,
+																datasheetName, rowNum, fieldName);
+		if (dataValue == null) {
+			dataValue = testDataAccess.getValue(rowNum, fieldName);
+		}
+
+		return dataValue;
+	}
+
+	@Override
+	public Object getNativeData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		testDataAccess.setDatasheetName(datasheetName);
+
+		int rowNum = getRowNum(testDataAccess, datasheetName, testcase, iteration);
+
+		Object dataValue = DatatableWriter.getInstance().getPendingValue(datatablePath, datatableName,
+																datasheetName, rowNum, fieldName);
+		if (dataValue == null) {
+			dataValue = testDataAccess.getNativeValue(rowNum, fieldName);
+		}
+
+		return dataValue;
+	}
+
+	@Override
+	public Map<String, Object> getNativeRow(String datasheetName, String testcase, int iteration)
+	{
+		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		testDataAccess.setDatasheetName(datasheetName);
+
+		int rowNum = getRowNum(testDataAccess, datasheetName, testcase, iteration);
+
+		Map<String, Object> rowValues = new HashMap<String, Object>(testDataAccess.getNativeRowValues(rowNum));
+		for (Map.Entry<String, Object> rowValue : rowValues.entrySet()) {
+			String pendingValue = DatatableWriter.getInstance().getPendingValue(datatablePath, datatableName,
+																datasheetName, rowNum, rowValue.getKey());
+			if (pendingValue != null) {
+				rowValue.setValue(pendingValue);
+			}
+		}
+
+		return Collections.unmodifiableMap(rowValues);
+	}
+
+	@Override
+	public void putData(String datasheetName, String testcase, int iteration,
+											String fieldName, String dataValue)
+	{
+		ExcelDataAccess testDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		testDataAccess.setDatasheetName(datasheetName);
+		testDataAccess.setReevaluateFormulasOnWrite(reevaluateFormulasOnWrite);
+
+		if (writeBehind) {
+			// Resolve the row and the column right away, so that any error is reported in context
+			int rowNum = getRowNum(testDataAccess, datasheetName, testcase, iteration);
+			testDataAccess.getColumnNum(fieldName);
+
+			DatatableWriter.getInstance().enqueue(datatablePath, datatableName,
+											datasheetName, rowNum, fieldName, dataValue,
+											reevaluateFormulasOnWrite);
+			return;
+		}
+
+		synchronized (DatatableWriter.getInstance().getFileLock(datatablePath, datatableName)) {
+			// Perform the lookup and the update within a single transaction,
+			// so that the workbook is parsed and written only once
+			testDataAccess.beginTransaction();
+			try {
+				int rowNum = getRowNum(testDataAccess, datasheetName, testcase, iteration);
+
+				testDataAccess.setValue(rowNum, fieldName, dataValue);
+				testDataAccess.commitTransaction();
+			} catch (RuntimeException e) {
+				testDataAccess.rollbackTransaction();
+				throw e;
+			}
+		}
+	}
+
+	private int getRowNum(ExcelDataAccess dataAccess, String datasheetName,
+												String testcase, int iteration)
+	{
+		String[] keys = {testcase, Integer.toString(iteration)};
+		int rowNum = dataAccess.getRowNum(keys);
+		if (rowNum != -1) {
+			return rowNum;
+		}
+
+		// Fall back to searching column by column, so as to report exactly which key is not found
+		rowNum = dataAccess.getRowNum(testcase, 0, 1);	// Start at row 1, skipping the header row
+		if (rowNum == -1) {
+			throw new FrameworkException("The test case \"" + testcase + "\"" +
+										"is not found in the test data sheet \"" + datasheetName + "\"!");
+		}
+		rowNum = dataAccess.getRowNum(Integer.toString(iteration), 1, rowNum);
+		if (rowNum == -1) {
+			throw new FrameworkException("The iteration number \"" + iteration + "\"" +
+										"of the test case \"" + testcase + "\"" +
+										"is not found in the test data sheet \"" + datasheetName + "\"!");
+		}
+
+		return rowNum;
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getReferenceRows(String datasheetName)
+	{
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		if (useSnapshots) {
+			DatatableSnapshot snapshot =
+					DatatableSnapshotCache.getInstance().getSnapshot(datatablePath, datatableName);
+
+			// The reference IDs are present in the first column
+			String referenceIdHeader = snapshot.getValue(datasheetName, 0, 0);
+
+			int lastRowNum = snapshot.getLastRowNum(datasheetName);
+			for (int rowNum = 1; rowNum <= lastRowNum; rowNum++) {	// Start at row 1, skipping the header row
+				Map<String, String> rowValues = snapshot.getRowValues(datasheetName, rowNum);
+				String referenceId = rowValues.get(referenceIdHeader);
+
+				if (!rows.containsKey(referenceId)) {	// The first occurrence takes precedence
+					rows.put(referenceId, rowValues);
+				}
+			}
+
+			return Collections.unmodifiableMap(rows);
+		}
+
+		ExcelDataAccess referenceDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		referenceDataAccess.setDatasheetName(datasheetName);
+
+		// The reference IDs are present in the first column
+		String referenceIdHeader = referenceDataAccess.getValue(0, 0);
+
+		for (Map<String, String> rowValues : referenceDataAccess.getAllRows()) {
+			String referenceId = rowValues.get(referenceIdHeader);
+
+			if (!rows.containsKey(referenceId)) {	// The first occurrence takes precedence
+				rows.put(referenceId, rowValues);
+			}
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	@Override
+	public File getSheetFile(String datasheetName)
+	{
+		// All the sheets are stored within the same workbook
+		return new File(datatablePath + Util.getFileSeparator() + datatableName + ".xls");
+	}
+}
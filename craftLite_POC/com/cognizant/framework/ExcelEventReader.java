@@ -0,0 +1,480 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.CellValueRecordInterface;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.poifs.filesystem.NPOIFSFileSystem;
+
+
+/**
+ * Class to encapsulate a read-only access to an Excel workbook, built on the HSSF event model.
+ * Unlike the {@link ExcelDataAccess}, the workbook is never loaded into memory as a whole:
+ * only the specified worksheet is parsed, only the required columns are retained,
+ * and the parsing stops as soon as the result is known.
+ * Formula cells are read using the results cached within the file, rather than being evaluated.
+ * @author Cognizant
+ */
+public class ExcelEventReader
+{
+	private final String filePath, fileName;
+
+	private String datasheetName;
+	/**
+	 * Function to get the Excel sheet name
+	 * @return The Excel sheet name
+	 */
+	public String getDatasheetName()
+	{
+		return datasheetName;
+	}
+	/**
+	 * Function to set the Excel sheet name
+	 * @param datasheetName The Excel sheet name
+	 */
+	public void setDatasheetName(String datasheetName)
+	{
+		this.datasheetName = datasheetName;
+	}
+
+
+	/**
+	 * Constructor to initialize the Excel event reader
+	 * @param filePath The absolute path where the Excel file is stored
+	 * @param fileName The name of the Excel file (without the extension). Note that .xlsx files are not supported
+	 */
+	public ExcelEventReader(String filePath, String fileName)
+	{
+		this.filePath = filePath;
+		this.fileName = fileName;
+	}
+
+	private void checkPreRequisites()
+	{
+		if(datasheetName == null) {
+			throw new FrameworkException("ExcelEventReader.datasheetName is not set!");
+		}
+	}
+
+	private void readSheet(Set<Integer> columnNums, RowHandler rowHandler)
+	{
+		checkPreRequisites();
+
+		File file = new File(filePath + Util.getFileSeparator() + fileName + ".xls");
+		SheetListener sheetListener = new SheetListener(columnNums, rowHandler);
+		HSSFRequest request = new HSSFRequest();
+		request.addListenerForAllRecords(sheetListener);
+
+		NPOIFSFileSystem fileSystem = null;
+		try {
+			fileSystem = new NPOIFSFileSystem(file, true);
+			new HSSFEventFactory().abortableProcessWorkbookEvents(request, fileSystem.getRoot());
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the Excel workbook \"" + fileName + ".xls\"");
+		} catch (HSSFUserException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the Excel workbook \"" + fileName + ".xls\"");
+		} finally {
+			if (fileSystem != null) {
+				try {
+					fileSystem.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		if (!sheetListener.isSheetFound()) {
+			throw new FrameworkException("The specified sheet \"" + datasheetName + "\"" +
+										"does not exist within the workbook \"" + fileName + ".xls\"");
+		}
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding row number
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @param startRowNum The row number from which the search should start
+	 * @return The row number in which the specified key is found (-1 if the key is not found)
+	 */
+	public int getRowNum(final String key, final int columnNum, final int startRowNum)
+	{
+		final int[] foundRowNum = {-1};
+
+		readSheet(Collections.singleton(columnNum), new RowHandler()
+		{
+			@Override
+			public boolean processRow(int rowNum, Map<Integer, String> cellValues)
+			{
+				if (rowNum >= startRowNum && key.equals(getCellValue(cellValues, columnNum))) {
+					foundRowNum[0] = rowNum;
+					return false;
+				}
+
+				return true;
+			}
+		});
+
+		return foundRowNum[0];
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding row number
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @return The row number in which the specified key is found (-1 if the key is not found)
+	 */
+	public int getRowNum(String key, int columnNum)
+	{
+		return getRowNum(key, columnNum, 0);
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding occurence count
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @param startRowNum The row number from which the search should start
+	 * @return The occurence count of the specified key
+	 */
+	public int getRowCount(final String key, final int columnNum, final int startRowNum)
+	{
+		final int[] rowCount = {0};
+
+		readSheet(Collections.singleton(columnNum), new RowHandler()
+		{
+			@Override
+			public boolean processRow(int rowNum, Map<Integer, String> cellValues)
+			{
+				if (rowNum < startRowNum) {
+					return true;
+				}
+
+				if (key.equals(getCellValue(cellValues, columnNum))) {
+					rowCount[0]++;
+					return true;
+				}
+
+				return rowCount[0] == 0;	// Assumption: Keys always appear contiguously
+			}
+		});
+
+		return rowCount[0];
+	}
+
+	/**
+	 * Function to search for a specified key within a column, and return the corresponding occurence count
+	 * @param key The value being searched for
+	 * @param columnNum The column number in which the key should be searched
+	 * @return The occurence count of the specified key
+	 */
+	public int getRowCount(String key, int columnNum)
+	{
+		return getRowCount(key, columnNum, 0);
+	}
+
+	/**
+	 * Function to read the values of the specified columns from all the rows (excluding the header row) of the worksheet
+	 * @param columnHeaders The headers of the columns to be read (null to read all the columns)
+	 * @return The list of rows, each represented as an unmodifiable map of the column headers to the corresponding values
+	 */
+	public List<Map<String, String>> readRows(final String[] columnHeaders)
+	{
+		final List<Map<String, String>> rows = new ArrayList<Map<String, String>>();
+		final Map<String, Integer> headerIndex = new LinkedHashMap<String, Integer>();
+
+		// The column numbers are known only once the header row is read, so all the columns are read until then
+		final Set<Integer> columnNums = new HashSet<Integer>();
+
+		readSheet(columnNums, new RowHandler()
+		{
+			@Override
+			public boolean processRow(int rowNum, Map<Integer, String> cellValues)
+			{
+				if (rowNum == 0) {
+					buildHeaderIndex(cellValues, columnHeaders, headerIndex);
+					columnNums.addAll(headerIndex.values());
+					return true;
+				}
+
+				Map<String, String> rowValues = new HashMap<String, String>();
+				for (Map.Entry<String, Integer> header : headerIndex.entrySet()) {
+					rowValues.put(header.getKey(), getCellValue(cellValues, header.getValue()));
+				}
+				rows.add(Collections.unmodifiableMap(rowValues));
+
+				return true;
+			}
+		});
+
+		return rows;
+	}
+
+	/**
+	 * Function to read all the rows (excluding the header row) of the worksheet
+	 * @return The list of rows, each represented as an unmodifiable map of the column headers to the corresponding values
+	 */
+	public List<Map<String, String>> readRows()
+	{
+		return readRows(null);
+	}
+
+	private void buildHeaderIndex(Map<Integer, String> headerValues, String[] columnHeaders,
+													Map<String, Integer> headerIndex)
+	{
+		// Visit the headers in the order of their columns
+		for (Map.Entry<Integer, String> headerValue :
+						new TreeMap<Integer, String>(headerValues).entrySet()) {
+			if (headerValue.getValue().equals("")) {
+				continue;	// Columns without a header cannot be addressed
+			}
+			if (!headerIndex.containsKey(headerValue.getValue())) {	// The first occurrence takes precedence
+				headerIndex.put(headerValue.getValue(), headerValue.getKey());
+			}
+		}
+
+		if (columnHeaders != null) {
+			headerIndex.keySet().retainAll(Arrays.asList(columnHeaders));
+
+			for (String columnHeader : columnHeaders) {
+				if (!headerIndex.containsKey(columnHeader)) {
+					throw new FrameworkException("The specified column header \"" + columnHeader + "\"" +
+												"is not found in the sheet \"" + datasheetName + "\"!");
+				}
+			}
+		}
+	}
+
+	private static String getCellValue(Map<Integer, String> cellValues, int columnNum)
+	{
+		String cellValue = cellValues.get(columnNum);
+		return (cellValue == null)? "" : cellValue;
+	}
+
+
+	/**
+	 * Interface to process the rows of the worksheet as they are read
+	 */
+	private interface RowHandler
+	{
+		/**
+		 * Function to process a row of the worksheet
+		 * @param rowNum The row number
+		 * @param cellValues The values of the required columns present in the row, keyed by their column numbers
+		 * @return Boolean value indicating whether the reading should continue
+		 */
+		public boolean processRow(int rowNum, Map<Integer, String> cellValues);
+	}
+
+
+	/**
+	 * Listener which tracks the records of the specified worksheet, and passes on its rows to the {@link RowHandler}.
+	 * The cell records within a worksheet are stored in the order of their rows,
+	 * so a row is complete as soon as a cell of the next row (or the end of the worksheet) is encountered
+	 */
+	private class SheetListener extends AbortableHSSFListener
+	{
+		private static final short CONTINUE = 0, ABORT = 1;
+
+		private final Set<Integer> columnNums;
+		private final RowHandler rowHandler;
+		private final FormatTrackingHSSFListener formatListener;
+
+		private final List<BoundSheetRecord> boundSheetRecords = new ArrayList<BoundSheetRecord>();
+		private BoundSheetRecord[] orderedBoundSheetRecords;
+		private SSTRecord sstRecord;
+
+		private int substreamDepth = 0, sheetIndex = -1;
+		private boolean inTargetSheet = false, sheetFound = false;
+
+		private int currentRowNum = -1;
+		private Map<Integer, String> currentCellValues = new HashMap<Integer, String>();
+		private int pendingStringColumnNum = -1;
+
+		private SheetListener(Set<Integer> columnNums, RowHandler rowHandler)
+		{
+			this.columnNums = columnNums;
+			this.rowHandler = rowHandler;
+			this.formatListener = new FormatTrackingHSSFListener(new HSSFListener()
+			{
+				@Override
+				public void processRecord(Record record)
+				{
+					// Only the number formats are tracked; the records are processed by the enclosing listener
+				}
+			});
+		}
+
+		private boolean isSheetFound()
+		{
+			return sheetFound;
+		}
+
+		@Override
+		public short abortableProcessRecord(Record record) throws HSSFUserException
+		{
+			formatListener.processRecordInternally(record);
+
+			switch (record.getSid()) {
+			case BoundSheetRecord.sid:
+				boundSheetRecords.add((BoundSheetRecord) record);
+				return CONTINUE;
+
+			case SSTRecord.sid:
+				sstRecord = (SSTRecord) record;
+				return CONTINUE;
+
+			case BOFRecord.sid:
+				return processBOFRecord((BOFRecord) record);
+
+			case EOFRecord.sid:
+				substreamDepth--;
+				if (substreamDepth == 0 && inTargetSheet) {
+					completeCurrentRow();
+					return ABORT;
+				}
+				return CONTINUE;
+
+			case StringRecord.sid:
+				if (inTargetSheet && pendingStringColumnNum >= 0) {
+					currentCellValues.put(pendingStringColumnNum, ((StringRecord) record).getString());
+					pendingStringColumnNum = -1;
+				}
+				return CONTINUE;
+
+			default:
+				if (inTargetSheet && substreamDepth == 1 &&
+									record instanceof CellValueRecordInterface) {
+					return processCellRecord((CellValueRecordInterface) record);
+				}
+				return CONTINUE;
+			}
+		}
+
+		private short processBOFRecord(BOFRecord bofRecord)
+		{
+			substreamDepth++;
+
+			// Only the top level substreams correspond to the sheets (charts may be embedded within a worksheet)
+			if (substreamDepth == 1 && bofRecord.getType() != BOFRecord.TYPE_WORKBOOK) {
+				if (orderedBoundSheetRecords == null) {
+					orderedBoundSheetRecords = BoundSheetRecord.orderByBofPosition(boundSheetRecords);
+				}
+
+				sheetIndex++;
+				inTargetSheet = sheetIndex < orderedBoundSheetRecords.length &&
+						orderedBoundSheetRecords[sheetIndex].getSheetname().equals(datasheetName);
+				sheetFound |= inTargetSheet;
+			}
+
+			return CONTINUE;
+		}
+
+		private short processCellRecord(CellValueRecordInterface cellRecord)
+		{
+			if (cellRecord.getRow() != currentRowNum) {
+				if (!completeCurrentRow()) {
+					return ABORT;
+				}
+				currentRowNum = cellRecord.getRow();
+			}
+
+			int columnNum = cellRecord.getColumn();
+			if (columnNums.isEmpty() || columnNums.contains(columnNum)) {
+				String cellValue = getCellValueAsString(cellRecord);
+				if (cellValue != null) {
+					currentCellValues.put(columnNum, cellValue);
+				}
+			}
+
+			return CONTINUE;
+		}
+
+		private String getCellValueAsString(CellValueRecordInterface cellRecord)
+		{
+			if (cellRecord instanceof LabelSSTRecord) {
+				return sstRecord.getString(((LabelSSTRecord) cellRecord).getSSTIndex()).getString();
+			} else if (cellRecord instanceof LabelRecord) {
+				return ((LabelRecord) cellRecord).getValue();
+			} else if (cellRecord instanceof NumberRecord) {
+				return formatListener.formatNumberDateCell(cellRecord);
+			} else if (cellRecord instanceof BoolErrRecord) {
+				BoolErrRecord boolErrRecord = (BoolErrRecord) cellRecord;
+				if (boolErrRecord.isError()) {
+					throw new FrameworkException("Error in formula within this cell! " +
+												"Error code: " + boolErrRecord.getErrorValue());
+				}
+				return Boolean.toString(boolErrRecord.getBooleanValue()).toUpperCase();
+			} else if (cellRecord instanceof FormulaRecord) {
+				return getCachedFormulaResult((FormulaRecord) cellRecord);
+			} else {
+				return "";	// Blank cells
+			}
+		}
+
+		private String getCachedFormulaResult(FormulaRecord formulaRecord)
+		{
+			switch (formulaRecord.getCachedResultType()) {
+			case HSSFCell.CELL_TYPE_STRING:
+				// The string value is present in the StringRecord which follows
+				pendingStringColumnNum = formulaRecord.getColumn();
+				return null;
+
+			case HSSFCell.CELL_TYPE_BOOLEAN:
+				return Boolean.toString(formulaRecord.getCachedBooleanValue()).toUpperCase();
+
+			case HSSFCell.CELL_TYPE_ERROR:
+				throw new FrameworkException("Error in formula within this cell! " +
+											"Error code: " + formulaRecord.getCachedErrorValue());
+
+			case HSSFCell.CELL_TYPE_NUMERIC:
+				return formatListener.formatNumberDateCell(formulaRecord);
+
+			default:
+				return null;
+			}
+		}
+
+		private boolean completeCurrentRow()
+		{
+			if (currentRowNum < 0) {
+				return true;
+			}
+
+			boolean continueReading = rowHandler.processRow(currentRowNum, currentCellValues);
+			currentRowNum = -1;
+			currentCellValues = new HashMap<Integer, String>();
+			pendingStringColumnNum = -1;
+
+			return continueReading;
+		}
+	}
+}
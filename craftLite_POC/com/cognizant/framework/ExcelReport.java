@@ -1,5 +1,7 @@
 package com.cognizant.framework;
 
+import java.util.Date;
+
 
 /**
  * Class to encapsulate the Excel report generation functions of the framework
@@ -15,6 +17,7 @@ public class ExcelReport implements ReportType
 	
 	private int currentSectionRowNum = 0;
 	private int currentSubSectionRowNum = 0;
+	private int nBufferedTestLogUpdates = 0;
 	
 	
 	/**
@@ -44,13 +47,54 @@ public class ExcelReport implements ReportType
 	@Override
 	public void initializeTestLog()
 	{
-		testLogAccess.createWorkbook();
-		testLogAccess.addSheet("Cover_Page");
-		testLogAccess.addSheet("Test_Log");
-		
-		initializeTestLogColorPalette();
-		
-		testLogAccess.setRowSumsBelow(false);
+		testLogAccess.beginTransaction();
+		try {
+			testLogAccess.createWorkbook();
+			testLogAccess.addSheet("Cover_Page");
+			testLogAccess.addSheet("Test_Log");
+			
+			initializeTestLogColorPalette();
+			
+			testLogAccess.setRowSumsBelow(false);
+			
+			if (!reportSettings.bufferExcelTestLog) {
+				testLogAccess.commitTransaction();
+			}
+			// Otherwise, the transaction remains open until the footer is added
+		} catch (RuntimeException e) {
+			testLogAccess.rollbackTransaction();
+			throw e;
+		}
+	}
+	
+	private void beginTestLogUpdate()
+	{
+		if (!reportSettings.bufferExcelTestLog) {
+			testLogAccess.beginTransaction();
+		}
+	}
+	
+	private void commitTestLogUpdate()
+	{
+		if (reportSettings.bufferExcelTestLog) {
+			nBufferedTestLogUpdates++;
+			
+			int checkpointInterval = reportSettings.getExcelTestLogCheckpointInterval();
+			if (checkpointInterval > 0 && nBufferedTestLogUpdates % checkpointInterval == 0) {
+				// Write out the test log so far, so that a crash still leaves a readable report
+				testLogAccess.checkpointTransaction();
+			}
+		} else {
+			testLogAccess.commitTransaction();
+		}
+	}
+	
+	private void rollbackTestLogUpdate()
+	{
+		if (!reportSettings.bufferExcelTestLog) {
+			testLogAccess.rollbackTransaction();
+		}
+		// A buffered test log retains the partial update, so as not to lose the entire log
 	}
 	
 	private void initializeTestLogColorPalette()
@@ -71,115 +115,155 @@ public class ExcelReport implements ReportType
 	@Override
 	public void addTestLogHeading(String heading)
 	{
-		testLogAccess.setDatasheetName("Cover_Page");
-		int rowNum = testLogAccess.getLastRowNum();
-		if (rowNum != 0) {
-			rowNum = testLogAccess.addRow();
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Cover_Page");
+			int rowNum = testLogAccess.getLastRowNum();
+			if (rowNum != 0) {
+				rowNum = testLogAccess.addRow();
+			}
+			
+			cellFormatting.setFontName("Copperplate Gothic Bold");
+			cellFormatting.setFontSize((short) 12);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			testLogAccess.setValue(rowNum, 0, heading, cellFormatting);
+			testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
 		}
-		
-		cellFormatting.setFontName("Copperplate Gothic Bold");
-		cellFormatting.setFontSize((short) 12);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		testLogAccess.setValue(rowNum, 0, heading, cellFormatting);
-		testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
 	}
 	
 	@Override
 	public void addTestLogSubHeading(String subHeading1, String subHeading2,
 										String subHeading3, String subHeading4)
 	{
-		testLogAccess.setDatasheetName("Cover_Page");
-		int rowNum = testLogAccess.addRow();
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0x9);
-		cellFormatting.setForeColorIndex((short) 0x8);
-		
-		testLogAccess.setValue(rowNum, 0, subHeading1, cellFormatting);
-		testLogAccess.setValue(rowNum, 1, subHeading2, cellFormatting);
-		testLogAccess.setValue(rowNum, 2, "", cellFormatting);
-		testLogAccess.setValue(rowNum, 3, subHeading3, cellFormatting);
-		testLogAccess.setValue(rowNum, 4, subHeading4, cellFormatting);
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Cover_Page");
+			int rowNum = testLogAccess.addRow();
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0x9);
+			cellFormatting.setForeColorIndex((short) 0x8);
+			
+			testLogAccess.setValue(rowNum, 0, subHeading1, cellFormatting);
+			testLogAccess.setValue(rowNum, 1, subHeading2, cellFormatting);
+			testLogAccess.setValue(rowNum, 2, "", cellFormatting);
+			testLogAccess.setValue(rowNum, 3, subHeading3, cellFormatting);
+			testLogAccess.setValue(rowNum, 4, subHeading4, cellFormatting);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
+		}
 	}
 	
 	@Override
 	public void addTestLogTableHeadings()
 	{
-		testLogAccess.setDatasheetName("Test_Log");
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		testLogAccess.addColumn("Step_No", cellFormatting);
-		testLogAccess.addColumn("Step_Name", cellFormatting);
-		testLogAccess.addColumn("Description", cellFormatting);
-		testLogAccess.addColumn("Status", cellFormatting);
-		testLogAccess.addColumn("Step_Time", cellFormatting);
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Test_Log");
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			testLogAccess.addColumn("Step_No", cellFormatting);
+			testLogAccess.addColumn("Step_Name", cellFormatting);
+			testLogAccess.addColumn("Description", cellFormatting);
+			testLogAccess.addColumn("Status", cellFormatting);
+			testLogAccess.addColumn("Step_Time", cellFormatting);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
+		}
 	}
 	
 	@Override
 	public void addTestLogSection(String section)
 	{
-		testLogAccess.setDatasheetName("Test_Log");
-		int rowNum = testLogAccess.addRow();
-		
-		if (currentSubSectionRowNum != 0) {
-			// Group (outline) previous sub-section rows
-			testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);
-		}
-		
-		if (currentSectionRowNum != 0) {
-			// Group (outline) the previous section rows
-			testLogAccess.groupRows(currentSectionRowNum, rowNum - 1);
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Test_Log");
+			int rowNum = testLogAccess.addRow();
+			
+			if (currentSubSectionRowNum != 0) {
+				// Group (outline) previous sub-section rows
+				testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);
+			}
+			
+			if (currentSectionRowNum != 0) {
+				// Group (outline) the previous section rows
+				testLogAccess.groupRows(currentSectionRowNum, rowNum - 1);
+			}
+			
+			currentSectionRowNum = rowNum + 1;
+			currentSubSectionRowNum = 0;
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0xA);
+			cellFormatting.setForeColorIndex((short) 0xB);
+			
+			testLogAccess.setValue(rowNum, 0, section, cellFormatting);
+			testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
 		}
-		
-		currentSectionRowNum = rowNum + 1;
-		currentSubSectionRowNum = 0;
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0xA);
-		cellFormatting.setForeColorIndex((short) 0xB);
-		
-		testLogAccess.setValue(rowNum, 0, section, cellFormatting);
-		testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
 	}
 	
 	@Override
 	public void addTestLogSubSection(String subSection)
 	{
-		testLogAccess.setDatasheetName("Test_Log");
-		int rowNum = testLogAccess.addRow();
-		
-		if (currentSubSectionRowNum != 0) {
-			// Group (outline) previous sub-section rows
-			testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);	
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Test_Log");
+			int rowNum = testLogAccess.addRow();
+			
+			if (currentSubSectionRowNum != 0) {
+				// Group (outline) previous sub-section rows
+				testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);	
+			}
+			
+			currentSubSectionRowNum = rowNum + 1;
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0x9);
+			cellFormatting.setForeColorIndex((short) 0x8);
+			
+			testLogAccess.setValue(rowNum, 0, " " + subSection, cellFormatting);
+			testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
 		}
-		
-		currentSubSectionRowNum = rowNum + 1;
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0x9);
-		cellFormatting.setForeColorIndex((short) 0x8);
-		
-		testLogAccess.setValue(rowNum, 0, " " + subSection, cellFormatting);
-		testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
 	}
 	
 	@Override
@@ -187,40 +271,56 @@ public class ExcelReport implements ReportType
 								String stepDescription, Status stepStatus,
 								String screenShotName)
 	{
-		testLogAccess.setDatasheetName("Test_Log");
-		int rowNum = testLogAccess.addRow();
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.setBackColorIndex((short) 0xC);
-		
-		boolean stepContainsScreenshot = processStatusColumn(stepStatus);
-		
-		cellFormatting.centred = true;
-		cellFormatting.bold = true;
-		int columnNum = testLogAccess.getColumnNum("Status", 0);
-		testLogAccess.setValue(rowNum, columnNum, stepStatus.toString(), cellFormatting);
-		
-		cellFormatting.setForeColorIndex((short) 0xD);
-		cellFormatting.bold = false;
-		testLogAccess.setValue(rowNum, "Step_No", stepNumber, cellFormatting);
-		testLogAccess.setValue(rowNum, "Step_Time", Util.getCurrentFormattedTime(reportSettings.getDateFormatString()), cellFormatting);
-		
-		cellFormatting.centred = false;
-		testLogAccess.setValue(rowNum, "Step_Name", stepName, cellFormatting);
-		
-		if (stepContainsScreenshot) {
-			if (reportSettings.linkScreenshotsToTestLog) {
-				testLogAccess.setHyperlink(rowNum, columnNum, "..\\Screenshots\\" + screenShotName);
-				
-				testLogAccess.setValue(rowNum, "Description", stepDescription, cellFormatting);
+		updateTestLog(stepNumber, stepName, stepDescription, stepStatus, screenShotName, Util.getCurrentTime());
+	}
+	
+	@Override
+	public void updateTestLog(String stepNumber, String stepName,
+								String stepDescription, Status stepStatus,
+								String screenShotName, Date stepTime)
+	{
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Test_Log");
+			int rowNum = testLogAccess.addRow();
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.setBackColorIndex((short) 0xC);
+			
+			boolean stepContainsScreenshot = processStatusColumn(stepStatus);
+			
+			cellFormatting.centred = true;
+			cellFormatting.bold = true;
+			int columnNum = testLogAccess.getColumnNum("Status");
+			testLogAccess.setValue(rowNum, columnNum, stepStatus.toString(), cellFormatting);
+			
+			cellFormatting.setForeColorIndex((short) 0xD);
+			cellFormatting.bold = false;
+			testLogAccess.setValue(rowNum, "Step_No", stepNumber, cellFormatting);
+			testLogAccess.setValue(rowNum, "Step_Time", Util.getFormattedTime(stepTime, reportSettings.getDateFormatString()), cellFormatting);
+			
+			cellFormatting.centred = false;
+			testLogAccess.setValue(rowNum, "Step_Name", stepName, cellFormatting);
+			
+			if (stepContainsScreenshot && screenShotName != null) {
+				if (reportSettings.linkScreenshotsToTestLog) {
+					testLogAccess.setHyperlink(rowNum, columnNum, "..\\Screenshots\\" + screenShotName);
+					
+					testLogAccess.setValue(rowNum, "Description", stepDescription, cellFormatting);
+				} else {
+					testLogAccess.setValue(rowNum, "Description",
+											stepDescription + " (Refer screenshot @ " + screenShotName + ")",
+											cellFormatting);
+				}
 			} else {
-				testLogAccess.setValue(rowNum, "Description",
-										stepDescription + " (Refer screenshot @ " + screenShotName + ")",
-										cellFormatting);
+				testLogAccess.setValue(rowNum, "Description", stepDescription, cellFormatting);
 			}
-		} else {
-			testLogAccess.setValue(rowNum, "Description", stepDescription, cellFormatting);
+			
+			commitTestLogUpdate();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
 		}
 	}
 	
@@ -266,43 +366,51 @@ public class ExcelReport implements ReportType
 	@Override
 	public void addTestLogFooter(String executionTime, int nStepsPassed, int nStepsFailed)
 	{
-		testLogAccess.setDatasheetName("Test_Log");
-		int rowNum = testLogAccess.addRow();
-		
-		if (currentSubSectionRowNum != 0) {
-			// Group (outline) the previous sub-section rows
-			testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);
-		}
-		
-		if (currentSectionRowNum != 0) {
-			// Group (outline) the previous section rows
-			testLogAccess.groupRows(currentSectionRowNum, rowNum - 1);
+		beginTestLogUpdate();
+		try {
+			testLogAccess.setDatasheetName("Test_Log");
+			int rowNum = testLogAccess.addRow();
+			
+			if (currentSubSectionRowNum != 0) {
+				// Group (outline) the previous sub-section rows
+				testLogAccess.groupRows(currentSubSectionRowNum, rowNum - 1);
+			}
+			
+			if (currentSectionRowNum != 0) {
+				// Group (outline) the previous section rows
+				testLogAccess.groupRows(currentSectionRowNum, rowNum - 1);
+			}
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			testLogAccess.setValue(rowNum, 0, "Execution Duration: " + executionTime, cellFormatting);
+			testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			rowNum = testLogAccess.addRow();
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0x9);
+			
+			cellFormatting.setForeColorIndex((short) 0xE);
+			testLogAccess.setValue(rowNum, "Step_No", "Steps passed", cellFormatting);
+			testLogAccess.setValue(rowNum, "Step_Name", ": " + nStepsPassed, cellFormatting);
+			cellFormatting.setForeColorIndex((short) 0x8);
+			testLogAccess.setValue(rowNum, "Description", "", cellFormatting);
+			cellFormatting.setForeColorIndex((short) 0xF);
+			testLogAccess.setValue(rowNum, "Status", "Steps failed", cellFormatting);
+			testLogAccess.setValue(rowNum, "Step_Time", ": " + nStepsFailed, cellFormatting);
+			
+			wrapUpTestLog();
+			
+			testLogAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			rollbackTestLogUpdate();
+			throw e;
 		}
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		testLogAccess.setValue(rowNum, 0, "Execution Duration: " + executionTime, cellFormatting);
-		testLogAccess.mergeCells(rowNum, rowNum, 0, 4);
-		
-		rowNum = testLogAccess.addRow();
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0x9);
-		
-		cellFormatting.setForeColorIndex((short) 0xE);
-		testLogAccess.setValue(rowNum, "Step_No", "Steps passed", cellFormatting);
-		testLogAccess.setValue(rowNum, "Step_Name", ": " + nStepsPassed, cellFormatting);
-		cellFormatting.setForeColorIndex((short) 0x8);
-		testLogAccess.setValue(rowNum, "Description", "", cellFormatting);
-		cellFormatting.setForeColorIndex((short) 0xF);
-		testLogAccess.setValue(rowNum, "Status", "Steps failed", cellFormatting);
-		testLogAccess.setValue(rowNum, "Step_Time", ": " + nStepsFailed, cellFormatting);
-		
-		wrapUpTestLog();
 	}
 	
 	private void wrapUpTestLog()
@@ -321,11 +429,19 @@ public class ExcelReport implements ReportType
 	@Override
 	public void initializeResultSummary()
 	{
-		resultSummaryAccess.createWorkbook();
-		resultSummaryAccess.addSheet("Cover_Page");
-		resultSummaryAccess.addSheet("Result_Summary");
-		
-		initializeResultSummaryColorPalette();
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.createWorkbook();
+			resultSummaryAccess.addSheet("Cover_Page");
+			resultSummaryAccess.addSheet("Result_Summary");
+			
+			initializeResultSummaryColorPalette();
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
+		}
 	}
 	
 	private void initializeResultSummaryColorPalette()
@@ -343,61 +459,85 @@ public class ExcelReport implements ReportType
 	@Override
 	public void addResultSummaryHeading(String heading)
 	{
-		resultSummaryAccess.setDatasheetName("Cover_Page");
-		int rowNum = resultSummaryAccess.getLastRowNum();
-		if (rowNum != 0) {
-			rowNum = resultSummaryAccess.addRow();
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.setDatasheetName("Cover_Page");
+			int rowNum = resultSummaryAccess.getLastRowNum();
+			if (rowNum != 0) {
+				rowNum = resultSummaryAccess.addRow();
+			}
+			
+			cellFormatting.setFontName("Copperplate Gothic Bold");
+			cellFormatting.setFontSize((short) 12);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			resultSummaryAccess.setValue(rowNum, 0, heading, cellFormatting);
+			resultSummaryAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
 		}
-		
-		cellFormatting.setFontName("Copperplate Gothic Bold");
-		cellFormatting.setFontSize((short) 12);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		resultSummaryAccess.setValue(rowNum, 0, heading, cellFormatting);
-		resultSummaryAccess.mergeCells(rowNum, rowNum, 0, 4);
 	}
 	
 	@Override
 	public void addResultSummarySubHeading(String subHeading1, String subHeading2,
 											String subHeading3, String subHeading4)
 	{
-		resultSummaryAccess.setDatasheetName("Cover_Page");
-		int rowNum = resultSummaryAccess.addRow();
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0x9);
-		cellFormatting.setForeColorIndex((short) 0x8);
-		
-		resultSummaryAccess.setValue(rowNum, 0, subHeading1, cellFormatting);
-		resultSummaryAccess.setValue(rowNum, 1, subHeading2, cellFormatting);
-		resultSummaryAccess.setValue(rowNum, 2, "", cellFormatting);
-		resultSummaryAccess.setValue(rowNum, 3, subHeading3, cellFormatting);
-		resultSummaryAccess.setValue(rowNum, 4, subHeading4, cellFormatting);
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.setDatasheetName("Cover_Page");
+			int rowNum = resultSummaryAccess.addRow();
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0x9);
+			cellFormatting.setForeColorIndex((short) 0x8);
+			
+			resultSummaryAccess.setValue(rowNum, 0, subHeading1, cellFormatting);
+			resultSummaryAccess.setValue(rowNum, 1, subHeading2, cellFormatting);
+			resultSummaryAccess.setValue(rowNum, 2, "", cellFormatting);
+			resultSummaryAccess.setValue(rowNum, 3, subHeading3, cellFormatting);
+			resultSummaryAccess.setValue(rowNum, 4, subHeading4, cellFormatting);
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
+		}
 	}
 	
 	@Override
 	public void addResultSummaryTableHeadings()
 	{
-		resultSummaryAccess.setDatasheetName("Result_Summary");
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		resultSummaryAccess.addColumn("Test_Scenario", cellFormatting);
-		resultSummaryAccess.addColumn("Test_Case", cellFormatting);
-		resultSummaryAccess.addColumn("Test_Description", cellFormatting);
-		resultSummaryAccess.addColumn("Execution_Time", cellFormatting);
-		resultSummaryAccess.addColumn("Test_Status", cellFormatting);
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.setDatasheetName("Result_Summary");
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			resultSummaryAccess.addColumn("Test_Scenario", cellFormatting);
+			resultSummaryAccess.addColumn("Test_Case", cellFormatting);
+			resultSummaryAccess.addColumn("Test_Description", cellFormatting);
+			resultSummaryAccess.addColumn("Execution_Time", cellFormatting);
+			resultSummaryAccess.addColumn("Test_Status", cellFormatting);
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
+		}
 	}
 	
 	@Override
@@ -405,70 +545,86 @@ public class ExcelReport implements ReportType
 										String testcaseDescription, String executionTime,
 										String testStatus)
 	{
-		resultSummaryAccess.setDatasheetName("Result_Summary");
-		int rowNum = resultSummaryAccess.addRow();
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.setBackColorIndex((short) 0xC);
-		cellFormatting.setForeColorIndex((short) 0xD);
-		
-		cellFormatting.centred = false;
-		cellFormatting.bold = false;
-		resultSummaryAccess.setValue(rowNum, "Test_Scenario", scenarioName, cellFormatting);
-		
-		int columnNum = resultSummaryAccess.getColumnNum("Test_Case", 0);
-		resultSummaryAccess.setValue(rowNum, columnNum, testcaseName, cellFormatting);
-		if (reportSettings.linkTestLogsToSummary) {
-			resultSummaryAccess.setHyperlink(rowNum, columnNum, scenarioName + "_" + testcaseName + ".xls");
-		}
-		
-		resultSummaryAccess.setValue(rowNum, "Test_Description", testcaseDescription, cellFormatting);
-		
-		cellFormatting.centred = true;
-		resultSummaryAccess.setValue(rowNum, "Execution_Time", executionTime, cellFormatting);
-		
-		cellFormatting.bold = true;
-		if (testStatus.equalsIgnoreCase("Passed")) {
-			cellFormatting.setForeColorIndex((short) 0xE);
-		}
-		if (testStatus.equalsIgnoreCase("Failed")) {
-			cellFormatting.setForeColorIndex((short) 0xF);
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.setDatasheetName("Result_Summary");
+			int rowNum = resultSummaryAccess.addRow();
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.setBackColorIndex((short) 0xC);
+			cellFormatting.setForeColorIndex((short) 0xD);
+			
+			cellFormatting.centred = false;
+			cellFormatting.bold = false;
+			resultSummaryAccess.setValue(rowNum, "Test_Scenario", scenarioName, cellFormatting);
+			
+			int columnNum = resultSummaryAccess.getColumnNum("Test_Case", 0);
+			resultSummaryAccess.setValue(rowNum, columnNum, testcaseName, cellFormatting);
+			if (reportSettings.linkTestLogsToSummary) {
+				resultSummaryAccess.setHyperlink(rowNum, columnNum, scenarioName + "_" + testcaseName + ".xls");
+			}
+			
+			resultSummaryAccess.setValue(rowNum, "Test_Description", testcaseDescription, cellFormatting);
+			
+			cellFormatting.centred = true;
+			resultSummaryAccess.setValue(rowNum, "Execution_Time", executionTime, cellFormatting);
+			
+			cellFormatting.bold = true;
+			if (testStatus.equalsIgnoreCase("Passed")) {
+				cellFormatting.setForeColorIndex((short) 0xE);
+			}
+			if (testStatus.equalsIgnoreCase("Failed")) {
+				cellFormatting.setForeColorIndex((short) 0xF);
+			}
+			resultSummaryAccess.setValue(rowNum, "Test_Status", testStatus, cellFormatting);
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
 		}
-		resultSummaryAccess.setValue(rowNum, "Test_Status", testStatus, cellFormatting);
 	}
 	
 	@Override
 	public void addResultSummaryFooter(String totalExecutionTime, int nTestsPassed, int nTestsFailed)
 	{	
-		resultSummaryAccess.setDatasheetName("Result_Summary");
-		int rowNum = resultSummaryAccess.addRow();
-		
-		cellFormatting.setFontName("Verdana");
-		cellFormatting.setFontSize((short) 10);
-		cellFormatting.bold = true;
-		cellFormatting.centred = true;
-		cellFormatting.setBackColorIndex((short) 0x8);
-		cellFormatting.setForeColorIndex((short) 0x9);
-		
-		resultSummaryAccess.setValue(rowNum, 0, "Total Duration: " +
-													totalExecutionTime, cellFormatting);
-		resultSummaryAccess.mergeCells(rowNum, rowNum, 0, 4);
-		
-		rowNum = resultSummaryAccess.addRow();
-		cellFormatting.centred = false;
-		cellFormatting.setBackColorIndex((short) 0x9);
-		
-		cellFormatting.setForeColorIndex((short) 0xE);
-		resultSummaryAccess.setValue(rowNum, "Test_Scenario", "Tests passed", cellFormatting);
-		resultSummaryAccess.setValue(rowNum, "Test_Case", ": " + nTestsPassed, cellFormatting);
-		cellFormatting.setForeColorIndex((short) 0x8);
-		resultSummaryAccess.setValue(rowNum, "Test_Description", "", cellFormatting);
-		cellFormatting.setForeColorIndex((short) 0xF);
-		resultSummaryAccess.setValue(rowNum, "Execution_Time", "Tests failed", cellFormatting);
-		resultSummaryAccess.setValue(rowNum, "Test_Status", ": " + nTestsFailed, cellFormatting);
-		
-		wrapUpResultSummary();
+		resultSummaryAccess.beginTransaction();
+		try {
+			resultSummaryAccess.setDatasheetName("Result_Summary");
+			int rowNum = resultSummaryAccess.addRow();
+			
+			cellFormatting.setFontName("Verdana");
+			cellFormatting.setFontSize((short) 10);
+			cellFormatting.bold = true;
+			cellFormatting.centred = true;
+			cellFormatting.setBackColorIndex((short) 0x8);
+			cellFormatting.setForeColorIndex((short) 0x9);
+			
+			resultSummaryAccess.setValue(rowNum, 0, "Total Duration: " +
+														totalExecutionTime, cellFormatting);
+			resultSummaryAccess.mergeCells(rowNum, rowNum, 0, 4);
+			
+			rowNum = resultSummaryAccess.addRow();
+			cellFormatting.centred = false;
+			cellFormatting.setBackColorIndex((short) 0x9);
+			
+			cellFormatting.setForeColorIndex((short) 0xE);
+			resultSummaryAccess.setValue(rowNum, "Test_Scenario", "Tests passed", cellFormatting);
+			resultSummaryAccess.setValue(rowNum, "Test_Case", ": " + nTestsPassed, cellFormatting);
+			cellFormatting.setForeColorIndex((short) 0x8);
+			resultSummaryAccess.setValue(rowNum, "Test_Description", "", cellFormatting);
+			cellFormatting.setForeColorIndex((short) 0xF);
+			resultSummaryAccess.setValue(rowNum, "Execution_Time", "Tests failed", cellFormatting);
+			resultSummaryAccess.setValue(rowNum, "Test_Status", ": " + nTestsFailed, cellFormatting);
+			
+			wrapUpResultSummary();
+			
+			resultSummaryAccess.commitTransaction();
+		} catch (RuntimeException e) {
+			resultSummaryAccess.rollbackTransaction();
+			throw e;
+		}
 	}
 	
 	private void wrapUpResultSummary()
@@ -0,0 +1,118 @@
+package com.cognizant.framework;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.poi.hssf.usermodel.HSSFSheet;
+
+
+/**
+ * Class to hold the lookup indexes built over the Excel worksheets read by the {@link ExcelDataAccess}.
+ * The indexes are keyed by the worksheet object itself, so that they are discarded along with the workbook,
+ * and a workbook which is reloaded from the file always gets fresh indexes.
+ * @author Cognizant
+ */
+final class ExcelSheetIndex
+{
+	private static final Map<HSSFSheet, Map<String, Integer>> headerIndexes =
+			Collections.synchronizedMap(new WeakHashMap<HSSFSheet, Map<String, Integer>>());
+	private static final Map<HSSFSheet, Map<Integer, Map<List<String>, Integer>>> rowIndexes =
+			Collections.synchronizedMap(new WeakHashMap<HSSFSheet, Map<Integer, Map<List<String>, Integer>>>());
+
+	private ExcelSheetIndex()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to get the index of column headers to column numbers for the specified worksheet
+	 * @param worksheet The {@link HSSFSheet} object
+	 * @return The header index (null if it has not been built yet)
+	 */
+	static Map<String, Integer> getHeaderIndex(HSSFSheet worksheet)
+	{
+		return headerIndexes.get(worksheet);
+	}
+
+	/**
+	 * Function to store the index of column headers to column numbers for the specified worksheet
+	 * @param worksheet The {@link HSSFSheet} object
+	 * @param headerIndex The header index
+	 */
+	static void putHeaderIndex(HSSFSheet worksheet, Map<String, Integer> headerIndex)
+	{
+		headerIndexes.put(worksheet, Collections.unmodifiableMap(headerIndex));
+	}
+
+	/**
+	 * Function to discard the header index of the specified worksheet,
+	 * so that it is rebuilt the next time it is required
+	 * @param worksheet The {@link HSSFSheet} object
+	 */
+	static void invalidateHeaderIndex(HSSFSheet worksheet)
+	{
+		headerIndexes.remove(worksheet);
+	}
+	
+	/**
+	 * Function to get the index of composite keys to row numbers for the specified worksheet
+	 * @param worksheet The {@link HSSFSheet} object
+	 * @param nKeyColumns The number of leading columns which make up the composite key
+	 * @return The row index (null if it has not been built yet)
+	 */
+	static Map<List<String>, Integer> getRowIndex(HSSFSheet worksheet, int nKeyColumns)
+	{
+		Map<Integer, Map<List<String>, Integer>> sheetRowIndexes = rowIndexes.get(worksheet);
+		if (sheetRowIndexes == null) {
+			return null;
+		}
+		
+		return sheetRowIndexes.get(nKeyColumns);
+	}
+	
+	/**
+	 * Function to store the index of composite keys to row numbers for the specified worksheet
+	 * @param worksheet The {@link HSSFSheet} object
+	 * @param nKeyColumns The number of leading columns which make up the composite key
+	 * @param rowIndex The row index
+	 */
+	static void putRowIndex(HSSFSheet worksheet, int nKeyColumns,
+										Map<List<String>, Integer> rowIndex)
+	{
+		synchronized (rowIndexes) {
+			Map<Integer, Map<List<String>, Integer>> sheetRowIndexes = rowIndexes.get(worksheet);
+			if (sheetRowIndexes == null) {
+				sheetRowIndexes = new ConcurrentHashMap<Integer, Map<List<String>, Integer>>();
+				rowIndexes.put(worksheet, sheetRowIndexes);
+			}
+			
+			sheetRowIndexes.put(nKeyColumns, Collections.unmodifiableMap(rowIndex));
+		}
+	}
+	
+	/**
+	 * Function to discard the row indexes of the specified worksheet which are affected by
+	 * a change to the specified column, so that they are rebuilt the next time they are required
+	 * @param worksheet The {@link HSSFSheet} object
+	 * @param columnNum The column number which was changed (-1 to discard all the row indexes)
+	 */
+	static void invalidateRowIndexes(HSSFSheet worksheet, int columnNum)
+	{
+		Map<Integer, Map<List<String>, Integer>> sheetRowIndexes = rowIndexes.get(worksheet);
+		if (sheetRowIndexes == null) {
+			return;
+		}
+		
+		Iterator<Integer> nKeyColumnsIterator = sheetRowIndexes.keySet().iterator();
+		while (nKeyColumnsIterator.hasNext()) {
+			int nKeyColumns = nKeyColumnsIterator.next();
+			if (columnNum < 0 || columnNum < nKeyColumns) {
+				nKeyColumnsIterator.remove();
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,164 @@
+package com.cognizant.framework;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.poi.hssf.usermodel.HSSFCellStyle;
+import org.apache.poi.hssf.usermodel.HSSFFont;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+
+
+/**
+ * Class to intern the cell styles used by the {@link ExcelDataAccess}, so that each distinct combination of formatting
+ * attributes is stored only once within a workbook, rather than once per formatted cell.
+ * The pool of a workbook is seeded from the styles already present within it, so that a workbook
+ * which is reloaded from the file reuses the styles written into it earlier.
+ * @author Cognizant
+ */
+final class ExcelStylePool
+{
+	// The styles preceding this index are the built-in styles of the workbook, which are never pooled
+	private static final short FIRST_USER_STYLE_INDEX = 21;
+
+	// The style indexes are held rather than the styles, so that the pools never keep the workbooks alive
+	private static final Map<HSSFWorkbook, Map<String, Short>> stylePools =
+			Collections.synchronizedMap(new WeakHashMap<HSSFWorkbook, Map<String, Short>>());
+
+	private ExcelStylePool()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to get a cell style with the specified formatting, creating it only if no such style exists yet
+	 * @param workbook The {@link HSSFWorkbook} object
+	 * @param cellFormatting The {@link ExcelCellFormatting} to be applied
+	 * @return The {@link HSSFCellStyle} corresponding to the formatting (shared; must not be modified)
+	 */
+	static HSSFCellStyle getCellStyle(HSSFWorkbook workbook, ExcelCellFormatting cellFormatting)
+	{
+		short alignment = cellFormatting.centred? HSSFCellStyle.ALIGN_CENTER : HSSFCellStyle.ALIGN_GENERAL;
+		short boldweight = cellFormatting.bold? HSSFFont.BOLDWEIGHT_BOLD : HSSFFont.BOLDWEIGHT_NORMAL;
+		short fontHeight = (short) (cellFormatting.getFontSize() * 20);	// Font heights are in 1/20th of a point
+
+		String styleKey = getStyleKey(alignment, HSSFCellStyle.SOLID_FOREGROUND, cellFormatting.getBackColorIndex(),
+									cellFormatting.getFontName(), fontHeight, boldweight,
+									cellFormatting.getForeColorIndex(), HSSFFont.U_NONE);
+
+		synchronized (workbook) {
+			Map<String, Short> stylePool = getStylePool(workbook);
+			Short styleIndex = stylePool.get(styleKey);
+			if (styleIndex != null) {
+				return workbook.getCellStyleAt(styleIndex);
+			}
+
+			HSSFCellStyle cellStyle = workbook.createCellStyle();
+			cellStyle.setAlignment(alignment);
+			cellStyle.setFillForegroundColor(cellFormatting.getBackColorIndex());
+			cellStyle.setFillPattern(HSSFCellStyle.SOLID_FOREGROUND);
+			cellStyle.setFont(getFont(workbook, cellFormatting.getFontName(), fontHeight, boldweight,
+												cellFormatting.getForeColorIndex(), HSSFFont.U_NONE));
+
+			stylePool.put(styleKey, cellStyle.getIndex());
+			return cellStyle;
+		}
+	}
+
+	/**
+	 * Function to get a variant of the specified cell style with an underlined font (as used for hyperlinks),
+	 * leaving the specified cell style itself unchanged
+	 * @param workbook The {@link HSSFWorkbook} object
+	 * @param cellStyle The {@link HSSFCellStyle} on which the variant is to be based
+	 * @return The underlined {@link HSSFCellStyle} (shared; must not be modified)
+	 */
+	static HSSFCellStyle getUnderlinedCellStyle(HSSFWorkbook workbook, HSSFCellStyle cellStyle)
+	{
+		synchronized (workbook) {
+			HSSFFont font = cellStyle.getFont(workbook);
+			if (font.getUnderline() == HSSFFont.U_SINGLE) {
+				return cellStyle;
+			}
+
+			String styleKey = getStyleKey(cellStyle, font, HSSFFont.U_SINGLE);
+			Map<String, Short> stylePool = getStylePool(workbook);
+			Short styleIndex = stylePool.get(styleKey);
+			if (styleIndex != null) {
+				return workbook.getCellStyleAt(styleIndex);
+			}
+
+			HSSFCellStyle underlinedCellStyle = workbook.createCellStyle();
+			underlinedCellStyle.cloneStyleFrom(cellStyle);
+			underlinedCellStyle.setFont(getFont(workbook, font.getFontName(), font.getFontHeight(),
+											font.getBoldweight(), font.getColor(), HSSFFont.U_SINGLE));
+
+			stylePool.put(styleKey, underlinedCellStyle.getIndex());
+			return underlinedCellStyle;
+		}
+	}
+
+	private static Map<String, Short> getStylePool(HSSFWorkbook workbook)
+	{
+		Map<String, Short> stylePool = stylePools.get(workbook);
+		if (stylePool != null) {
+			return stylePool;
+		}
+
+		stylePool = new HashMap<String, Short>();
+		for (short styleIndex = FIRST_USER_STYLE_INDEX;
+				styleIndex < workbook.getNumCellStyles(); styleIndex++) {
+			HSSFCellStyle cellStyle = workbook.getCellStyleAt(styleIndex);
+			HSSFFont font = cellStyle.getFont(workbook);
+			String styleKey = getStyleKey(cellStyle, font, font.getUnderline());
+			if (!stylePool.containsKey(styleKey)) {	// The first occurrence takes precedence
+				stylePool.put(styleKey, styleIndex);
+			}
+		}
+
+		stylePools.put(workbook, stylePool);
+		return stylePool;
+	}
+
+	private static HSSFFont getFont(HSSFWorkbook workbook, String fontName, short fontHeight,
+											short boldweight, short color, byte underline)
+	{
+		HSSFFont font = workbook.findFont(boldweight, color, fontHeight, fontName,
+															false, false, HSSFFont.SS_NONE, underline);
+		if (font == null) {
+			font = workbook.createFont();
+			font.setFontName(fontName);
+			font.setFontHeight(fontHeight);
+			font.setBoldweight(boldweight);
+			font.setColor(color);
+			font.setUnderline(underline);
+		}
+
+		return font;
+	}
+
+	private static String getStyleKey(HSSFCellStyle cellStyle, HSSFFont font, byte underline)
+	{
+		if (font.getItalic() || font.getStrikeout() || font.getTypeOffset() != HSSFFont.SS_NONE ||
+				cellStyle.getBorderTop() != HSSFCellStyle.BORDER_NONE ||
+				cellStyle.getBorderBottom() != HSSFCellStyle.BORDER_NONE ||
+				cellStyle.getBorderLeft() != HSSFCellStyle.BORDER_NONE ||
+				cellStyle.getBorderRight() != HSSFCellStyle.BORDER_NONE ||
+				cellStyle.getDataFormat() != 0 || cellStyle.getWrapText()) {
+			// Such styles are never created by the pool, so they are keyed apart from the pooled ones
+			return "#" + cellStyle.getIndex() + "|" + underline;
+		}
+
+		return getStyleKey(cellStyle.getAlignment(), cellStyle.getFillPattern(),
+							cellStyle.getFillForegroundColor(), font.getFontName(), font.getFontHeight(),
+							font.getBoldweight(), font.getColor(), underline);
+	}
+
+	private static String getStyleKey(short alignment, short fillPattern, short fillForegroundColor,
+										String fontName, short fontHeight, short boldweight,
+										short fontColor, byte underline)
+	{
+		return alignment + "|" + fillPattern + "|" + fillForegroundColor + "|" + fontName + "|" +
+				fontHeight + "|" + boldweight + "|" + fontColor + "|" + underline;
+	}
+}
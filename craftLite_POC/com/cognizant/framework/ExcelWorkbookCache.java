@@ -0,0 +1,259 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.poi.hssf.usermodel.HSSFFormulaEvaluator;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+
+
+/**
+ * Singleton class that caches the Excel workbooks read by the framework,
+ * so that each workbook is parsed only once for as long as the underlying file remains unchanged.
+ * The cached workbooks are shared across threads; callers must synchronize on the workbook
+ * returned while reading from it, and must never modify it.
+ * All the formulas within a workbook are evaluated once, when it is loaded into the cache,
+ * so that the readers can use the formula results as is, instead of evaluating the formulas on every read.
+ * @author Cognizant
+ */
+public class ExcelWorkbookCache
+{
+	private static final ExcelWorkbookCache excelWorkbookCache = new ExcelWorkbookCache();
+
+	private final ConcurrentMap<String, CachedWorkbook> cachedWorkbooks =
+									new ConcurrentHashMap<String, CachedWorkbook>();
+	private final ConcurrentMap<String, Object> loadLocks =
+									new ConcurrentHashMap<String, Object>();
+	// The workbooks are held weakly, so that the set never keeps the discarded workbooks alive
+	private final Set<HSSFWorkbook> evaluatedWorkbooks =
+			Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<HSSFWorkbook, Boolean>()));
+
+	private ExcelWorkbookCache()
+	{
+		// To prevent external instantiation of this class
+	}
+
+	/**
+	 * Function to return the singleton instance of the {@link ExcelWorkbookCache} object
+	 * @return Instance of the {@link ExcelWorkbookCache} object
+	 */
+	public static ExcelWorkbookCache getInstance()
+	{
+		return excelWorkbookCache;
+	}
+
+	/**
+	 * Function to get the workbook stored at the specified path,
+	 * parsing it only if it is not cached yet or if the file has been modified since it was cached
+	 * (the {@link DatatableWatcher} may also reload the changed files ahead of the next read)
+	 * @param absoluteFilePath The absolute path of the Excel workbook (including the extension)
+	 * @return The cached {@link HSSFWorkbook} (to be used for reading only)
+	 */
+	public HSSFWorkbook getWorkbook(String absoluteFilePath)
+	{
+		File file = new File(absoluteFilePath);
+		String cacheKey = file.getAbsolutePath();
+
+		CachedWorkbook cachedWorkbook = cachedWorkbooks.get(cacheKey);
+		if (cachedWorkbook != null && cachedWorkbook.isCurrent(file)) {
+			return cachedWorkbook.workbook;
+		}
+
+		synchronized (getLoadLock(cacheKey)) {
+			// Another thread may have loaded the workbook while we were waiting
+			cachedWorkbook = cachedWorkbooks.get(cacheKey);
+			if (cachedWorkbook != null && cachedWorkbook.isCurrent(file)) {
+				return cachedWorkbook.workbook;
+			}
+
+			return cacheWorkbook(file, cacheKey);
+		}
+	}
+
+	/**
+	 * Function to check whether an up-to-date copy of the specified workbook is cached,
+	 * so that reading it through {@link #getWorkbook(String)} involves no parsing
+	 * @param absoluteFilePath The absolute path of the Excel workbook (including the extension)
+	 * @return Boolean value indicating whether the workbook is cached and current
+	 */
+	public boolean isCached(String absoluteFilePath)
+	{
+		File file = new File(absoluteFilePath);
+		CachedWorkbook cachedWorkbook = cachedWorkbooks.get(file.getAbsolutePath());
+
+		return cachedWorkbook != null && cachedWorkbook.isCurrent(file);
+	}
+
+	/**
+	 * Function to parse the specified workbook afresh and replace the cached copy with it,
+	 * if the workbook is cached (the workbooks which are not cached yet are loaded on first access).
+	 * The cached copy remains available to the readers until the file has been parsed
+	 * @param absoluteFilePath The absolute path of the Excel workbook (including the extension)
+	 */
+	public void reload(String absoluteFilePath)
+	{
+		File file = new File(absoluteFilePath);
+		String cacheKey = file.getAbsolutePath();
+		if (!cachedWorkbooks.containsKey(cacheKey)) {
+			return;
+		}
+
+		synchronized (getLoadLock(cacheKey)) {
+			if (!file.exists()) {
+				cachedWorkbooks.remove(cacheKey);
+				return;
+			}
+
+			try {
+				cacheWorkbook(file, cacheKey);
+			} catch (FrameworkException fx) {
+				// The file may still be being written; the next read will parse it afresh
+				cachedWorkbooks.remove(cacheKey);
+			}
+		}
+	}
+
+	private HSSFWorkbook cacheWorkbook(File file, String cacheKey)
+	{
+		long lastModified = file.lastModified();
+		long length = file.length();
+		HSSFWorkbook workbook = loadWorkbook(cacheKey);
+		evaluateFormulas(workbook);
+		cachedWorkbooks.put(cacheKey, new CachedWorkbook(workbook, lastModified, length));
+
+		return workbook;
+	}
+
+	private Object getLoadLock(String cacheKey)
+	{
+		Object loadLock = loadLocks.get(cacheKey);
+		if (loadLock == null) {
+			Object newLoadLock = new Object();
+			loadLock = loadLocks.putIfAbsent(cacheKey, newLoadLock);
+			if (loadLock == null) {
+				loadLock = newLoadLock;
+			}
+		}
+
+		return loadLock;
+	}
+
+	private void evaluateFormulas(HSSFWorkbook workbook)
+	{
+		try {
+			HSSFFormulaEvaluator.evaluateAllFormulaCells(workbook);
+			evaluatedWorkbooks.add(workbook);
+		} catch (RuntimeException e) {
+			// Some formula is not supported by POI; the readers will evaluate the formulas on demand instead
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Function to check whether all the formulas within the specified workbook have already been evaluated
+	 * (which is the case for the workbooks returned by {@link #getWorkbook(String)}),
+	 * so that the cached formula results may be read without evaluating the formulas again
+	 * @param workbook The {@link HSSFWorkbook} object
+	 * @return Boolean value indicating whether the formulas within the workbook have been evaluated
+	 */
+	public boolean isEvaluated(HSSFWorkbook workbook)
+	{
+		return evaluatedWorkbooks.contains(workbook);
+	}
+
+	/**
+	 * Function to discard the cached copy of the specified workbook (if any),
+	 * so that the next read parses the file afresh
+	 * @param absoluteFilePath The absolute path of the Excel workbook (including the extension)
+	 */
+	public void invalidate(String absoluteFilePath)
+	{
+		String cacheKey = new File(absoluteFilePath).getAbsolutePath();
+
+		// Wait for any reload in progress, so that it cannot put back the copy being invalidated
+		synchronized (getLoadLock(cacheKey)) {
+			cachedWorkbooks.remove(cacheKey);
+		}
+	}
+
+	/**
+	 * Function to discard the cached copies of all the workbooks stored within the specified directory
+	 * @param directoryPath The path of the directory
+	 */
+	public void invalidateDirectory(String directoryPath)
+	{
+		String directoryKey = new File(directoryPath).getAbsolutePath();
+		for (String cacheKey : cachedWorkbooks.keySet()) {
+			if (directoryKey.equals(new File(cacheKey).getParent())) {
+				invalidate(cacheKey);
+			}
+		}
+	}
+
+	/**
+	 * Function to discard all the cached workbooks and release the memory held by them
+	 */
+	public void clear()
+	{
+		cachedWorkbooks.clear();
+	}
+
+	static HSSFWorkbook loadWorkbook(String absoluteFilePath)
+	{
+		FileInputStream fileInputStream;
+		try	{
+			fileInputStream = new FileInputStream(absoluteFilePath);
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+			throw new FrameworkException("The specified file \"" + absoluteFilePath + "\" does not exist!");
+		}
+
+		HSSFWorkbook workbook;
+		try {
+			workbook = new HSSFWorkbook(fileInputStream);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while opening the specified Excel workbook \"" + absoluteFilePath + "\"");
+		} finally {
+			try {
+				fileInputStream.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+
+		return workbook;
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException
+	{
+		throw new CloneNotSupportedException();
+	}
+
+
+	private static class CachedWorkbook
+	{
+		private final HSSFWorkbook workbook;
+		private final long lastModified, length;
+
+		private CachedWorkbook(HSSFWorkbook workbook, long lastModified, long length)
+		{
+			this.workbook = workbook;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		private boolean isCurrent(File file)
+		{
+			return file.lastModified() == lastModified && file.length() == length;
+		}
+	}
+}
\ No newline at end of file
@@ -1,12 +1,11 @@
 package com.cognizant.framework;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.Date;
 
 
 /**
@@ -19,6 +18,9 @@ public class HtmlReport implements ReportType
 	private ReportSettings reportSettings;
 	private ReportTheme reportTheme;
 	
+	// Long-lived writers, opened along with the report files and closed when the footers are added
+	private HtmlReportWriter testLogWriter, resultSummaryWriter;
+	
 	private boolean isTestLogHeaderTableCreated = false;
 	private boolean isTestLogMainTableCreated = false;
 	private boolean isResultSummaryHeaderTableCreated = false;
@@ -230,6 +232,13 @@ public class HtmlReport implements ReportType
 		
         printStream.println(testLogHeadSection);
         printStream.close();
+        
+        try {
+			testLogWriter = new HtmlReportWriter(testLogPath, reportSettings);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while opening HTML test log file");
+		}
 	}
 	
 	@Override
@@ -240,17 +249,13 @@ public class HtmlReport implements ReportType
 			isTestLogHeaderTableCreated = true;
 		}
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogHeading =	"\t\t\t\t <tr class='heading'> \n" +
 										"\t\t\t\t\t <th colspan='4' style='font-family:Copperplate Gothic Bold; font-size:1.4em;'> \n" + 
 											"\t\t\t\t\t\t " + heading + " \n" +
 										"\t\t\t\t\t </th> \n" +
 									"\t\t\t\t </tr> \n";
-		    bufferedWriter.write(testLogHeading);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding heading to HTML test log");
@@ -259,15 +264,11 @@ public class HtmlReport implements ReportType
 	
 	private void createTestLogHeaderTable()
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogHeaderTable =	"\t <body> \n" +
 											"\t\t <table id='header'> \n" +
 												"\t\t\t <thead> \n";
-		    bufferedWriter.write(testLogHeaderTable);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogHeaderTable, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding header table to HTML test log");
@@ -278,18 +279,14 @@ public class HtmlReport implements ReportType
 	public void addTestLogSubHeading(String subHeading1, String subHeading2,
 										String subHeading3, String subHeading4)
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogSubHeading =	"\t\t\t\t <tr class='subheading'> \n" +
 											"\t\t\t\t\t <th>&nbsp;" + subHeading1.replace(" ", "&nbsp;") + "</th> \n" +
 											"\t\t\t\t\t <th>&nbsp;" + subHeading2.replace(" ", "&nbsp;") + "</th> \n" +
 											"\t\t\t\t\t <th>&nbsp;" + subHeading3.replace(" ", "&nbsp;") + "</th> \n" +
 											"\t\t\t\t\t <th>&nbsp;" + subHeading4.replace(" ", "&nbsp;") + "</th> \n" +
 										"\t\t\t\t </tr> \n";
-		    bufferedWriter.write(testLogSubHeading);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogSubHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding sub-heading to HTML test log");
@@ -298,17 +295,13 @@ public class HtmlReport implements ReportType
 	
 	private void createTestLogMainTable()
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogMainTable =		"\t\t\t </thead> \n" +
 										 "\t\t </table> \n\n" +
 										 
 										 "\t\t <table id='main'> \n";
 			
-		    bufferedWriter.write(testLogMainTable);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogMainTable, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding main table to HTML test log");
@@ -323,10 +316,7 @@ public class HtmlReport implements ReportType
 			isTestLogMainTableCreated = true;
 		}
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogTableHeading =	"\t\t\t <thead> \n" +
 												"\t\t\t\t <tr class='heading'> \n" + 
 													"\t\t\t\t\t <th>Step No</th> \n" +
@@ -336,8 +326,7 @@ public class HtmlReport implements ReportType
 													"\t\t\t\t\t <th>Step Time</th> \n" +
 												"\t\t\t\t </tr> \n" +
 											"\t\t\t </thead> \n\n";
-		    bufferedWriter.write(testLogTableHeading);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogTableHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding main table headings to HTML test log");
@@ -354,10 +343,7 @@ public class HtmlReport implements ReportType
 		
 		currentSection = section.replaceAll("[^a-zA-Z0-9]", "");
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    testLogSection +=	"\t\t\t <tbody> \n" +
 										"\t\t\t\t <tr class='section'> \n" +
 											"\t\t\t\t\t <td colspan='5' onclick=\"toggleMenu('" + currentSection + "')\">+ " +
@@ -365,8 +351,7 @@ public class HtmlReport implements ReportType
 										"\t\t\t\t </tr> \n" +
 									"\t\t\t </tbody> \n" +
 									"\t\t\t <tbody id='" + currentSection + "' style='display:table-row-group'> \n";
-		    bufferedWriter.write(testLogSection);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogSection, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding section to HTML test log");
@@ -379,16 +364,12 @@ public class HtmlReport implements ReportType
 		currentSubSection = subSection.replaceAll("[^a-zA-Z0-9]", "");
 		currentContentNumber = 1;
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 		    String testLogSubSection =	"\t\t\t\t <tr class='subheading subsection'> \n" +
 											"\t\t\t\t\t <td colspan='5' onclick=\"toggleSubMenu('" + currentSection + currentSubSection + "')\">&nbsp;+ " +
 												subSection + "</td> \n" +
 										"\t\t\t\t </tr> \n";
-		    bufferedWriter.write(testLogSubSection);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogSubSection, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding sub-section to HTML test log");
@@ -397,10 +378,14 @@ public class HtmlReport implements ReportType
 	
 	@Override
 	public void updateTestLog(String stepNumber, String stepName, String stepDescription, Status stepStatus, String screenShotName)
+	{
+		updateTestLog(stepNumber, stepName, stepDescription, stepStatus, screenShotName, Util.getCurrentTime());
+	}
+	
+	@Override
+	public void updateTestLog(String stepNumber, String stepName, String stepDescription, Status stepStatus, String screenShotName, Date stepTime)
 	{
 		try {
-			BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-			
 			String testStepRow = "\t\t\t\t <tr class='content' id='" + currentSection + currentSubSection + currentContentNumber + "'> \n" +
 									"\t\t\t\t\t <td>" + stepNumber + "</td> \n" +
 									"\t\t\t\t\t <td class='justified'>" + stepName + "</td> \n";
@@ -433,12 +418,11 @@ public class HtmlReport implements ReportType
 			}
 			
 	       	testStepRow +=	 "\t\t\t\t\t <td>" +
-       										"<small>" + Util.getCurrentFormattedTime(reportSettings.getDateFormatString()) + "</small>" +
+       										"<small>" + Util.getFormattedTime(stepTime, reportSettings.getDateFormatString()) + "</small>" +
        									"</td> \n" +
 							"\t\t\t\t </tr> \n";
 	       	
-		    bufferedWriter.write(testStepRow);
-		    bufferedWriter.close();
+		    testLogWriter.write(testStepRow, stepStatus == Status.FAIL);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while updating HTML test log");
@@ -449,6 +433,10 @@ public class HtmlReport implements ReportType
 	{
 		String testStepRow;
 		
+		if (screenShotName == null) {
+			return getTestStepWithoutScreenshot(stepDescription, stepStatus);	// No screenshot was taken
+		}
+		
 		if (reportSettings.linkScreenshotsToTestLog) {
 			testStepRow = 
 					"\t\t\t\t\t <td class='justified'>" +
@@ -491,8 +479,6 @@ public class HtmlReport implements ReportType
 	public void addTestLogFooter(String executionTime, int nStepsPassed, int nStepsFailed)
 	{
 		try {
-			BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(testLogPath, true));
-		    
 			String testLogFooter =	"\t\t\t </tbody> \n" +
 								"\t\t </table> \n\n" +
 								
@@ -519,8 +505,9 @@ public class HtmlReport implements ReportType
 							"\t </body> \n" +
 						"</html>";
 		    
-		    bufferedWriter.write(testLogFooter);
-		    bufferedWriter.close();
+		    testLogWriter.write(testLogFooter, false);
+		    testLogWriter.close();
+		    testLogWriter = null;
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding footer to HTML test log");
@@ -566,6 +553,13 @@ public class HtmlReport implements ReportType
 		
 		printStream.println (resultSummaryHeader);
         printStream.close();
+        
+        try {
+			resultSummaryWriter = new HtmlReportWriter(resultSummaryPath, reportSettings);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while opening HTML result summary file");
+		}
 	}
 	
 	@Override
@@ -576,17 +570,13 @@ public class HtmlReport implements ReportType
 			isResultSummaryHeaderTableCreated = true;
 		}
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummaryHeading =	"\t\t\t\t <tr class='heading'> \n" +
 												"\t\t\t\t\t <th colspan='4' style='font-family:Copperplate Gothic Bold; font-size:1.4em;'> \n" + 
 													"\t\t\t\t\t\t " + heading + " \n" +
 												"\t\t\t\t\t </th> \n" +
 											"\t\t\t\t </tr> \n";
-		    bufferedWriter.write(resultSummaryHeading);
-		    bufferedWriter.close();
+		    resultSummaryWriter.write(resultSummaryHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding heading to HTML result summary");
@@ -595,15 +585,11 @@ public class HtmlReport implements ReportType
 	
 	private void createResultSummaryHeaderTable()
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummaryHeaderTable =	"\t <body> \n" +
 													"\t\t <table id='header'> \n" +
 														"\t\t\t <thead> \n";
-		    bufferedWriter.write(resultSummaryHeaderTable);
-		    bufferedWriter.close();
+		    resultSummaryWriter.write(resultSummaryHeaderTable, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding header table to HTML result summary");
@@ -614,18 +600,14 @@ public class HtmlReport implements ReportType
 	public void addResultSummarySubHeading(String subHeading1, String subHeading2,
 											String subHeading3, String subHeading4)
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummarySubHeading =	"\t\t\t\t <tr class='subheading'> \n" +
 													"\t\t\t\t\t <th>&nbsp;" + subHeading1.replace(" ", "&nbsp;") + "</th> \n" +
 													"\t\t\t\t\t <th>&nbsp;" + subHeading2.replace(" ", "&nbsp;") + "</th> \n" +
 													"\t\t\t\t\t <th>&nbsp;" + subHeading3.replace(" ", "&nbsp;") + "</th> \n" +
 													"\t\t\t\t\t <th>&nbsp;" + subHeading4.replace(" ", "&nbsp;") + "</th> \n" +
 												"\t\t\t\t </tr> \n";
-		    bufferedWriter.write(resultSummarySubHeading);
-		    bufferedWriter.close();
+		    resultSummaryWriter.write(resultSummarySubHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding sub-heading to HTML result summary");
@@ -634,18 +616,14 @@ public class HtmlReport implements ReportType
 	
 	private void createResultSummaryMainTable()
 	{
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummaryMainTable =	"\t\t\t </thead> \n" +
 										 "\t\t </table> \n\n" +
 										 
 										 "\t\t <table id='main'> \n" + 
 											"\t\t\t <colgroup> \n";
 		    
-		    bufferedWriter.write(resultSummaryMainTable);
-		    bufferedWriter.close();
+		    resultSummaryWriter.write(resultSummaryMainTable, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding main table to HTML result summary");
@@ -660,10 +638,7 @@ public class HtmlReport implements ReportType
 			isResultSummaryMainTableCreated = true;
 		}
 		
-		BufferedWriter bufferedWriter;
 		try {
-			bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummaryTableHeading =	"\t\t\t <thead> \n" +
 												"\t\t\t\t <tr class='heading'> \n" + 
 													"\t\t\t\t\t <th>Test Scenario</th> \n" +
@@ -673,8 +648,7 @@ public class HtmlReport implements ReportType
 													"\t\t\t\t\t <th>Test Status</th> \n" +
 												"\t\t\t\t </tr> \n" +
 											"\t\t\t </thead> \n\n";
-		    bufferedWriter.write(resultSummaryTableHeading);
-		    bufferedWriter.close();
+		    resultSummaryWriter.write(resultSummaryTableHeading, false);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding main table headings to HTML result summary");
@@ -685,8 +659,6 @@ public class HtmlReport implements ReportType
 	public void updateResultSummary(String scenarioName, String testcaseName, String testcaseDescription, String executionTime, String testStatus)
 	{
 		try {
-			BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-		    
 			String testcaseRow;
 			
 			if (reportSettings.linkTestLogsToSummary) {
@@ -714,8 +686,7 @@ public class HtmlReport implements ReportType
 								"\t\t\t\t </tr> \n";
 			}
 			
-		    bufferedWriter.write(testcaseRow);
-		   	bufferedWriter.close();
+		    resultSummaryWriter.write(testcaseRow, !testStatus.equalsIgnoreCase("passed"));
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while updating HTML result summary");
@@ -727,8 +698,6 @@ public class HtmlReport implements ReportType
 										int nTestsPassed, int nTestsFailed)
 	{
 		try {
-			BufferedWriter bufferWriter = new BufferedWriter(new FileWriter(resultSummaryPath, true));
-			
 		    String resultSummaryFooter =	"\t\t\t </tbody> \n" +
 										"\t\t </table> \n\n" +
 										
@@ -755,8 +724,9 @@ public class HtmlReport implements ReportType
 									"\t </body> \n" +
 								"</html>";
 		    
-		    bufferWriter.write(resultSummaryFooter);
-			bufferWriter.close();
+		    resultSummaryWriter.write(resultSummaryFooter, false);
+		    resultSummaryWriter.close();
+		    resultSummaryWriter = null;
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Error while adding footer to HTML result summary");
@@ -0,0 +1,91 @@
+package com.cognizant.framework;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+
+/**
+ * Class to encapsulate a long-lived writer to an HTML report file,
+ * which flushes its contents as per the flush policy specified in the {@link ReportSettings}
+ * @author Cognizant
+ */
+class HtmlReportWriter
+{
+	private final BufferedWriter bufferedWriter;
+	private final int flushRowInterval;
+	private final long flushTimeInterval;
+	private final boolean flushOnFailure;
+
+	private int nUnflushedRows = 0;
+	private long lastFlushTime;
+
+
+	/**
+	 * Constructor to open the specified HTML report file for appending
+	 * @param filePath The path of the HTML report file
+	 * @param reportSettings The {@link ReportSettings} object
+	 * @throws IOException If the file cannot be opened
+	 */
+	HtmlReportWriter(String filePath, ReportSettings reportSettings) throws IOException
+	{
+		bufferedWriter = new BufferedWriter(new FileWriter(filePath, true));
+
+		flushRowInterval = reportSettings.getHtmlReportFlushRowInterval();
+		flushTimeInterval = reportSettings.getHtmlReportFlushTimeInterval();
+		flushOnFailure = reportSettings.flushHtmlReportOnFailure;
+
+		lastFlushTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Function to write the specified content into the HTML report file,
+	 * flushing it if required as per the flush policy
+	 * @param content The content to be written
+	 * @param isFailure Boolean variable indicating whether the content corresponds to a failure
+	 * @throws IOException If the content cannot be written
+	 */
+	void write(String content, boolean isFailure) throws IOException
+	{
+		bufferedWriter.write(content);
+		nUnflushedRows++;
+
+		if (isFlushRequired(isFailure)) {
+			flush();
+		}
+	}
+
+	private boolean isFlushRequired(boolean isFailure)
+	{
+		if (isFailure && flushOnFailure) {
+			return true;
+		}
+
+		if (flushRowInterval > 0 && nUnflushedRows >= flushRowInterval) {
+			return true;
+		}
+
+		return flushTimeInterval > 0 &&
+				System.currentTimeMillis() - lastFlushTime >= flushTimeInterval;
+	}
+
+	/**
+	 * Function to flush the contents written so far into the HTML report file
+	 * @throws IOException If the contents cannot be flushed
+	 */
+	void flush() throws IOException
+	{
+		bufferedWriter.flush();
+		nUnflushedRows = 0;
+		lastFlushTime = System.currentTimeMillis();
+	}
+
+	/**
+	 * Function to flush and close the HTML report file
+	 * @throws IOException If the file cannot be closed
+	 */
+	void close() throws IOException
+	{
+		bufferedWriter.close();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,650 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Class which implements the {@link DatatableBackend} over the tables of an embedded (file based) SQL database,
+ * accessed through JDBC. Each sheet of a datatable is stored as a table named "&lt;datatable&gt;$&lt;sheet&gt;",
+ * indexed on its first two columns (the test case ID and the iteration number),
+ * and the sheets of every datatable are listed within the CRAFT_DATATABLES table.
+ * The datatables are loaded into the database using {@link #importExcelDatatable(String)}.
+ * <br><br>
+ * The output data is written as an update to the single row concerned, so that the concurrency control
+ * of the database engine allows any number of threads (and processes, if the engine supports it,
+ * e.g., through the AUTO_SERVER mode of H2) to update the same datatable safely.
+ * The JDBC driver of the database engine must be available on the classpath
+ * @author Cognizant
+ */
+public class JdbcDatatableBackend implements DatatableBackend
+{
+	private static final String CATALOG_TABLE_NAME = "CRAFT_DATATABLES";
+	private static final String ROW_NUM_COLUMN_NAME = "CRAFT_ROW_NUM";
+	private static final int MAX_VALUE_LENGTH = 4000;
+
+	// Connections are reused across the backends (and threads), since opening one is expensive
+	private static final ConcurrentMap<String, Queue<Connection>> idleConnections =
+									new ConcurrentHashMap<String, Queue<Connection>>();
+	// The column names of each table (in order, excluding the row number column), keyed by URL and table name
+	private static final ConcurrentMap<String, List<String>> tableColumns =
+									new ConcurrentHashMap<String, List<String>>();
+
+	private final String databaseUrl, datatableName;
+
+
+	/**
+	 * Constructor to initialize the {@link JdbcDatatableBackend} object
+	 * @param databaseUrl The JDBC URL of the database in which the datatables are stored
+	 * @param datatableName The name of the datatable
+	 */
+	public JdbcDatatableBackend(String databaseUrl, String datatableName)
+	{
+		if (databaseUrl == null || databaseUrl.trim().equals("")) {
+			throw new FrameworkException("The URL of the datatable database is not specified!");
+		}
+
+		this.databaseUrl = databaseUrl;
+		this.datatableName = datatableName;
+	}
+
+	/**
+	 * Function to close all the database connections opened by the backends so far
+	 */
+	public static void closeConnections()
+	{
+		for (Queue<Connection> connections : idleConnections.values()) {
+			Connection connection;
+			while ((connection = connections.poll()) != null) {
+				closeQuietly(connection);
+			}
+		}
+		tableColumns.clear();
+	}
+
+	private Connection getConnection()
+	{
+		Queue<Connection> connections = idleConnections.get(databaseUrl);
+		if (connections != null) {
+			Connection connection;
+			while ((connection = connections.poll()) != null) {
+				try {
+					if (!connection.isClosed()) {
+						return connection;
+					}
+				} catch (SQLException e) {
+					closeQuietly(connection);
+				}
+			}
+		}
+
+		try {
+			return DriverManager.getConnection(databaseUrl);
+		} catch (SQLException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while connecting to the datatable database \"" + databaseUrl + "\"");
+		}
+	}
+
+	private void releaseConnection(Connection connection)
+	{
+		Queue<Connection> connections = idleConnections.get(databaseUrl);
+		if (connections == null) {
+			Queue<Connection> newConnections = new ConcurrentLinkedQueue<Connection>();
+			connections = idleConnections.putIfAbsent(databaseUrl, newConnections);
+			if (connections == null) {
+				connections = newConnections;
+			}
+		}
+
+		connections.add(connection);
+	}
+
+	private static void closeQuietly(Connection connection)
+	{
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void closeQuietly(Statement statement)
+	{
+		if (statement != null) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private static String quote(String identifier)
+	{
+		return "\"" + identifier.replace("\"", "\"\"") + "\"";
+	}
+
+	private String getTableName(String datasheetName)
+	{
+		return datatableName + "$" + datasheetName;
+	}
+
+	private FrameworkException getDatabaseException(SQLException e, String datasheetName)
+	{
+		e.printStackTrace();
+		return new FrameworkException("Error while accessing the sheet \"" + datasheetName + "\"" +
+							"of the datatable \"" + datatableName + "\" within the database: " + e.getMessage());
+	}
+
+	private List<String> getColumns(Connection connection, String datasheetName)
+	{
+		String cacheKey = databaseUrl + "|" + getTableName(datasheetName);
+		List<String> columns = tableColumns.get(cacheKey);
+		if (columns != null) {
+			return columns;
+		}
+
+		Statement statement = null;
+		try {
+			statement = connection.createStatement();
+			ResultSetMetaData metaData = statement.executeQuery("SELECT * FROM " +
+									quote(getTableName(datasheetName)) + " WHERE 1 = 0").getMetaData();
+
+			columns = new ArrayList<String>();
+			for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+				String columnName = metaData.getColumnName(columnIndex);
+				if (!columnName.equals(ROW_NUM_COLUMN_NAME)) {
+					columns.add(columnName);
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			throw new FrameworkException("The specified sheet \"" + datasheetName + "\"" +
+										"does not exist within the datatable \"" + datatableName + "\"");
+		} finally {
+			closeQuietly(statement);
+		}
+
+		columns = Collections.unmodifiableList(columns);
+		tableColumns.put(cacheKey, columns);
+		return columns;
+	}
+
+	private String getKeyCondition(List<String> columns)
+	{
+		return " WHERE " + quote(columns.get(0)) + " = ? AND " + quote(columns.get(1)) + " = ?" +
+																" ORDER BY " + ROW_NUM_COLUMN_NAME;
+	}
+
+	private void checkColumn(List<String> columns, String datasheetName, String fieldName)
+	{
+		if (!columns.contains(fieldName)) {
+			throw new FrameworkException("The specified column header \"" + fieldName + "\"" +
+										"is not found in the sheet \"" + datasheetName + "\"!");
+		}
+	}
+
+	private FrameworkException getRowNotFoundException(Connection connection, String datasheetName,
+																	String testcase, int iteration)
+	{
+		if (getRowCount(connection, datasheetName, testcase) == 0) {
+			return new FrameworkException("The test case \"" + testcase + "\"" +
+										"is not found in the test data sheet \"" + datasheetName + "\"!");
+		}
+		return new FrameworkException("The iteration number \"" + iteration + "\"" +
+									"of the test case \"" + testcase + "\"" +
+									"is not found in the test data sheet \"" + datasheetName + "\"!");
+	}
+
+	private Map<String, String> getRowValues(ResultSet resultSet) throws SQLException
+	{
+		ResultSetMetaData metaData = resultSet.getMetaData();
+		Map<String, String> rowValues = new LinkedHashMap<String, String>();
+		for (int columnIndex = 1; columnIndex <= metaData.getColumnCount(); columnIndex++) {
+			String columnName = metaData.getColumnName(columnIndex);
+			if (!columnName.equals(ROW_NUM_COLUMN_NAME)) {
+				String value = resultSet.getString(columnIndex);
+				rowValues.put(columnName, (value == null)? "" : value);
+			}
+		}
+
+		return Collections.unmodifiableMap(rowValues);
+	}
+
+	@Override
+	public int getRowCount(String datasheetName, String testcase)
+	{
+		Connection connection = getConnection();
+		try {
+			return getRowCount(connection, datasheetName, testcase);
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	private int getRowCount(Connection connection, String datasheetName, String testcase)
+	{
+		List<String> columns = getColumns(connection, datasheetName);
+
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement("SELECT COUNT(*) FROM " +
+										quote(getTableName(datasheetName)) +
+										" WHERE " + quote(columns.get(0)) + " = ?");
+			statement.setString(1, testcase);
+
+			ResultSet resultSet = statement.executeQuery();
+			resultSet.next();
+			return resultSet.getInt(1);
+		} catch (SQLException e) {
+			throw getDatabaseException(e, datasheetName);
+		} finally {
+			closeQuietly(statement);
+		}
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getRows(String testcase, int iteration)
+	{
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		Connection connection = getConnection();
+		try {
+			for (String datasheetName : getSheetNames(connection)) {
+				List<String> columns = getColumns(connection, datasheetName);
+
+				PreparedStatement statement = null;
+				try {
+					statement = connection.prepareStatement("SELECT * FROM " +
+									quote(getTableName(datasheetName)) + getKeyCondition(columns));
+					statement.setString(1, testcase);
+					statement.setString(2, Integer.toString(iteration));
+
+					ResultSet resultSet = statement.executeQuery();
+					if (resultSet.next()) {
+						rows.put(datasheetName, getRowValues(resultSet));
+					}
+				} catch (SQLException e) {
+					throw getDatabaseException(e, datasheetName);
+				} finally {
+					closeQuietly(statement);
+				}
+			}
+		} finally {
+			releaseConnection(connection);
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	private List<String> getSheetNames(Connection connection)
+	{
+		PreparedStatement statement = null;
+		try {
+			statement = connection.prepareStatement("SELECT SHEET_NAME FROM " + CATALOG_TABLE_NAME +
+												" WHERE DATATABLE_NAME = ? ORDER BY SHEET_ORDER");
+			statement.setString(1, datatableName);
+
+			List<String> sheetNames = new ArrayList<String>();
+			ResultSet resultSet = statement.executeQuery();
+			while (resultSet.next()) {
+				sheetNames.add(resultSet.getString(1));
+			}
+
+			if (sheetNames.isEmpty()) {
+				throw new FrameworkException("The datatable \"" + datatableName + "\"" +
+										"has not been imported into the database \"" + databaseUrl + "\"!");
+			}
+			return sheetNames;
+		} catch (SQLException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while reading the datatables listed within the database \"" +
+																				databaseUrl + "\"");
+		} finally {
+			closeQuietly(statement);
+		}
+	}
+
+	@Override
+	public String getData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		Connection connection = getConnection();
+		try {
+			List<String> columns = getColumns(connection, datasheetName);
+			checkColumn(columns, datasheetName, fieldName);
+
+			PreparedStatement statement = null;
+			try {
+				statement = connection.prepareStatement("SELECT " + quote(fieldName) + " FROM " +
+								quote(getTableName(datasheetName)) + getKeyCondition(columns));
+				statement.setString(1, testcase);
+				statement.setString(2, Integer.toString(iteration));
+
+				ResultSet resultSet = statement.executeQuery();
+				if (!resultSet.next()) {
+					throw getRowNotFoundException(connection, datasheetName, testcase, iteration);
+				}
+
+				String dataValue = resultSet.getString(1);
+				return (dataValue == null)? "" : dataValue;
+			} catch (SQLException e) {
+				throw getDatabaseException(e, datasheetName);
+			} finally {
+				closeQuietly(statement);
+			}
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	@Override
+	public Object getNativeData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		// All the values are stored as text, just as they appear within the Excel datatables
+		return getData(datasheetName, testcase, iteration, fieldName);
+	}
+
+	@Override
+	public Map<String, Object> getNativeRow(String datasheetName, String testcase, int iteration)
+	{
+		Connection connection = getConnection();
+		try {
+			List<String> columns = getColumns(connection, datasheetName);
+
+			PreparedStatement statement = null;
+			try {
+				statement = connection.prepareStatement("SELECT * FROM " +
+								quote(getTableName(datasheetName)) + getKeyCondition(columns));
+				statement.setString(1, testcase);
+				statement.setString(2, Integer.toString(iteration));
+
+				ResultSet resultSet = statement.executeQuery();
+				if (!resultSet.next()) {
+					throw getRowNotFoundException(connection, datasheetName, testcase, iteration);
+				}
+
+				return Collections.<String, Object>unmodifiableMap(getRowValues(resultSet));
+			} catch (SQLException e) {
+				throw getDatabaseException(e, datasheetName);
+			} finally {
+				closeQuietly(statement);
+			}
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	@Override
+	public void putData(String datasheetName, String testcase, int iteration,
+											String fieldName, String dataValue)
+	{
+		Connection connection = getConnection();
+		try {
+			List<String> columns = getColumns(connection, datasheetName);
+			checkColumn(columns, datasheetName, fieldName);
+
+			// Only the first row of the iteration is updated, just as with the other backends
+			PreparedStatement statement = null;
+			try {
+				statement = connection.prepareStatement("UPDATE " + quote(getTableName(datasheetName)) +
+								" SET " + quote(fieldName) + " = ?" +
+								" WHERE " + ROW_NUM_COLUMN_NAME + " = (SELECT MIN(" + ROW_NUM_COLUMN_NAME + ")" +
+								" FROM " + quote(getTableName(datasheetName)) +
+								" WHERE " + quote(columns.get(0)) + " = ? AND " + quote(columns.get(1)) + " = ?)");
+				statement.setString(1, dataValue);
+				statement.setString(2, testcase);
+				statement.setString(3, Integer.toString(iteration));
+
+				if (statement.executeUpdate() == 0) {
+					throw getRowNotFoundException(connection, datasheetName, testcase, iteration);
+				}
+			} catch (SQLException e) {
+				throw getDatabaseException(e, datasheetName);
+			} finally {
+				closeQuietly(statement);
+			}
+		} finally {
+			releaseConnection(connection);
+		}
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getReferenceRows(String datasheetName)
+	{
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>();
+
+		Connection connection = getConnection();
+		try {
+			getColumns(connection, datasheetName);
+
+			Statement statement = null;
+			try {
+				statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery("SELECT * FROM " +
+								quote(getTableName(datasheetName)) + " ORDER BY " + ROW_NUM_COLUMN_NAME);
+				while (resultSet.next()) {
+					Map<String, String> rowValues = getRowValues(resultSet);
+					// The reference IDs are present in the first column
+					String referenceId = rowValues.values().iterator().next();
+
+					if (!rows.containsKey(referenceId)) {	// The first occurrence takes precedence
+						rows.put(referenceId, rowValues);
+					}
+				}
+			} catch (SQLException e) {
+				throw getDatabaseException(e, datasheetName);
+			} finally {
+				closeQuietly(statement);
+			}
+		} finally {
+			releaseConnection(connection);
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	@Override
+	public File getSheetFile(String datasheetName)
+	{
+		// The tables are not stored within files of their own
+		return null;
+	}
+
+	/**
+	 * Function to import the specified Excel datatable into the database, replacing any earlier import of it.
+	 * Each sheet is loaded into a table of its own, indexed on the test case ID and the iteration number
+	 * (the columns without a header are skipped). The import is performed within a single transaction
+	 * @param datatablePath The path where the Excel datatable is stored
+	 * @see #JdbcDatatableBackend(String, String)
+	 */
+	public void importExcelDatatable(String datatablePath)
+	{
+		ExcelDataAccess excelDataAccess = new ExcelDataAccess(datatablePath, datatableName);
+		List<String> sheetNames = excelDataAccess.getSheetNames();
+
+		Connection connection = getConnection();
+		try {
+			connection.setAutoCommit(false);
+			try {
+				createCatalogTable(connection);
+				dropSheetTables(connection);
+
+				for (int sheetOrder = 0; sheetOrder < sheetNames.size(); sheetOrder++) {
+					excelDataAccess.setDatasheetName(sheetNames.get(sheetOrder));
+					importSheet(connection, excelDataAccess, sheetOrder);
+				}
+
+				connection.commit();
+			} catch (SQLException e) {
+				connection.rollback();
+				throw e;
+			} catch (RuntimeException e) {
+				connection.rollback();
+				throw e;
+			} finally {
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while importing the datatable \"" + datatableName + "\"" +
+														"into the database: " + e.getMessage());
+		} finally {
+			releaseConnection(connection);
+		}
+
+		for (String sheetName : sheetNames) {
+			tableColumns.remove(databaseUrl + "|" + getTableName(sheetName));
+		}
+	}
+
+	private void createCatalogTable(Connection connection) throws SQLException
+	{
+		DatabaseMetaData metaData = connection.getMetaData();
+		ResultSet tables = metaData.getTables(null, null, CATALOG_TABLE_NAME, null);
+		boolean catalogExists = tables.next();
+		tables.close();
+		if (catalogExists) {
+			return;
+		}
+
+		Statement statement = connection.createStatement();
+		try {
+			statement.executeUpdate("CREATE TABLE " + CATALOG_TABLE_NAME + " (" +
+									"DATATABLE_NAME VARCHAR(255) NOT NULL, " +
+									"SHEET_NAME VARCHAR(255) NOT NULL, " +
+									"SHEET_ORDER INTEGER NOT NULL, " +
+									"PRIMARY KEY (DATATABLE_NAME, SHEET_NAME))");
+		} finally {
+			closeQuietly(statement);
+		}
+	}
+
+	private void dropSheetTables(Connection connection) throws SQLException
+	{
+		List<String> sheetNames = new ArrayList<String>();
+		PreparedStatement selectStatement = connection.prepareStatement("SELECT SHEET_NAME FROM " +
+												CATALOG_TABLE_NAME + " WHERE DATATABLE_NAME = ?");
+		try {
+			selectStatement.setString(1, datatableName);
+			ResultSet resultSet = selectStatement.executeQuery();
+			while (resultSet.next()) {
+				sheetNames.add(resultSet.getString(1));
+			}
+		} finally {
+			closeQuietly(selectStatement);
+		}
+
+		Statement statement = connection.createStatement();
+		try {
+			for (String sheetName : sheetNames) {
+				statement.executeUpdate("DROP TABLE " + quote(getTableName(sheetName)));
+			}
+		} finally {
+			closeQuietly(statement);
+		}
+
+		PreparedStatement deleteStatement = connection.prepareStatement("DELETE FROM " +
+												CATALOG_TABLE_NAME + " WHERE DATATABLE_NAME = ?");
+		try {
+			deleteStatement.setString(1, datatableName);
+			deleteStatement.executeUpdate();
+		} finally {
+			closeQuietly(deleteStatement);
+		}
+	}
+
+	private void importSheet(Connection connection, ExcelDataAccess excelDataAccess,
+													int sheetOrder) throws SQLException
+	{
+		String datasheetName = excelDataAccess.getDatasheetName();
+		String tableName = quote(getTableName(datasheetName));
+
+		// Order the column headers as they appear within the sheet
+		final Map<String, Integer> columnNums = new HashMap<String, Integer>();
+		for (String columnHeader : excelDataAccess.getRowValues(0).keySet()) {
+			if (!columnHeader.equals("")) {
+				columnNums.put(columnHeader, excelDataAccess.getColumnNum(columnHeader));
+			}
+		}
+		List<String> columnHeaders = new ArrayList<String>(columnNums.keySet());
+		Collections.sort(columnHeaders, new Comparator<String>()
+		{
+			@Override
+			public int compare(String columnHeader1, String columnHeader2)
+			{
+				return columnNums.get(columnHeader1).compareTo(columnNums.get(columnHeader2));
+			}
+		});
+		if (columnHeaders.size() < 2) {
+			throw new FrameworkException("The sheet \"" + datasheetName + "\" of the datatable \"" +
+								datatableName + "\" must have the test case ID and iteration columns!");
+		}
+
+		StringBuilder createSql = new StringBuilder("CREATE TABLE " + tableName + " (" +
+												ROW_NUM_COLUMN_NAME + " INTEGER PRIMARY KEY");
+		StringBuilder insertSql = new StringBuilder("INSERT INTO " + tableName + " (" + ROW_NUM_COLUMN_NAME);
+		StringBuilder insertParameters = new StringBuilder("?");
+		for (String columnHeader : columnHeaders) {
+			createSql.append(", ").append(quote(columnHeader)).append(" VARCHAR(" + MAX_VALUE_LENGTH + ")");
+			insertSql.append(", ").append(quote(columnHeader));
+			insertParameters.append(", ?");
+		}
+		createSql.append(")");
+		insertSql.append(") VALUES (").append(insertParameters).append(")");
+
+		Statement statement = connection.createStatement();
+		try {
+			statement.executeUpdate(createSql.toString());
+			statement.executeUpdate("CREATE INDEX " + quote(getTableName(datasheetName) + "$KEY") +
+									" ON " + tableName + " (" + quote(columnHeaders.get(0)) + ", " +
+									quote(columnHeaders.get(1)) + ")");
+		} finally {
+			closeQuietly(statement);
+		}
+
+		PreparedStatement insertStatement = connection.prepareStatement(insertSql.toString());
+		try {
+			int rowNum = 1;	// Start at row 1, skipping the header row
+			for (Map<String, String> rowValues : excelDataAccess.getAllRows()) {
+				insertStatement.setInt(1, rowNum++);
+				for (int i = 0; i < columnHeaders.size(); i++) {
+					insertStatement.setString(i + 2, rowValues.get(columnHeaders.get(i)));
+				}
+				insertStatement.addBatch();
+			}
+			insertStatement.executeBatch();
+		} finally {
+			closeQuietly(insertStatement);
+		}
+
+		PreparedStatement catalogStatement = connection.prepareStatement("INSERT INTO " + CATALOG_TABLE_NAME +
+										" (DATATABLE_NAME, SHEET_NAME, SHEET_ORDER) VALUES (?, ?, ?)");
+		try {
+			catalogStatement.setString(1, datatableName);
+			catalogStatement.setString(2, datasheetName);
+			catalogStatement.setInt(3, sheetOrder);
+			catalogStatement.executeUpdate();
+		} finally {
+			closeQuietly(catalogStatement);
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Class which overlays the values recorded within a {@link DatatableJournal} on top of another {@link DatatableBackend}.
+ * The data is read from the underlying backend (with the recorded values taking precedence),
+ * while the data written is only recorded within the journal, leaving the underlying datatable untouched
+ * @author Cognizant
+ */
+final class JournalledDatatableBackend implements DatatableBackend
+{
+	private final DatatableBackend sourceBackend;
+	private final DatatableJournal journal;
+	private final String datatableName;
+
+
+	/**
+	 * Constructor to initialize the {@link JournalledDatatableBackend} object
+	 * @param sourceBackend The {@link DatatableBackend} of the original datatable
+	 * @param journal The {@link DatatableJournal} in which the data written is to be recorded
+	 * @param datatableName The name of the datatable
+	 */
+	JournalledDatatableBackend(DatatableBackend sourceBackend, DatatableJournal journal, String datatableName)
+	{
+		this.sourceBackend = sourceBackend;
+		this.journal = journal;
+		this.datatableName = datatableName;
+	}
+
+	@Override
+	public int getRowCount(String datasheetName, String testcase)
+	{
+		return sourceBackend.getRowCount(datasheetName, testcase);
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getRows(String testcase, int iteration)
+	{
+		Map<String, Map<String, String>> sourceRows = sourceBackend.getRows(testcase, iteration);
+		Map<String, Map<String, String>> rows = new HashMap<String, Map<String, String>>(sourceRows);
+
+		for (Map.Entry<String, Map<String, String>> sourceRow : sourceRows.entrySet()) {
+			Map<String, String> recordedValues =
+					journal.getRowValues(datatableName, sourceRow.getKey(), testcase, iteration);
+			if (!recordedValues.isEmpty()) {
+				Map<String, String> rowValues = new HashMap<String, String>(sourceRow.getValue());
+				rowValues.putAll(recordedValues);
+				rows.put(sourceRow.getKey(), Collections.unmodifiableMap(rowValues));
+			}
+		}
+
+		return Collections.unmodifiableMap(rows);
+	}
+
+	@Override
+	public String getData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		String dataValue = journal.getValue(datatableName, datasheetName, testcase, iteration, fieldName);
+		if (dataValue == null) {
+			dataValue = sourceBackend.getData(datasheetName, testcase, iteration, fieldName);
+		}
+
+		return dataValue;
+	}
+
+	@Override
+	public Object getNativeData(String datasheetName, String testcase, int iteration, String fieldName)
+	{
+		Object dataValue = journal.getValue(datatableName, datasheetName, testcase, iteration, fieldName);
+		if (dataValue == null) {
+			dataValue = sourceBackend.getNativeData(datasheetName, testcase, iteration, fieldName);
+		}
+
+		return dataValue;
+	}
+
+	@Override
+	public Map<String, Object> getNativeRow(String datasheetName, String testcase, int iteration)
+	{
+		Map<String, Object> sourceRow = sourceBackend.getNativeRow(datasheetName, testcase, iteration);
+		Map<String, String> recordedValues = journal.getRowValues(datatableName, datasheetName, testcase, iteration);
+		if (recordedValues.isEmpty()) {
+			return sourceRow;
+		}
+
+		Map<String, Object> rowValues = new HashMap<String, Object>(sourceRow);
+		rowValues.putAll(recordedValues);
+		return Collections.unmodifiableMap(rowValues);
+	}
+
+	@Override
+	public void putData(String datasheetName, String testcase, int iteration,
+											String fieldName, String dataValue)
+	{
+		// Look up the field within the original datatable, so that any error is reported in context
+		sourceBackend.getData(datasheetName, testcase, iteration, fieldName);
+
+		journal.record(datatableName, datasheetName, testcase, iteration, fieldName, dataValue);
+	}
+
+	@Override
+	public Map<String, Map<String, String>> getReferenceRows(String datasheetName)
+	{
+		return sourceBackend.getReferenceRows(datasheetName);
+	}
+
+	@Override
+	public File getSheetFile(String datasheetName)
+	{
+		return sourceBackend.getSheetFile(datasheetName);
+	}
+}
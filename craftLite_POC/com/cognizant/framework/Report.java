@@ -1,19 +1,10 @@
 package com.cognizant.framework;
 
-import java.awt.AWTException;
-import java.awt.Dimension;
-import java.awt.Rectangle;
-import java.awt.Robot;
-import java.awt.Toolkit;
-import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FilenameFilter;
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-
 
 /**
  * Class to encapsulate all the reporting features of the framework
@@ -29,6 +20,11 @@ public class Report
 	private int nTestsPassed = 0, nTestsFailed = 0;
 	
 	private List<ReportType> reportTypes = new ArrayList<ReportType>();
+	private ScreenshotStore screenshotStore;
+	private ScreenshotEncoder screenshotEncoder;
+	private ScreenshotWriter screenshotWriter;
+	// The names of the screenshots taken so far, in order (a screenshot taken more than once is listed each time)
+	private final List<String> screenshotNames = new ArrayList<String>();
 	
 	public String testStatus = "Passed";
 	/**
@@ -83,8 +79,26 @@ public class Report
 			reportTypes.add(htmlReport);
 		}
 		
+		if(reportSettings.generateReportsAsynchronously) {
+			// Render the report events to all the report types on a background thread
+			List<ReportType> asyncReportTypes = new ArrayList<ReportType>();
+			asyncReportTypes.add(new AsyncReportType(reportTypes,
+										reportSettings.getReportEventQueueCapacity(),
+										"ReportEventConsumer-" + reportSettings.getReportName()));
+			reportTypes = asyncReportTypes;
+		}
+		
 		new File(reportSettings.getReportPath() + Util.getFileSeparator() +
 															"Screenshots").mkdir();
+		screenshotStore = ScreenshotStore.getStore(reportSettings.getReportPath() +
+												Util.getFileSeparator() + "Screenshots");
+		screenshotEncoder = new ScreenshotEncoder(reportSettings);
+		
+		if(reportSettings.writeScreenshotsAsynchronously) {
+			screenshotWriter = new ScreenshotWriter(reportSettings.getScreenshotWriterThreads(),
+										reportSettings.getScreenshotQueueCapacity(),
+										"ScreenshotWriter-" + reportSettings.getReportName());
+		}
 	}
 	
 	
@@ -195,39 +209,28 @@ public class Report
 		
 		if(stepStatus.ordinal() <= reportSettings.getLogLevel())
 		{	
+			Date stepTime = Util.getCurrentTime();
 			String screenshotName = null;
 			
 			if(stepStatus.equals(Status.FAIL)) {
 				if(reportSettings.takeScreenshotFailedStep) {
-					screenshotName = reportSettings.getReportName() + "_" +
-										Util.getCurrentFormattedTime(reportSettings.getDateFormatString()).replace(" ", "_").replace(":", "-") + ".png";
-					takeScreenshot(reportSettings.getReportPath() +
-									Util.getFileSeparator() + "Screenshots" +
-									Util.getFileSeparator() + screenshotName);
+					screenshotName = takeScreenshot();
 				}
 			}
 			
 			if(stepStatus.equals(Status.PASS)) {
 				if(reportSettings.takeScreenshotPassedStep) {
-					screenshotName = reportSettings.getReportName() + "_" +
-										Util.getCurrentFormattedTime(reportSettings.getDateFormatString()).replace(" ", "_").replace(":", "-") + ".png";
-					takeScreenshot(reportSettings.getReportPath() +
-									Util.getFileSeparator() + "Screenshots" +
-									Util.getFileSeparator() + screenshotName);
+					screenshotName = takeScreenshot();
 				}
 			}
 			
 			if(stepStatus.equals(Status.SCREENSHOT))
 			{
-				screenshotName = reportSettings.getReportName() + "_" +
-									Util.getCurrentFormattedTime(reportSettings.getDateFormatString()).replace(" ", "_").replace(":", "-") + ".png";
-				takeScreenshot(reportSettings.getReportPath() +
-								Util.getFileSeparator() + "Screenshots" +
-								Util.getFileSeparator() + screenshotName);
+				screenshotName = takeScreenshot();
 			}
 			
 			for(int i=0; i < reportTypes.size();i++) {
-				reportTypes.get(i).updateTestLog(Integer.toString(stepNumber), stepName, stepDescription, stepStatus, screenshotName);
+				reportTypes.get(i).updateTestLog(Integer.toString(stepNumber), stepName, stepDescription, stepStatus, screenshotName, stepTime);
 			}
 			
 			stepNumber++;
@@ -235,48 +238,75 @@ public class Report
 	}
 	
 	/**
-	 * Function to take a screenshot
-	 * @param screenshotPath The path where the screenshot should be saved
+	 * Function to take a screenshot. The screenshot is captured right away and named after the hash of its content,
+	 * so that it is encoded and written only if an identical screenshot has not been written already
+	 * (in the background, if the screenshots are written asynchronously)
+	 * @return The name of the screenshot file (null if screenshots are not supported)
+	 * @see #captureScreenshot()
 	 */
-	protected void takeScreenshot(String screenshotPath)
+	protected String takeScreenshot()
 	{
-		Toolkit toolkit = Toolkit.getDefaultToolkit();
-		Dimension screenSize = toolkit.getScreenSize();
-		Rectangle rectangle = new Rectangle(0, 0, screenSize.width, screenSize.height);
-		Robot robot;
-		
-		try {
-			robot = new Robot();
-		} catch (AWTException e) {
-			e.printStackTrace();
-			throw new FrameworkException("Error while creating Robot object (for taking screenshot)");
+		Screenshot screenshot = captureScreenshot();
+		if (screenshot == null) {
+			return null;
 		}
 		
-		BufferedImage screenshotImage = robot.createScreenCapture(rectangle);
-		File screenshotFile = new File (screenshotPath);
-		
-		try {
-			ImageIO.write(screenshotImage, "jpg", screenshotFile);
-		} catch (IOException e) {
-			e.printStackTrace();
-			throw new FrameworkException("Error while writing screenshot to .jpg file");
+		String screenshotName = screenshotStore.getScreenshotName(screenshot,
+												screenshotEncoder.getFileExtension());
+		if (screenshotStore.reserve(screenshotName)) {
+			if (screenshotWriter != null) {
+				screenshotWriter.write(screenshotStore, screenshotName, screenshot, screenshotEncoder);
+			} else {
+				screenshotStore.write(screenshotName, screenshot, screenshotEncoder);
+			}
 		}
+		
+		screenshotNames.add(screenshotName);
+		return screenshotName;
+	}
+	
+	/**
+	 * Function to capture a screenshot. The screenshot may be captured in any format readable by {@link javax.imageio.ImageIO},
+	 * since it is stitched, cropped and encoded as per the {@link ReportSettings} before being written (lossless formats are preferable).
+	 * Only the raw images are to be captured here, so as to leave their decoding to the writing of the screenshot.
+	 * The screenshots are to be captured by the reports which have access to the application under test;
+	 * the desktop is never captured, since tests running in parallel would capture each other's windows
+	 * @return The captured {@link Screenshot} (null if screenshots are not supported)
+	 */
+	protected Screenshot captureScreenshot()
+	{
+		return null;
 	}
 	
 	/**
 	 * Function to add a footer to the test log
-	 * (The footer format is pre-defined - it contains the execution time and the number of passed/failed steps)
+	 * (The footer format is pre-defined - it contains the execution time and the number of passed/failed steps).
+	 * All pending screenshots are written before the footer is added
 	 * @param executionTime The time taken to execute the test case
 	 */
 	public void addTestLogFooter(String executionTime)
 	{
+		FrameworkException screenshotError = null;
+		if (screenshotWriter != null) {
+			try {
+				screenshotWriter.drain();
+			} catch (FrameworkException e) {
+				// Complete the test log before reporting the error
+				screenshotError = e;
+			}
+		}
+		
 		for(int i=0; i < reportTypes.size(); i++) {
 			reportTypes.get(i).addTestLogFooter(executionTime, nStepsPassed, nStepsFailed);
 		}
+		
+		if (screenshotError != null) {
+			throw screenshotError;
+		}
 	}
 	
 	/**
-	 * Function to consolidate all screenshots into a Word document
+	 * Function to consolidate all the screenshots taken during the test into a Word document, in the order they were taken
 	 */
 	public void consolidateScreenshotsInWordDoc()
 	{
@@ -289,29 +319,15 @@ public class Report
 				new WordDocumentManager(screenshotsConsolidatedFolderPath,
 											reportSettings.getReportName());
 		
-		String screenshotsFolderPath = reportSettings.getReportPath() +
-											Util.getFileSeparator() +
-											"Screenshots";
-		File screenshotsFolder = new File(screenshotsFolderPath);
-		
-		FilenameFilter filenameFilter = new FilenameFilter() {
-			@Override
-			public boolean accept(File dir, String fileName) {
-				if (fileName.contains(reportSettings.getReportName())) {
-					return true;
-				} else {
-					return false;
-				}
+		if (!screenshotNames.isEmpty()) {
+			List<File> screenshotFiles = new ArrayList<File>(screenshotNames.size());
+			for(String screenshotName: screenshotNames) {
+				// The screenshot may be written by another test which took an identical screenshot
+				screenshotStore.awaitWritten(screenshotName);
+				screenshotFiles.add(screenshotStore.getScreenshotFile(screenshotName));
 			}
-		};
-		
-		File[] screenshots = screenshotsFolder.listFiles(filenameFilter);
-		if (screenshots != null && screenshots.length > 0) {
-			documentManager.createDocument();
 			
-			for(File screenshot: screenshots) {
-				documentManager.addPicture(screenshot);
-			}
+			documentManager.createDocument(screenshotFiles);
 		}
 	}
 	
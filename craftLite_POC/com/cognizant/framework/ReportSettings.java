@@ -113,6 +113,291 @@ public class ReportSettings
 	 */
 	public boolean consolidateScreenshotsInWordDoc = false;
 	
+	/**
+	 * Boolean variable indicating whether the Excel test log should be built in memory
+	 * and written into the file only once, when the test log footer is added
+	 * @see #setExcelTestLogCheckpointInterval(int)
+	 */
+	public boolean bufferExcelTestLog = false;
+	
+	private int excelTestLogCheckpointInterval = 0;
+	/**
+	 * Function to get the number of updates after which a buffered Excel test log is written into the file
+	 * (0 indicates that the test log is written only when the footer is added)
+	 * @return The Excel test log checkpoint interval
+	 * @see #bufferExcelTestLog
+	 */
+	public int getExcelTestLogCheckpointInterval()
+	{
+		return excelTestLogCheckpointInterval;
+	}
+	/**
+	 * Function to set the number of updates after which a buffered Excel test log is written into the file
+	 * (0 indicates that the test log is written only when the footer is added)
+	 * @param excelTestLogCheckpointInterval The Excel test log checkpoint interval
+	 * @see #bufferExcelTestLog
+	 */
+	public void setExcelTestLogCheckpointInterval(int excelTestLogCheckpointInterval)
+	{
+		if (excelTestLogCheckpointInterval < 0)
+			excelTestLogCheckpointInterval = 0;
+		
+		this.excelTestLogCheckpointInterval = excelTestLogCheckpointInterval;
+	}
+	
+	private int htmlReportFlushRowInterval = 10;
+	/**
+	 * Function to get the number of rows after which the HTML reports are flushed into the file
+	 * (0 indicates that the reports are not flushed based on the number of rows)
+	 * @return The HTML report flush row interval
+	 * @see #getHtmlReportFlushTimeInterval()
+	 */
+	public int getHtmlReportFlushRowInterval()
+	{
+		return htmlReportFlushRowInterval;
+	}
+	/**
+	 * Function to set the number of rows after which the HTML reports are flushed into the file
+	 * (0 indicates that the reports are not flushed based on the number of rows)
+	 * @param htmlReportFlushRowInterval The HTML report flush row interval
+	 * @see #setHtmlReportFlushTimeInterval(long)
+	 */
+	public void setHtmlReportFlushRowInterval(int htmlReportFlushRowInterval)
+	{
+		if (htmlReportFlushRowInterval < 0)
+			htmlReportFlushRowInterval = 0;
+		
+		this.htmlReportFlushRowInterval = htmlReportFlushRowInterval;
+	}
+	
+	private long htmlReportFlushTimeInterval = 5000;
+	/**
+	 * Function to get the time (in milliseconds) after which the HTML reports are flushed into the file,
+	 * checked whenever a row is written (0 indicates that the reports are not flushed based on time)
+	 * @return The HTML report flush time interval
+	 * @see #getHtmlReportFlushRowInterval()
+	 */
+	public long getHtmlReportFlushTimeInterval()
+	{
+		return htmlReportFlushTimeInterval;
+	}
+	/**
+	 * Function to set the time (in milliseconds) after which the HTML reports are flushed into the file,
+	 * checked whenever a row is written (0 indicates that the reports are not flushed based on time)
+	 * @param htmlReportFlushTimeInterval The HTML report flush time interval
+	 * @see #setHtmlReportFlushRowInterval(int)
+	 */
+	public void setHtmlReportFlushTimeInterval(long htmlReportFlushTimeInterval)
+	{
+		if (htmlReportFlushTimeInterval < 0)
+			htmlReportFlushTimeInterval = 0;
+		
+		this.htmlReportFlushTimeInterval = htmlReportFlushTimeInterval;
+	}
+	
+	/**
+	 * Boolean variable indicating whether the HTML reports must be flushed into the file immediately on a failure
+	 */
+	public boolean flushHtmlReportOnFailure = true;
+	
+	/**
+	 * Boolean variable indicating whether the reports must be generated on a background thread,
+	 * so that the test execution is not held up by the report I/O
+	 * @see #setReportEventQueueCapacity(int)
+	 */
+	public boolean generateReportsAsynchronously = false;
+	
+	private int reportEventQueueCapacity = 1000;
+	/**
+	 * Function to get the maximum number of report events which may be pending while generating the reports asynchronously
+	 * @return The report event queue capacity
+	 * @see #generateReportsAsynchronously
+	 */
+	public int getReportEventQueueCapacity()
+	{
+		return reportEventQueueCapacity;
+	}
+	/**
+	 * Function to set the maximum number of report events which may be pending while generating the reports asynchronously
+	 * (the test execution is blocked whenever this limit is reached)
+	 * @param reportEventQueueCapacity The report event queue capacity
+	 * @see #generateReportsAsynchronously
+	 */
+	public void setReportEventQueueCapacity(int reportEventQueueCapacity)
+	{
+		if (reportEventQueueCapacity < 1) {
+			throw new FrameworkException("The report event queue capacity should be at least 1");
+		}
+		
+		this.reportEventQueueCapacity = reportEventQueueCapacity;
+	}
+	
+	/**
+	 * Boolean variable indicating whether the screenshots must be written into their files on background threads,
+	 * so that the test execution is held up only while the screenshots are captured
+	 * @see #setScreenshotWriterThreads(int)
+	 * @see #setScreenshotQueueCapacity(int)
+	 */
+	public boolean writeScreenshotsAsynchronously = false;
+	
+	private int screenshotWriterThreads = 2;
+	/**
+	 * Function to get the number of background threads which write the screenshots
+	 * @return The number of screenshot writer threads
+	 * @see #writeScreenshotsAsynchronously
+	 */
+	public int getScreenshotWriterThreads()
+	{
+		return screenshotWriterThreads;
+	}
+	/**
+	 * Function to set the number of background threads which write the screenshots
+	 * @param screenshotWriterThreads The number of screenshot writer threads
+	 * @see #writeScreenshotsAsynchronously
+	 */
+	public void setScreenshotWriterThreads(int screenshotWriterThreads)
+	{
+		if (screenshotWriterThreads < 1) {
+			throw new FrameworkException("The number of screenshot writer threads should be at least 1");
+		}
+		
+		this.screenshotWriterThreads = screenshotWriterThreads;
+	}
+	
+	private int screenshotQueueCapacity = 10;
+	/**
+	 * Function to get the maximum number of screenshots which may be waiting to be written
+	 * while writing the screenshots asynchronously
+	 * @return The screenshot queue capacity
+	 * @see #writeScreenshotsAsynchronously
+	 */
+	public int getScreenshotQueueCapacity()
+	{
+		return screenshotQueueCapacity;
+	}
+	/**
+	 * Function to set the maximum number of screenshots which may be waiting to be written
+	 * while writing the screenshots asynchronously
+	 * (the test execution writes the screenshots itself whenever this limit is reached)
+	 * @param screenshotQueueCapacity The screenshot queue capacity
+	 * @see #writeScreenshotsAsynchronously
+	 */
+	public void setScreenshotQueueCapacity(int screenshotQueueCapacity)
+	{
+		if (screenshotQueueCapacity < 1) {
+			throw new FrameworkException("The screenshot queue capacity should be at least 1");
+		}
+		
+		this.screenshotQueueCapacity = screenshotQueueCapacity;
+	}
+	
+	private ScreenshotFormat screenshotFormat = ScreenshotFormat.Png;
+	/**
+	 * Function to get the format in which the screenshots are stored
+	 * @return The screenshot format
+	 * @see ScreenshotFormat
+	 */
+	public ScreenshotFormat getScreenshotFormat()
+	{
+		return screenshotFormat;
+	}
+	/**
+	 * Function to set the format in which the screenshots are stored
+	 * @param screenshotFormat The screenshot format
+	 * @see ScreenshotFormat
+	 */
+	public void setScreenshotFormat(ScreenshotFormat screenshotFormat)
+	{
+		if (screenshotFormat == null) {
+			throw new FrameworkException("The screenshot format should not be null");
+		}
+		
+		this.screenshotFormat = screenshotFormat;
+	}
+	
+	private int screenshotMaxWidth = 0;
+	/**
+	 * Function to get the maximum width (in pixels) of the stored screenshots,
+	 * beyond which the screenshots are scaled down preserving their aspect ratio (0 indicates no limit)
+	 * @return The maximum screenshot width
+	 * @see #getScreenshotMaxHeight()
+	 */
+	public int getScreenshotMaxWidth()
+	{
+		return screenshotMaxWidth;
+	}
+	/**
+	 * Function to set the maximum width (in pixels) of the stored screenshots,
+	 * beyond which the screenshots are scaled down preserving their aspect ratio (0 indicates no limit)
+	 * @param screenshotMaxWidth The maximum screenshot width
+	 * @see #setScreenshotMaxHeight(int)
+	 */
+	public void setScreenshotMaxWidth(int screenshotMaxWidth)
+	{
+		if (screenshotMaxWidth < 0) {
+			throw new FrameworkException("The maximum screenshot width should not be negative");
+		}
+		
+		this.screenshotMaxWidth = screenshotMaxWidth;
+	}
+	
+	private int screenshotMaxHeight = 0;
+	/**
+	 * Function to get the maximum height (in pixels) of the stored screenshots,
+	 * beyond which the screenshots are scaled down preserving their aspect ratio (0 indicates no limit)
+	 * @return The maximum screenshot height
+	 * @see #getScreenshotMaxWidth()
+	 */
+	public int getScreenshotMaxHeight()
+	{
+		return screenshotMaxHeight;
+	}
+	/**
+	 * Function to set the maximum height (in pixels) of the stored screenshots,
+	 * beyond which the screenshots are scaled down preserving their aspect ratio (0 indicates no limit)
+	 * @param screenshotMaxHeight The maximum screenshot height
+	 * @see #setScreenshotMaxWidth(int)
+	 */
+	public void setScreenshotMaxHeight(int screenshotMaxHeight)
+	{
+		if (screenshotMaxHeight < 0) {
+			throw new FrameworkException("The maximum screenshot height should not be negative");
+		}
+		
+		this.screenshotMaxHeight = screenshotMaxHeight;
+	}
+	
+	private float screenshotQuality = 0.8f;
+	/**
+	 * Function to get the quality (between 0 and 1) with which the screenshots are compressed,
+	 * applicable only to the lossy screenshot formats
+	 * @return The screenshot quality
+	 * @see #getScreenshotFormat()
+	 */
+	public float getScreenshotQuality()
+	{
+		return screenshotQuality;
+	}
+	/**
+	 * Function to set the quality (between 0 and 1) with which the screenshots are compressed,
+	 * applicable only to the lossy screenshot formats
+	 * @param screenshotQuality The screenshot quality
+	 * @see #setScreenshotFormat(ScreenshotFormat)
+	 */
+	public void setScreenshotQuality(float screenshotQuality)
+	{
+		if (screenshotQuality < 0 || screenshotQuality > 1) {
+			throw new FrameworkException("The screenshot quality should be between 0 and 1");
+		}
+		
+		this.screenshotQuality = screenshotQuality;
+	}
+	
+	/**
+	 * Boolean variable indicating whether the screenshots must be stored in grayscale
+	 */
+	public boolean grayscaleScreenshots = false;
+	
 	private String dateFormatString = "dd-MMM-yyyy hh:mm:ss a";
 	/**
 	 * Function to get a string indicating the format for the date/time to be used within the report
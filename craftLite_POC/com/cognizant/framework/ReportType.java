@@ -1,5 +1,7 @@
 package com.cognizant.framework;
 
+import java.util.Date;
+
 
 /**
  * Interface representing a type of report available with the framework
@@ -61,6 +63,19 @@ public interface ReportType
 								String stepDescription,	Status stepStatus,
 								String screenshotName);
 	
+	/**
+	 * Function to update the test log with the details of a particular test step which was logged at the specified time
+	 * @param stepNumber The current step number
+	 * @param stepName The test step name
+	 * @param stepDescription The description of what the test step does
+	 * @param stepStatus The {@link Status} of the test step
+	 * @param screenshotName The filename of the screenshot file (in case of failed step)
+	 * @param stepTime The time at which the test step was logged
+	 */
+	public void updateTestLog(String stepNumber, String stepName,
+								String stepDescription,	Status stepStatus,
+								String screenshotName, Date stepTime);
+	
 	/**
 	 * Function to create a footer to close the test log
 	 * @param executionTime The time taken to execute the test case
@@ -0,0 +1,152 @@
+package com.cognizant.framework;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Class representing a screenshot as captured, before it is encoded.
+ * A screenshot consists of one or more raw images (e.g., the successive viewports of a scrolled page),
+ * which are stitched together at their offsets and cropped only when the screenshot is encoded,
+ * so that the decoding is left to the {@link ScreenshotEncoder} (in the background, if the screenshots are written asynchronously)
+ * @author Cognizant
+ */
+public final class Screenshot
+{
+	private final List<byte[]> images = new ArrayList<byte[]>();
+	private final List<Integer> imageOffsets = new ArrayList<Integer>();
+	private final int height;
+	private int cropX, cropY, cropWidth, cropHeight;
+	
+	
+	/**
+	 * Constructor to initialize a screenshot consisting of a single captured image
+	 * @param image The captured image (in any format readable by {@link javax.imageio.ImageIO})
+	 */
+	public Screenshot(byte[] image)
+	{
+		this.height = 0;
+		addImage(image, 0);
+	}
+	
+	/**
+	 * Constructor to initialize a screenshot which is stitched together from the images added to it
+	 * @param height The height of the stitched screenshot (in pixels)
+	 * @see #addImage(byte[], int)
+	 */
+	public Screenshot(int height)
+	{
+		if (height <= 0) {
+			throw new FrameworkException("The height of the stitched screenshot should be positive");
+		}
+		
+		this.height = height;
+	}
+	
+	/**
+	 * Function to add a captured image to the screenshot. The first image added determines the width of the screenshot,
+	 * and a first image which is at least as tall as the screenshot is used on its own
+	 * @param image The captured image (in any format readable by {@link javax.imageio.ImageIO})
+	 * @param offset The vertical offset (in pixels) at which the image is to be placed within the screenshot
+	 */
+	public void addImage(byte[] image, int offset)
+	{
+		images.add(image);
+		imageOffsets.add(offset);
+	}
+	
+	/**
+	 * Function to crop the screenshot to the specified rectangle, which is clipped to the bounds of the screenshot
+	 * (the screenshot is not cropped if the rectangle lies outside the screenshot)
+	 * @param x The left edge of the rectangle (in pixels)
+	 * @param y The top edge of the rectangle (in pixels)
+	 * @param width The width of the rectangle (in pixels)
+	 * @param height The height of the rectangle (in pixels)
+	 */
+	public void setCrop(int x, int y, int width, int height)
+	{
+		this.cropX = x;
+		this.cropY = y;
+		this.cropWidth = width;
+		this.cropHeight = height;
+	}
+	
+	/**
+	 * Function to check whether the screenshot consists of a single image which is neither stitched nor cropped
+	 * @return Boolean value indicating whether the screenshot may be encoded from its only image as is
+	 */
+	boolean isSingleImage()
+	{
+		return images.size() == 1 && height == 0 && cropWidth <= 0 && cropHeight <= 0;
+	}
+	
+	int getImageCount()
+	{
+		return images.size();
+	}
+	
+	byte[] getImage(int index)
+	{
+		return images.get(index);
+	}
+	
+	int getImageOffset(int index)
+	{
+		return imageOffsets.get(index);
+	}
+	
+	int getHeight()
+	{
+		return height;
+	}
+	
+	int getCropX()
+	{
+		return cropX;
+	}
+	
+	int getCropY()
+	{
+		return cropY;
+	}
+	
+	int getCropWidth()
+	{
+		return cropWidth;
+	}
+	
+	int getCropHeight()
+	{
+		return cropHeight;
+	}
+	
+	/**
+	 * Function to add the content of the screenshot (the images, as well as how they are stitched and cropped)
+	 * to the specified message digest
+	 * @param messageDigest The {@link MessageDigest} to be updated
+	 */
+	void updateDigest(MessageDigest messageDigest)
+	{
+		for (byte[] image : images) {
+			messageDigest.update(image);
+		}
+		
+		// A single image is identified by its content alone, as are the screenshot files written by the earlier executions
+		if (!isSingleImage()) {
+			for (int imageOffset : imageOffsets) {
+				updateDigest(messageDigest, imageOffset);
+			}
+			int[] geometry = {height, cropX, cropY, cropWidth, cropHeight};
+			for (int value : geometry) {
+				updateDigest(messageDigest, value);
+			}
+		}
+	}
+	
+	private static void updateDigest(MessageDigest messageDigest, int value)
+	{
+		messageDigest.update(new byte[] {(byte) (value >>> 24), (byte) (value >>> 16),
+											(byte) (value >>> 8), (byte) value});
+	}
+}
@@ -0,0 +1,254 @@
+package com.cognizant.framework;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+
+/**
+ * Class which encodes the captured screenshots as per the screenshot settings within the {@link ReportSettings}
+ * (format, maximum dimensions, quality and grayscale), after stitching and cropping them as captured.
+ * Screenshots which are already in the required form are passed through without being decoded
+ * @author Cognizant
+ */
+class ScreenshotEncoder
+{
+	private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+	private final ScreenshotFormat screenshotFormat;
+	private final int maxWidth, maxHeight;
+	private final float quality;
+	private final boolean grayscale;
+
+
+	/**
+	 * Constructor to initialize the {@link ScreenshotEncoder}
+	 * @param reportSettings The {@link ReportSettings} which specify how the screenshots are to be encoded
+	 */
+	ScreenshotEncoder(ReportSettings reportSettings)
+	{
+		this.screenshotFormat = reportSettings.getScreenshotFormat();
+		this.maxWidth = reportSettings.getScreenshotMaxWidth();
+		this.maxHeight = reportSettings.getScreenshotMaxHeight();
+		this.quality = reportSettings.getScreenshotQuality();
+		this.grayscale = reportSettings.grayscaleScreenshots;
+	}
+
+	/**
+	 * Function to get the file extension corresponding to the format of the encoded screenshots
+	 * @return The file extension (e.g., ".png")
+	 */
+	String getFileExtension()
+	{
+		switch (screenshotFormat) {
+		case Jpeg:
+			return ".jpg";
+
+		default:
+			return ".png";
+		}
+	}
+
+	/**
+	 * Function to encode the specified screenshot
+	 * @param screenshot The captured {@link Screenshot}
+	 * @return The encoded screenshot
+	 */
+	byte[] encode(Screenshot screenshot)
+	{
+		BufferedImage image;
+		if (screenshot.isSingleImage()) {
+			byte[] capturedImage = screenshot.getImage(0);
+			if (screenshotFormat == ScreenshotFormat.Png && maxWidth == 0 && maxHeight == 0 &&
+												!grayscale && isPng(capturedImage)) {
+				return capturedImage;
+			}
+			image = decode(capturedImage);
+		} else {
+			image = crop(stitch(screenshot), screenshot);
+		}
+
+		image = convert(downscale(image));
+
+		try {
+			return write(image);
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while encoding the screenshot as " + screenshotFormat);
+		}
+	}
+
+	private static BufferedImage decode(byte[] capturedImage)
+	{
+		BufferedImage image;
+		try {
+			image = ImageIO.read(new ByteArrayInputStream(capturedImage));
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while decoding the screenshot");
+		}
+		if (image == null) {
+			throw new FrameworkException("The format of the screenshot is not supported!");
+		}
+
+		return image;
+	}
+
+	private static BufferedImage stitch(Screenshot screenshot)
+	{
+		BufferedImage firstImage = decode(screenshot.getImage(0));
+		if (screenshot.getHeight() == 0 || firstImage.getHeight() >= screenshot.getHeight()) {
+			// Some drivers capture the entire page on their own
+			return firstImage;
+		}
+
+		BufferedImage stitchedImage = new BufferedImage(firstImage.getWidth(), screenshot.getHeight(),
+																		BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = stitchedImage.createGraphics();
+		try {
+			graphics.drawImage(firstImage, 0, screenshot.getImageOffset(0), null);
+			for (int i = 1; i < screenshot.getImageCount(); i++) {
+				graphics.drawImage(decode(screenshot.getImage(i)), 0, screenshot.getImageOffset(i), null);
+			}
+		} finally {
+			graphics.dispose();
+		}
+
+		return stitchedImage;
+	}
+
+	private static BufferedImage crop(BufferedImage image, Screenshot screenshot)
+	{
+		int left = Math.max(0, screenshot.getCropX());
+		int top = Math.max(0, screenshot.getCropY());
+		int right = Math.min(image.getWidth(), screenshot.getCropX() + screenshot.getCropWidth());
+		int bottom = Math.min(image.getHeight(), screenshot.getCropY() + screenshot.getCropHeight());
+		if (right <= left || bottom <= top) {
+			// Not cropped, or the crop rectangle lies outside the screenshot
+			return image;
+		}
+
+		return image.getSubimage(left, top, right - left, bottom - top);
+	}
+
+	private static boolean isPng(byte[] screenshot)
+	{
+		if (screenshot.length < PNG_SIGNATURE.length) {
+			return false;
+		}
+
+		for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+			if (screenshot[i] != PNG_SIGNATURE[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private BufferedImage downscale(BufferedImage image)
+	{
+		double scale = 1;
+		if (maxWidth > 0 && image.getWidth() > maxWidth) {
+			scale = Math.min(scale, (double) maxWidth / image.getWidth());
+		}
+		if (maxHeight > 0 && image.getHeight() > maxHeight) {
+			scale = Math.min(scale, (double) maxHeight / image.getHeight());
+		}
+		if (scale == 1) {
+			return image;
+		}
+
+		int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+		int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+		// Halve the image repeatedly before the final step, since bilinear scaling by more than half skips pixels
+		BufferedImage scaledImage = image;
+		int width = image.getWidth(), height = image.getHeight();
+		do {
+			width = Math.max(targetWidth, width / 2);
+			height = Math.max(targetHeight, height / 2);
+			scaledImage = resize(scaledImage, width, height);
+		} while (width != targetWidth || height != targetHeight);
+
+		return scaledImage;
+	}
+
+	private static BufferedImage resize(BufferedImage image, int width, int height)
+	{
+		BufferedImage resizedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = resizedImage.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+
+		return resizedImage;
+	}
+
+	private BufferedImage convert(BufferedImage image)
+	{
+		int imageType;
+		if (grayscale) {
+			imageType = BufferedImage.TYPE_BYTE_GRAY;
+		} else if (screenshotFormat == ScreenshotFormat.Jpeg) {
+			imageType = BufferedImage.TYPE_INT_RGB;	// JPEG does not support transparency
+		} else {
+			return image;
+		}
+
+		if (image.getType() == imageType) {
+			return image;
+		}
+
+		BufferedImage convertedImage = new BufferedImage(image.getWidth(), image.getHeight(), imageType);
+		Graphics2D graphics = convertedImage.createGraphics();
+		try {
+			graphics.drawImage(image, 0, 0, null);
+		} finally {
+			graphics.dispose();
+		}
+
+		return convertedImage;
+	}
+
+	private byte[] write(BufferedImage image) throws IOException
+	{
+		String formatName = (screenshotFormat == ScreenshotFormat.Jpeg)? "jpeg" : "png";
+		Iterator<ImageWriter> imageWriters = ImageIO.getImageWritersByFormatName(formatName);
+		if (!imageWriters.hasNext()) {
+			throw new FrameworkException("No image writer is available for the format " + screenshotFormat);
+		}
+		ImageWriter imageWriter = imageWriters.next();
+
+		ImageWriteParam writeParam = imageWriter.getDefaultWriteParam();
+		if (screenshotFormat == ScreenshotFormat.Jpeg) {
+			writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			writeParam.setCompressionQuality(quality);
+		}
+
+		ByteArrayOutputStream encodedScreenshot = new ByteArrayOutputStream();
+		ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(encodedScreenshot);
+		try {
+			imageWriter.setOutput(imageOutputStream);
+			imageWriter.write(null, new IIOImage(image, null, null), writeParam);
+		} finally {
+			imageWriter.dispose();
+			imageOutputStream.close();
+		}
+
+		return encodedScreenshot.toByteArray();
+	}
+}
@@ -0,0 +1,18 @@
+package com.cognizant.framework;
+
+/**
+ * Enumeration to represent the image formats in which the screenshots may be stored
+ * @author Cognizant
+ * @see ReportSettings#setScreenshotFormat(ScreenshotFormat)
+ */
+public enum ScreenshotFormat
+{
+	/**
+	 * Lossless PNG images (.png), which suit the flat colours of most web pages best
+	 */
+	Png,
+	/**
+	 * Lossy JPEG images (.jpg), compressed as per the screenshot quality setting
+	 */
+	Jpeg;
+}
@@ -0,0 +1,169 @@
+package com.cognizant.framework;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+
+/**
+ * Class to manage a folder of screenshots named after the hash of their content,
+ * so that each distinct screenshot is written only once, however many steps (or tests) it is taken for.
+ * One store is shared by all the reports writing into the same folder, and each screenshot file is written
+ * by whichever report reserves it first (the other reports may wait until it has been written)
+ * @author Cognizant
+ */
+final class ScreenshotStore
+{
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private static final ConcurrentMap<String, ScreenshotStore> stores =
+									new ConcurrentHashMap<String, ScreenshotStore>();
+
+	private final File screenshotsFolder;
+	// Latches which are released once the corresponding screenshot files have been written, keyed by screenshot name
+	private final ConcurrentMap<String, CountDownLatch> screenshotsWritten =
+									new ConcurrentHashMap<String, CountDownLatch>();
+
+
+	private ScreenshotStore(File screenshotsFolder)
+	{
+		this.screenshotsFolder = screenshotsFolder;
+	}
+
+	/**
+	 * Function to get the store corresponding to the specified screenshots folder
+	 * @param screenshotsPath The path of the folder in which the screenshots are stored
+	 * @return The {@link ScreenshotStore} corresponding to the folder
+	 */
+	static ScreenshotStore getStore(String screenshotsPath)
+	{
+		File screenshotsFolder = new File(screenshotsPath).getAbsoluteFile();
+		String storeKey = screenshotsFolder.getPath();
+
+		ScreenshotStore store = stores.get(storeKey);
+		if (store == null) {
+			ScreenshotStore newStore = new ScreenshotStore(screenshotsFolder);
+			store = stores.putIfAbsent(storeKey, newStore);
+			if (store == null) {
+				store = newStore;
+			}
+		}
+
+		return store;
+	}
+
+	/**
+	 * Function to get the name of the file in which the specified screenshot is stored
+	 * @param screenshot The captured {@link Screenshot} (hashed before encoding, so that the encoding need not be repeated
+	 * for identical screenshots)
+	 * @param fileExtension The file extension corresponding to the encoding of the screenshot (e.g., ".png")
+	 * @return The name of the screenshot file (the SHA-1 hash of the screenshot, followed by the file extension)
+	 */
+	String getScreenshotName(Screenshot screenshot, String fileExtension)
+	{
+		MessageDigest messageDigest;
+		try {
+			messageDigest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			e.printStackTrace();
+			throw new FrameworkException("The SHA-1 algorithm (required to name the screenshots) is not available");
+		}
+
+		screenshot.updateDigest(messageDigest);
+		byte[] hash = messageDigest.digest();
+		StringBuilder screenshotName = new StringBuilder(hash.length * 2 + fileExtension.length());
+		for (byte hashByte : hash) {
+			screenshotName.append(HEX_DIGITS[(hashByte >> 4) & 0xF]).append(HEX_DIGITS[hashByte & 0xF]);
+		}
+
+		return screenshotName.append(fileExtension).toString();
+	}
+
+	/**
+	 * Function to reserve the specified screenshot file for writing
+	 * @param screenshotName The name of the screenshot file
+	 * @return Boolean value indicating whether the screenshot is to be written by the caller,
+	 * using {@link #write(String, Screenshot, ScreenshotEncoder)}
+	 * (false if it has already been written, or reserved by another caller)
+	 */
+	boolean reserve(String screenshotName)
+	{
+		CountDownLatch screenshotWritten = new CountDownLatch(1);
+		if (screenshotsWritten.putIfAbsent(screenshotName, screenshotWritten) != null) {
+			return false;
+		}
+
+		// The screenshot may have been written into the folder by an earlier execution
+		if (getScreenshotFile(screenshotName).exists()) {
+			screenshotWritten.countDown();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Function to encode and write the specified screenshot (reserved earlier) into its file.
+	 * The file is replaced in one step, so that it is never seen partially written
+	 * @param screenshotName The name of the screenshot file
+	 * @param screenshot The captured {@link Screenshot}
+	 * @param screenshotEncoder The {@link ScreenshotEncoder} with which the screenshot is to be encoded
+	 * @see #reserve(String)
+	 */
+	void write(String screenshotName, Screenshot screenshot, ScreenshotEncoder screenshotEncoder)
+	{
+		File screenshotFile = getScreenshotFile(screenshotName);
+		File temporaryFile = new File(screenshotFile.getPath() + ".tmp");
+		try {
+			Files.write(temporaryFile.toPath(), screenshotEncoder.encode(screenshot));
+			try {
+				Files.move(temporaryFile.toPath(), screenshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+																	StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile.toPath(), screenshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			throw new FrameworkException("Error while writing screenshot to file");
+		} finally {
+			// Release the waiting readers even if the encoding or write fails, since it is not retried
+			screenshotsWritten.get(screenshotName).countDown();
+		}
+	}
+
+	/**
+	 * Function to wait until the specified screenshot file has been written (by whichever report reserved it)
+	 * @param screenshotName The name of the screenshot file
+	 */
+	void awaitWritten(String screenshotName)
+	{
+		CountDownLatch screenshotWritten = screenshotsWritten.get(screenshotName);
+		if (screenshotWritten == null) {
+			return;
+		}
+
+		try {
+			screenshotWritten.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new FrameworkException("Interrupted while waiting for the screenshot \"" + screenshotName + "\" to be written");
+		}
+	}
+
+	/**
+	 * Function to get the file in which the specified screenshot is stored
+	 * @param screenshotName The name of the screenshot file
+	 * @return The screenshot {@link File}
+	 */
+	File getScreenshotFile(String screenshotName)
+	{
+		return new File(screenshotsFolder, screenshotName);
+	}
+}
@@ -0,0 +1,111 @@
+package com.cognizant.framework;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Class which encodes and writes the screenshots captured during a test into their files, using a bounded pool of background threads.
+ * The calling thread only pays for capturing the screenshot, and encodes and writes the screenshot itself
+ * only when all the threads are busy and the queue is full (so that the memory held by the pending screenshots is bounded).
+ * All pending screenshots are written before the test log footer is added.
+ * @author Cognizant
+ */
+class ScreenshotWriter
+{
+	private final ThreadPoolExecutor writerPool;
+
+	private final Object drainMonitor = new Object();
+	private int nPendingScreenshots = 0;
+	private FrameworkException writeError;
+
+
+	/**
+	 * Constructor to initialize the {@link ScreenshotWriter}
+	 * @param nThreads The number of background threads which write the screenshots
+	 * @param queueCapacity The maximum number of screenshots which may be waiting for a background thread
+	 * @param threadName The name of the background threads
+	 */
+	ScreenshotWriter(int nThreads, int queueCapacity, final String threadName)
+	{
+		writerPool = new ThreadPoolExecutor(nThreads, nThreads, 10, TimeUnit.SECONDS,
+						new ArrayBlockingQueue<Runnable>(queueCapacity),
+						new ThreadFactory()
+						{
+							@Override
+							public Thread newThread(Runnable runnable)
+							{
+								Thread writerThread = new Thread(runnable, threadName);
+								writerThread.setDaemon(true);
+								return writerThread;
+							}
+						},
+						new ThreadPoolExecutor.CallerRunsPolicy());
+		// Release the threads while no screenshots are being taken
+		writerPool.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Function to encode and write the specified screenshot into the specified store in the background
+	 * @param screenshotStore The {@link ScreenshotStore} in which the screenshot file has been reserved
+	 * @param screenshotName The name of the screenshot file
+	 * @param screenshot The captured {@link Screenshot}
+	 * @param screenshotEncoder The {@link ScreenshotEncoder} with which the screenshot is to be encoded
+	 * @see #drain()
+	 */
+	void write(final ScreenshotStore screenshotStore, final String screenshotName, final Screenshot screenshot,
+																final ScreenshotEncoder screenshotEncoder)
+	{
+		synchronized (drainMonitor) {
+			nPendingScreenshots++;
+		}
+
+		writerPool.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try {
+					screenshotStore.write(screenshotName, screenshot, screenshotEncoder);
+				} catch (FrameworkException e) {
+					synchronized (drainMonitor) {
+						if (writeError == null) {
+							writeError = e;
+						}
+					}
+				} finally {
+					synchronized (drainMonitor) {
+						nPendingScreenshots--;
+						drainMonitor.notifyAll();
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Function to wait until all the pending screenshots have been written into their files
+	 * @throws FrameworkException If any of the screenshots could not be written
+	 */
+	void drain()
+	{
+		synchronized (drainMonitor) {
+			while (nPendingScreenshots > 0) {
+				try {
+					drainMonitor.wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new FrameworkException("Interrupted while waiting for the screenshots to be written");
+				}
+			}
+
+			if (writeError != null) {
+				FrameworkException error = writeError;
+				writeError = null;
+				throw error;
+			}
+		}
+	}
+}
@@ -1,13 +1,18 @@
 package com.cognizant.framework;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 import org.apache.poi.xwpf.usermodel.BreakType;
@@ -46,6 +51,20 @@ public class WordDocumentManager {
 		writeIntoFile(document);
 	}
 	
+	/**
+	 * Function to create a new Word document containing the specified pictures (one per page).
+	 * The document is built in memory and written into the file only once
+	 * @param pictureFiles The picture {@link File}s to be inserted, in the order in which they should appear
+	 */
+	public void createDocument(List<File> pictureFiles) {
+		CustomXWPFDocument document = new CustomXWPFDocument();
+		for (File pictureFile : pictureFiles) {
+			appendPicture(document, pictureFile);
+		}
+		
+		writeIntoFile(document);
+	}
+	
 	private void writeIntoFile(XWPFDocument document) {
 		String absoluteFilePath = filePath + Util.getFileSeparator() +
 														fileName + ".docx";
@@ -104,9 +123,27 @@ public class WordDocumentManager {
 	/**
 	 * Function to add a picture to the Word document
 	 * @param pictureFile the picture {@link File} to be inserted
+	 * @see #addPictures(List)
 	 */
 	public void addPicture(File pictureFile) {
+		addPictures(Collections.singletonList(pictureFile));
+	}
+	
+	/**
+	 * Function to add the specified pictures to the Word document (one per page).
+	 * The document is opened and written into the file only once, however many pictures are added
+	 * @param pictureFiles The picture {@link File}s to be inserted, in the order in which they should appear
+	 */
+	public void addPictures(List<File> pictureFiles) {
 		CustomXWPFDocument document = openFileForReading();
+		for (File pictureFile : pictureFiles) {
+			appendPicture(document, pictureFile);
+		}
+		
+		writeIntoFile(document);
+	}
+	
+	private void appendPicture(CustomXWPFDocument document, File pictureFile) {
 		XWPFParagraph paragraph = document.createParagraph();
 		paragraph.setAlignment(ParagraphAlignment.CENTER);
 		
@@ -114,15 +151,20 @@ public class WordDocumentManager {
 		run.setText(pictureFile.getName());
 		//run.addCarriageReturn();
 		
-		String id;
 		try {
-			id = document.addPictureData(new FileInputStream(pictureFile),
-												Document.PICTURE_TYPE_PNG);
+			PictureInfo pictureInfo = readPictureInfo(pictureFile);
+			
+			String id;
+			InputStream pictureInputStream = new FileInputStream(pictureFile);
+			try {
+				id = document.addPictureData(pictureInputStream, pictureInfo.pictureType);
+			} finally {
+				pictureInputStream.close();
+			}
 			
-			BufferedImage image = ImageIO.read(pictureFile);
 			document.createPicture(id,
-						document.getNextPicNameNumber(Document.PICTURE_TYPE_PNG),
-						image.getWidth(), image.getHeight());
+						document.getNextPicNameNumber(pictureInfo.pictureType),
+						pictureInfo.width, pictureInfo.height);
 		} catch (InvalidFormatException | IOException e) {
 			e.printStackTrace();
 			throw new FrameworkException("Exception thrown while adding a picture file to a Word document");
@@ -131,8 +173,61 @@ public class WordDocumentManager {
 		paragraph = document.createParagraph();
 		run = paragraph.createRun();
 		run.addBreak(BreakType.PAGE);
+	}
+	
+	// Only the header of the picture is read, since the picture need not be decoded to learn its format and size
+	private PictureInfo readPictureInfo(File pictureFile) throws IOException {
+		ImageInputStream imageInputStream = ImageIO.createImageInputStream(pictureFile);
+		if (imageInputStream == null) {
+			throw new FrameworkException("The picture file \"" + pictureFile.getName() + "\" could not be opened");
+		}
 		
-		writeIntoFile(document);
+		try {
+			Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+			if (!imageReaders.hasNext()) {
+				throw new FrameworkException("The format of the picture file \"" + pictureFile.getName() + "\" is not supported!");
+			}
+			
+			ImageReader imageReader = imageReaders.next();
+			try {
+				imageReader.setInput(imageInputStream, true, true);
+				
+				PictureInfo pictureInfo = new PictureInfo();
+				pictureInfo.pictureType = getPictureType(imageReader.getFormatName());
+				pictureInfo.width = imageReader.getWidth(0);
+				pictureInfo.height = imageReader.getHeight(0);
+				return pictureInfo;
+			} finally {
+				imageReader.dispose();
+			}
+		} finally {
+			imageInputStream.close();
+		}
+	}
+	
+	private int getPictureType(String formatName) {
+		switch (formatName.toLowerCase()) {
+		case "png":
+			return Document.PICTURE_TYPE_PNG;
+			
+		case "jpeg":
+		case "jpg":
+			return Document.PICTURE_TYPE_JPEG;
+			
+		case "gif":
+			return Document.PICTURE_TYPE_GIF;
+			
+		case "bmp":
+			return Document.PICTURE_TYPE_BMP;
+			
+		default:
+			throw new FrameworkException("The picture format \"" + formatName + "\" is not supported within Word documents!");
+		}
+	}
+	
+	private static class PictureInfo {
+		private int pictureType;
+		private int width, height;
 	}
 	
 	private CustomXWPFDocument openFileForReading() {
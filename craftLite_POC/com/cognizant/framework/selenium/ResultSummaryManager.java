@@ -10,8 +10,16 @@ import java.util.Properties;
 
 import org.apache.commons.io.FileUtils;
 
+import com.cognizant.framework.CommonDataResolver;
+import com.cognizant.framework.DatatableJournal;
+import com.cognizant.framework.DatatableSnapshotCache;
+import com.cognizant.framework.DatatableWatcher;
+import com.cognizant.framework.DatatableWriter;
+import com.cognizant.framework.DelimitedDatatableBackend;
+import com.cognizant.framework.ExcelWorkbookCache;
 import com.cognizant.framework.FrameworkException;
 import com.cognizant.framework.FrameworkParameters;
+import com.cognizant.framework.JdbcDatatableBackend;
 import com.cognizant.framework.ReportSettings;
 import com.cognizant.framework.ReportTheme;
 import com.cognizant.framework.ReportThemeFactory;
@@ -100,6 +108,16 @@ public class ResultSummaryManager
 		reportSettings.generateExcelReports = Boolean.parseBoolean(properties.getProperty("ExcelReport"));
 		reportSettings.generateHtmlReports = Boolean.parseBoolean(properties.getProperty("HtmlReport"));
 		reportSettings.linkTestLogsToSummary = true;
+		reportSettings.generateReportsAsynchronously =
+				Boolean.parseBoolean(properties.getProperty("GenerateReportsAsynchronously"));
+		reportSettings.setReportEventQueueCapacity(
+				Integer.parseInt(properties.getProperty("ReportEventQueueCapacity")));
+		reportSettings.setHtmlReportFlushRowInterval(
+				Integer.parseInt(properties.getProperty("HtmlReportFlushRowInterval")));
+		reportSettings.setHtmlReportFlushTimeInterval(
+				Long.parseLong(properties.getProperty("HtmlReportFlushTimeInterval")));
+		reportSettings.flushHtmlReportOnFailure =
+				Boolean.parseBoolean(properties.getProperty("FlushHtmlReportOnFailure"));
 	}
 	
 	private void createResultSummaryHeader(int nThreads)
@@ -156,21 +174,50 @@ public class ResultSummaryManager
 				Util.getTimeDifference(overallStartTime, overallEndTime);
 		summaryReport.addResultSummaryFooter(totalExecutionTime);
 		
-		if(testExecutedInUnitTestFramework) {
-			File testNgResultSrc = new File(frameworkParameters.getRelativePath() +
-											Util.getFileSeparator() +
-											properties.getProperty("TestNgReportPath"));		
-			File testNgResultDest = new File(reportPath +
-											Util.getFileSeparator() +
-											"TestNG Results");
+		try {
+			wrapUpDatatables();
+		} finally {
+			if(testExecutedInUnitTestFramework) {
+				copyTestNgResults();
+			}
+		}
+	}
+	
+	private void wrapUpDatatables()
+	{
+		// Create the run-time datatables and save any pending test data, then stop watching the datatables and release
+		// the workbooks, snapshots, common test data, delimited datatables and database connections held during the test batch execution
+		try {
+			DatatableJournal.materializeAll();
+		} finally {
 			try {
-				FileUtils.copyDirectory(testNgResultSrc, testNgResultDest);
-			} catch (IOException e) {
-				e.printStackTrace();
+				DatatableWriter.getInstance().flushAll();
+			} finally {
+				DatatableWatcher.getInstance().stop();
+				DatatableSnapshotCache.getInstance().clear();
+				ExcelWorkbookCache.getInstance().clear();
+				CommonDataResolver.getInstance().clear();
+				DelimitedDatatableBackend.clearCache();
+				JdbcDatatableBackend.closeConnections();
 			}
 		}
 	}
 	
+	private void copyTestNgResults()
+	{
+		File testNgResultSrc = new File(frameworkParameters.getRelativePath() +
+										Util.getFileSeparator() +
+										properties.getProperty("TestNgReportPath"));		
+		File testNgResultDest = new File(reportPath +
+										Util.getFileSeparator() +
+										"TestNG Results");
+		try {
+			FileUtils.copyDirectory(testNgResultSrc, testNgResultDest);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+	
 	/**
 	 * Function to launch the summary report at the end of the test batch execution
 	 */
@@ -0,0 +1,19 @@
+package com.cognizant.framework.selenium;
+
+/**
+ * Enumeration to represent the extent of the page captured within the screenshots
+ * @author Cognizant
+ * @see SeleniumReport#setScreenshotMode(ScreenshotMode)
+ */
+public enum ScreenshotMode
+{
+	/**
+	 * Capture the part of the page visible within the browser window
+	 */
+	Viewport,
+	
+	/**
+	 * Capture the entire page, by scrolling through it and stitching together the visible parts
+	 */
+	FullPage;
+}
@@ -1,13 +1,20 @@
 package com.cognizant.framework.selenium;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.remote.Augmenter;
 import org.openqa.selenium.remote.RemoteWebDriver;
 
@@ -15,14 +22,21 @@ import com.cognizant.framework.FrameworkException;
 import com.cognizant.framework.Report;
 import com.cognizant.framework.ReportSettings;
 import com.cognizant.framework.ReportTheme;
+import com.cognizant.framework.Screenshot;
+import com.cognizant.framework.Status;
 
 
 /**
- * Class which extends the {@link Report} class with a Selenium specific override for taking screenshots
+ * Class which extends the {@link Report} class with a Selenium specific override for taking screenshots.
+ * The screenshots are captured only through the {@link WebDriver} of the test (never from the desktop),
+ * so that tests running in parallel capture their own browser windows, without needing a display
  * @author Cognizant
  */
 public class SeleniumReport extends Report
 {
+	// The stitched full page screenshots are cut off beyond this height (in pixels), to bound their memory usage
+	private static final int MAX_FULL_PAGE_HEIGHT = 16384;
+	
 	private WebDriver driver;
 	/**
 	 * Function to set the {@link WebDriver} object
@@ -33,6 +47,23 @@ public class SeleniumReport extends Report
 		this.driver = driver;
 	}
 	
+	private ScreenshotMode screenshotMode = ScreenshotMode.Viewport;
+	/**
+	 * Function to set the extent of the page captured within the screenshots
+	 * @param screenshotMode The {@link ScreenshotMode}
+	 */
+	public void setScreenshotMode(ScreenshotMode screenshotMode)
+	{
+		if (screenshotMode == null) {
+			throw new FrameworkException("The screenshot mode should not be null");
+		}
+		
+		this.screenshotMode = screenshotMode;
+	}
+	
+	// The element to which the screenshot (if any) of the step being logged is to be cropped
+	private WebElement screenshotElement;
+	
 	//private IMobileDevice device;
 	/**
 	 * Function to set the {@link IMobileDevice} object
@@ -53,8 +84,26 @@ public class SeleniumReport extends Report
 		super(reportSettings, reportTheme);
 	}
 	
+	/**
+	 * Function to update the test log with the details of a particular test step,
+	 * cropping the screenshot (if any) of the step to the specified element
+	 * @param stepName The test step name
+	 * @param stepDescription The description of what the test step does
+	 * @param stepStatus The status of the test step
+	 * @param element The {@link WebElement} to which the screenshot is to be cropped
+	 */
+	public void updateTestLog(String stepName, String stepDescription, Status stepStatus, WebElement element)
+	{
+		screenshotElement = element;
+		try {
+			updateTestLog(stepName, stepDescription, stepStatus);
+		} finally {
+			screenshotElement = null;
+		}
+	}
+	
 	@Override
-	protected void takeScreenshot(String screenshotPath)
+	protected Screenshot captureScreenshot()
 	{
 		if (driver == null) {
 			throw new FrameworkException("Report.driver is not initialized!");
@@ -62,30 +111,159 @@ public class SeleniumReport extends Report
 		
 		if (driver.getClass().getSimpleName().equals("HtmlUnitDriver") || 
 			driver.getClass().getGenericSuperclass().toString().equals("class org.openqa.selenium.htmlunit.HtmlUnitDriver")) {
-			return;	// Screenshots not supported in headless mode
+			return null;	// Screenshots not supported in headless mode
 		}
 		
-		File scrFile;
+		// Capture the screenshot in memory, leaving the file I/O to the report
+		TakesScreenshot screenshotDriver;
 		if (driver.getClass().getSimpleName().equals("RemoteWebDriver")) {
 			Capabilities capabilities = ((RemoteWebDriver) driver).getCapabilities();
 			if (capabilities.getBrowserName().equals("htmlunit")) {
-				return;	// Screenshots not supported in headless mode
+				return null;	// Screenshots not supported in headless mode
 			}
-			WebDriver augmentedDriver = new Augmenter().augment(driver);
-	        scrFile = ((TakesScreenshot) augmentedDriver).getScreenshotAs(OutputType.FILE);
+			screenshotDriver = (TakesScreenshot) new Augmenter().augment(driver);
 		} else {
-			scrFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
+			screenshotDriver = (TakesScreenshot) driver;
 		}
 		
 		/*if (driver.getClass().getSimpleName().equals("IMobileWebDriver")) {
-			scrFile = device.getScreenshotAs(OutputType.FILE);
+			return device.getScreenshotAs(OutputType.BYTES);
 		}*/
 		
+		// Cropping and scrolling require script execution, without which the visible part of the page is captured
+		if (driver instanceof JavascriptExecutor) {
+			JavascriptExecutor javascriptExecutor = (JavascriptExecutor) driver;
+			
+			if (screenshotElement != null) {
+				return captureElement(screenshotDriver, javascriptExecutor, screenshotElement);
+			}
+			if (screenshotMode == ScreenshotMode.FullPage) {
+				return captureFullPage(screenshotDriver, javascriptExecutor);
+			}
+		}
+		
+		return new Screenshot(screenshotDriver.getScreenshotAs(OutputType.BYTES));
+	}
+	
+	// The captured images are only cropped and stitched when the screenshot is encoded, so that they are never decoded here
+	private Screenshot captureElement(TakesScreenshot screenshotDriver,
+										JavascriptExecutor javascriptExecutor, WebElement element)
+	{
+		// Bring the element into view (if required), and get its bounds relative to the viewport
+		List<?> bounds = (List<?>) javascriptExecutor.executeScript(
+				"var element = arguments[0], bounds = element.getBoundingClientRect();" +
+				"var scrollX = window.pageXOffset, scrollY = window.pageYOffset, scrolled = 0;" +
+				"if (bounds.top < 0 || bounds.bottom > window.innerHeight) {" +
+				"	element.scrollIntoView(true); bounds = element.getBoundingClientRect(); scrolled = 1;" +
+				"}" +
+				"return [bounds.left, bounds.top, bounds.width, bounds.height, window.devicePixelRatio || 1," +
+				"	scrollX, scrollY, scrolled];",
+				element);
+		double pixelRatio = getNumber(bounds, 4);
+		
+		Screenshot screenshot;
+		try {
+			screenshot = new Screenshot(screenshotDriver.getScreenshotAs(OutputType.BYTES));
+		} finally {
+			if (getNumber(bounds, 7) != 0) {
+				// Restore the page under test to where it was scrolled
+				javascriptExecutor.executeScript("window.scrollTo(arguments[0], arguments[1]);",
+										(long) getNumber(bounds, 5), (long) getNumber(bounds, 6));
+			}
+		}
+		
+		int left = (int) Math.floor(getNumber(bounds, 0) * pixelRatio);
+		int top = (int) Math.floor(getNumber(bounds, 1) * pixelRatio);
+		int right = (int) Math.ceil((getNumber(bounds, 0) + getNumber(bounds, 2)) * pixelRatio);
+		int bottom = (int) Math.ceil((getNumber(bounds, 1) + getNumber(bounds, 3)) * pixelRatio);
+		// If the element is not visible, the viewport is captured instead
+		screenshot.setCrop(left, top, right - left, bottom - top);
+		
+		return screenshot;
+	}
+	
+	private Screenshot captureFullPage(TakesScreenshot screenshotDriver, JavascriptExecutor javascriptExecutor)
+	{
+		List<?> metrics = (List<?>) javascriptExecutor.executeScript(
+				"return [window.pageXOffset, window.pageYOffset, window.innerHeight," +
+				"	Math.max(document.body.scrollHeight, document.documentElement.scrollHeight)," +
+				"	window.devicePixelRatio || 1];");
+		long originalScrollX = (long) getNumber(metrics, 0);
+		long originalScrollY = (long) getNumber(metrics, 1);
+		double viewportHeight = getNumber(metrics, 2);
+		double pageHeight = getNumber(metrics, 3);
+		double pixelRatio = getNumber(metrics, 4);
+		
+		if (pageHeight <= viewportHeight) {
+			return new Screenshot(screenshotDriver.getScreenshotAs(OutputType.BYTES));
+		}
+		
+		int stitchedHeight = (int) Math.min(MAX_FULL_PAGE_HEIGHT, Math.ceil(pageHeight * pixelRatio));
+		Screenshot screenshot = new Screenshot(stitchedHeight);
+		int imageHeight = 0;
+		
+		try {
+			double requestedScrollY = 0;
+			while (true) {
+				// The browser stops scrolling at the end of the page, so the last part may overlap the previous one
+				double actualScrollY = getNumber((List<?>) javascriptExecutor.executeScript(
+						"window.scrollTo(arguments[0], arguments[1]); return [window.pageYOffset];",
+						originalScrollX, (long) requestedScrollY), 0);
+				byte[] image = screenshotDriver.getScreenshotAs(OutputType.BYTES);
+				
+				if (imageHeight == 0) {
+					imageHeight = getImageHeight(image);
+					if (imageHeight >= stitchedHeight) {
+						// Some drivers capture the entire page on their own
+						return new Screenshot(image);
+					}
+				}
+				
+				int offset = (int) Math.round(actualScrollY * pixelRatio);
+				screenshot.addImage(image, offset);
+				
+				if (actualScrollY + viewportHeight >= pageHeight || actualScrollY < requestedScrollY - 0.5 ||
+						offset + imageHeight >= stitchedHeight) {
+					break;
+				}
+				requestedScrollY = actualScrollY + viewportHeight;
+			}
+		} finally {
+			javascriptExecutor.executeScript("window.scrollTo(arguments[0], arguments[1]);",
+															originalScrollX, originalScrollY);
+		}
+		
+		return screenshot;
+	}
+	
+	private static double getNumber(List<?> values, int index)
+	{
+		return ((Number) values.get(index)).doubleValue();
+	}
+	
+	// Only the header of the image is read, rather than decoding the whole image
+	private static int getImageHeight(byte[] image)
+	{
 		try {
-			FileUtils.copyFile(scrFile, new File(screenshotPath), true);
+			ImageInputStream imageInputStream = ImageIO.createImageInputStream(new ByteArrayInputStream(image));
+			try {
+				Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+				if (!imageReaders.hasNext()) {
+					throw new FrameworkException("The format of the screenshot captured by the driver is not supported!");
+				}
+				ImageReader imageReader = imageReaders.next();
+				try {
+					imageReader.setInput(imageInputStream);
+					return imageReader.getHeight(0);
+				} finally {
+					imageReader.dispose();
+				}
+			} finally {
+				imageInputStream.close();
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
-			throw new FrameworkException("Error while writing screenshot to file");
+			throw new FrameworkException("Error while reading the screenshot captured by the driver");
 		}
 	}
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package supportlibraries;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.Date;
 import java.util.Properties;
 
@@ -9,7 +7,6 @@ import com.cognizant.framework.*;
 import com.cognizant.framework.ReportThemeFactory.Theme;
 import com.cognizant.framework.selenium.*;
 
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.Platform;
 import org.openqa.selenium.WebDriver;
 import org.testng.Assert;
@@ -102,6 +99,7 @@ public class DriverScript
 			testCase.tearDown();	// tearDown will ALWAYS be called
 		}
 		
+		flushDatatable();
 		quitWebDriver();
 		wrapUp();
 	}
@@ -148,10 +146,29 @@ public class DriverScript
 		case RunAllIterations:
 			String datatablePath = frameworkParameters.getRelativePath() +
 									Util.getFileSeparator() + "Datatables";
-			ExcelDataAccess testDataAccess =
-					new ExcelDataAccess(datatablePath, testParameters.getCurrentScenario());
-			testDataAccess.setDatasheetName(properties.getProperty("DefaultDataSheet"));
-			int nIterations = testDataAccess.getRowCount(testParameters.getCurrentTestcase(), 0);
+			DatatableFormat datatableFormat =
+					DatatableFormat.valueOf(properties.getProperty("DatatableFormat"));
+			DatatableBackend testDataBackend;
+			switch (datatableFormat) {
+			case Excel:
+				ExcelDatatableBackend excelBackend =
+						new ExcelDatatableBackend(datatablePath, testParameters.getCurrentScenario());
+				excelBackend.setUseSnapshots(
+						Boolean.parseBoolean(properties.getProperty("UseDatatableSnapshots")));
+				testDataBackend = excelBackend;
+				break;
+				
+			case Database:
+				testDataBackend = new JdbcDatatableBackend(properties.getProperty("DatatableDatabaseUrl"),
+															testParameters.getCurrentScenario());
+				break;
+				
+			default:
+				testDataBackend = new DelimitedDatatableBackend(datatablePath,
+										testParameters.getCurrentScenario(), datatableFormat);
+			}
+			int nIterations = testDataBackend.getRowCount(properties.getProperty("DefaultDataSheet"),
+															testParameters.getCurrentTestcase());
 			testParameters.setEndIteration(nIterations);
 			
 			currentIteration = 1;
@@ -211,6 +228,7 @@ public class DriverScript
 		
 		report.initialize();
 		report.setDriver(driver);
+		report.setScreenshotMode(ScreenshotMode.valueOf(properties.getProperty("ScreenshotMode")));
 		report.initializeTestLog();
 		createTestLogHeader();
 	}
@@ -240,6 +258,36 @@ public class DriverScript
 				Boolean.parseBoolean(properties.getProperty("TakeScreenshotPassedStep"));
 		reportSettings.consolidateScreenshotsInWordDoc = 
 				Boolean.parseBoolean(properties.getProperty("ConsolidateScreenshotsInWordDoc"));
+		reportSettings.writeScreenshotsAsynchronously =
+				Boolean.parseBoolean(properties.getProperty("WriteScreenshotsAsynchronously"));
+		reportSettings.setScreenshotWriterThreads(
+				Integer.parseInt(properties.getProperty("ScreenshotWriterThreads")));
+		reportSettings.setScreenshotQueueCapacity(
+				Integer.parseInt(properties.getProperty("ScreenshotQueueCapacity")));
+		reportSettings.setScreenshotFormat(
+				ScreenshotFormat.valueOf(properties.getProperty("ScreenshotFormat")));
+		reportSettings.setScreenshotMaxWidth(
+				Integer.parseInt(properties.getProperty("ScreenshotMaxWidth")));
+		reportSettings.setScreenshotMaxHeight(
+				Integer.parseInt(properties.getProperty("ScreenshotMaxHeight")));
+		reportSettings.setScreenshotQuality(
+				Float.parseFloat(properties.getProperty("ScreenshotQuality")));
+		reportSettings.grayscaleScreenshots =
+				Boolean.parseBoolean(properties.getProperty("GrayscaleScreenshots"));
+		reportSettings.generateReportsAsynchronously =
+				Boolean.parseBoolean(properties.getProperty("GenerateReportsAsynchronously"));
+		reportSettings.setReportEventQueueCapacity(
+				Integer.parseInt(properties.getProperty("ReportEventQueueCapacity")));
+		reportSettings.setHtmlReportFlushRowInterval(
+				Integer.parseInt(properties.getProperty("HtmlReportFlushRowInterval")));
+		reportSettings.setHtmlReportFlushTimeInterval(
+				Long.parseLong(properties.getProperty("HtmlReportFlushTimeInterval")));
+		reportSettings.flushHtmlReportOnFailure =
+				Boolean.parseBoolean(properties.getProperty("FlushHtmlReportOnFailure"));
+		reportSettings.bufferExcelTestLog =
+				Boolean.parseBoolean(properties.getProperty("BufferExcelTestLog"));
+		reportSettings.setExcelTestLogCheckpointInterval(
+				Integer.parseInt(properties.getProperty("ExcelTestLogCheckpointInterval")));
 		if (testParameters.getBrowser().equals(Browser.HtmlUnit)) {
 			// Screenshots not supported in headless mode
 			reportSettings.linkScreenshotsToTestLog = false;
@@ -293,46 +341,41 @@ public class DriverScript
 		String datatablePath = frameworkParameters.getRelativePath() +
 									Util.getFileSeparator() + "Datatables";
 		
-		String runTimeDatatablePath;
+		DatatableFormat datatableFormat =
+				DatatableFormat.valueOf(properties.getProperty("DatatableFormat"));
+		DatatableJournal runTimeDatatableJournal = null;
 		Boolean includeTestDataInReport =
 				Boolean.parseBoolean(properties.getProperty("IncludeTestDataInReport"));
 		if (includeTestDataInReport) {
-			runTimeDatatablePath = reportPath + Util.getFileSeparator() + "Datatables";
-			
-			File runTimeDatatable = new File(runTimeDatatablePath + Util.getFileSeparator() +
-												testParameters.getCurrentScenario() + ".xls");
-			if (!runTimeDatatable.exists()) {
-				File datatable = new File(datatablePath + Util.getFileSeparator() +
-											testParameters.getCurrentScenario() + ".xls");
-				
-				try {
-					FileUtils.copyFile(datatable, runTimeDatatable);
-				} catch (IOException e) {
-					e.printStackTrace();
-					throw new FrameworkException("Error in creating run-time datatable: Copying the datatable failed...");
-				}
+			// The datatables stored within a database are shared, and cannot be copied into the report
+			if (datatableFormat == DatatableFormat.Database) {
+				throw new FrameworkException("IncludeTestDataInReport is not supported " +
+											"for the datatables stored within a database! " +
+											"Please set IncludeTestDataInReport to False " +
+											"in the Global Settings.properties file");
 			}
 			
-			File runTimeCommonDatatable = new File(runTimeDatatablePath +
-													Util.getFileSeparator() +
-													"Common Testdata.xls");
-			if (!runTimeCommonDatatable.exists()) {
-				File commonDatatable = new File(datatablePath +
-										Util.getFileSeparator() + "Common Testdata.xls");
-				
-				try {
-					FileUtils.copyFile(commonDatatable, runTimeCommonDatatable);
-				} catch (IOException e) {
-					e.printStackTrace();
-					throw new FrameworkException("Error in creating run-time datatable: Copying the common datatable failed...");
-				}
-			}
-		} else {
-			runTimeDatatablePath = datatablePath;
+			// The run-time datatables are created from the journal at the end of the test batch execution
+			String runTimeDatatablePath = reportPath + Util.getFileSeparator() + "Datatables";
+			runTimeDatatableJournal = DatatableJournal.getJournal(runTimeDatatablePath);
+			runTimeDatatableJournal.register(datatablePath, testParameters.getCurrentScenario(), datatableFormat);
+			runTimeDatatableJournal.register(datatablePath, "Common Testdata", datatableFormat);
+		}
+		
+		if (Boolean.parseBoolean(properties.getProperty("WatchDatatables"))) {
+			DatatableWatcher.getInstance().watch(datatablePath);
 		}
 		
-		dataTable = new CraftliteDataTable(runTimeDatatablePath, testParameters.getCurrentScenario());
+		dataTable = new CraftliteDataTable(datatablePath, testParameters.getCurrentScenario());
+		dataTable.setJournal(runTimeDatatableJournal);
 		dataTable.setDataReferenceIdentifier(properties.getProperty("DataReferenceIdentifier"));
+		dataTable.setDatatableFormat(datatableFormat);
+		dataTable.setDatabaseUrl(properties.getProperty("DatatableDatabaseUrl"));
+		dataTable.setPrefetchMode(DataPrefetchMode.valueOf(properties.getProperty("DataPrefetchMode")));
+		dataTable.setWriteBehind(Boolean.parseBoolean(properties.getProperty("DatatableWriteBehind")));
+		dataTable.setReevaluateFormulasOnWrite(
+				Boolean.parseBoolean(properties.getProperty("ReevaluateFormulasOnWrite")));
+		dataTable.setUseSnapshots(Boolean.parseBoolean(properties.getProperty("UseDatatableSnapshots")));
 		
 		// Initialize the datatable row in case test data is required during the setUp()
 		dataTable.setCurrentRow(testParameters.getCurrentTestcase(), currentIteration);
@@ -439,6 +482,16 @@ public class DriverScript
 		}
 	}
 	
+	private void flushDatatable()
+	{
+		// Ensure that any output data written in the background is saved before the test ends
+		try {
+			DatatableWriter.getInstance().flush();
+		} catch (FrameworkException fx) {
+			exceptionHandler(fx, fx.errorName);
+		}
+	}
+	
 	private void quitWebDriver()
 	{
 		driver.quit();
@@ -98,7 +98,7 @@ public class TC4 extends TestCase
 	{
 		String[] passengerFirstNames = dataTable.getData("Passenger_Data", "PassengerFirstNames").split(",");
 		String[] passengerLastNames = dataTable.getData("Passenger_Data", "PassengerLastNames").split(",");
-		int passengerCount = Integer.parseInt(dataTable.getData("Passenger_Data", "PassengerCount"));
+		int passengerCount = dataTable.getInt("Passenger_Data", "PassengerCount");
 		for(int i=0; i<passengerCount; i++) {
 			driver.findElement(By.name("passFirst" + i)).sendKeys(passengerFirstNames[i]);
 			driver.findElement(By.name("passLast" + i)).sendKeys(passengerLastNames[i]);